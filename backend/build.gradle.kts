@@ -17,12 +17,37 @@ repositories {
     mavenCentral()
 }
 
+// Benchmarks JMH: src/jmh/java, executados com ./gradlew jmh
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+        runtimeClasspath += output + compileClasspath
+    }
+    // Teste de carga: src/carga/java, executado com ./gradlew testeCarga
+    create("carga") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+        runtimeClasspath += output + compileClasspath
+    }
+}
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop") // @Timed (TimedAspect)
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.flywaydb:flyway-core")
+    implementation("org.hibernate.orm:hibernate-jcache")
+    implementation("org.hibernate.orm:hibernate-micrometer")
+    implementation("io.micrometer:micrometer-java21")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.github.ben-manes.caffeine:jcache")
+    runtimeOnly("org.flywaydb:flyway-database-postgresql")
+    // Catálogo reativo: driver R2DBC e pool
+    implementation("org.postgresql:r2dbc-postgresql")
+    implementation("io.r2dbc:r2dbc-pool")
 
     implementation("io.jsonwebtoken:jjwt-api:0.12.6")
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.12.6")
@@ -32,10 +57,57 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testRuntimeOnly("com.h2database:h2")
+    testImplementation("io.zonky.test:embedded-postgres:2.1.0")
+
+    implementation("org.postgresql:postgresql") // CopyManager na exportação do catálogo
 
-    runtimeOnly("org.postgresql:postgresql")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    "jmhImplementation"("io.zonky.test:embedded-postgres:2.1.0")
+    "cargaImplementation"("io.zonky.test:embedded-postgres:2.1.0")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Uso: ./gradlew jmh [-Pjmh.includes=JwtUtilBenchmark]
+// Resultados em JSON para comparação entre versões: um arquivo por versão do projeto
+// (build/reports/jmh/results-<versão>.json), comparáveis com o JMH Visualizer ou jq
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Executa os benchmarks JMH"
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    val resultFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+    outputs.upToDateWhen { false }
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+    args = listOfNotNull(
+        project.findProperty("jmh.includes")?.toString(),
+        "-rf", "json",
+        "-rff", resultFile.get().asFile.absolutePath
+    )
+}
+
+// Uso: ./gradlew testeCarga [-Pcarga.produtos=100000] [-Pcarga.concorrencia=64] [-Pcarga.duracao=60]
+//      [-Pcarga.aquecimento=10] [-Pcarga.semente=42]
+//      [-Pcarga.jdbc-url=jdbc:postgresql://localhost:5432/postgres -Pcarga.usuario=... -Pcarga.senha=...]
+// Sem carga.jdbc-url usa um PostgreSQL embarcado. Throughput e p50/p99/p999 por rota em
+// build/reports/carga/resultado-<versão>.json
+tasks.register<JavaExec>("testeCarga") {
+    group = "benchmark"
+    description = "Executa o teste de carga da API sobre um catálogo sintético"
+    dependsOn("cargaClasses")
+    classpath = sourceSets["carga"].runtimeClasspath
+    mainClass = "org.example.backend.carga.TesteCarga"
+    maxHeapSize = "4g"
+    outputs.upToDateWhen { false }
+    systemProperty("carga.resultado",
+        layout.buildDirectory.file("reports/carga/resultado-${project.version}.json").get().asFile.absolutePath)
+    systemProperty("carga.versao", project.version.toString())
+    project.properties
+        .filterKeys { it.startsWith("carga.") }
+        .forEach { (chave, valor) -> systemProperty(chave, valor.toString()) }
+}
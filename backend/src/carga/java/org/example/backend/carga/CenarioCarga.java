@@ -0,0 +1,175 @@
+package org.example.backend.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Roteiro executado por cada cliente do teste de carga: sorteia uma operação pelos pesos
+ * abaixo, executa e mede. Cada cliente usa seu próprio {@link Random} com semente fixa,
+ * então a sequência de requisições é a mesma a cada execução.
+ */
+class CenarioCarga {
+
+    enum Operacao {
+        LOGIN("POST /auth/login", 2),
+        LISTAGEM_FILTRADA("GET /produtos (filtros)", 30),
+        PAGINACAO_PROFUNDA("GET /produtos (página profunda)", 8),
+        PAGINACAO_CURSOR("GET /produtos (cursor)", 8),
+        BUSCA_POR_ID("GET /produtos/{id}", 44),
+        ATUALIZACAO("PUT /produtos/{id}", 6),
+        RESERVA_ESTOQUE("POST /produtos/{id}/estoque/reservar", 2);
+
+        final String rota;
+        final int peso;
+
+        Operacao(String rota, int peso) {
+            this.rota = rota;
+            this.peso = peso;
+        }
+    }
+
+    private static final int PESO_TOTAL = Arrays.stream(Operacao.values()).mapToInt(o -> o.peso).sum();
+    // Páginas seguidas por cursor antes de recomeçar do início
+    private static final int PAGINAS_POR_CURSOR = 50;
+    private static final int TAMANHO_PAGINA = 20;
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final int produtos;
+    private final int categorias;
+    private final Random random;
+
+    private String token;
+    private String cursor;
+    private int paginasNoCursor;
+
+    CenarioCarga(HttpClient http, ObjectMapper objectMapper, String baseUrl, int produtos, int categorias, long semente) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.produtos = produtos;
+        this.categorias = categorias;
+        this.random = new Random(semente);
+    }
+
+    Operacao sortear() {
+        int sorteio = random.nextInt(PESO_TOTAL);
+        for (Operacao operacao : Operacao.values()) {
+            sorteio -= operacao.peso;
+            if (sorteio < 0) {
+                return operacao;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @return {@code true} se a resposta foi a esperada para a operação
+     */
+    boolean executar(Operacao operacao) throws IOException, InterruptedException {
+        return switch (operacao) {
+            case LOGIN -> login();
+            case LISTAGEM_FILTRADA -> listagemFiltrada();
+            case PAGINACAO_PROFUNDA -> get("/produtos?contagem=nenhuma&size=" + TAMANHO_PAGINA + "&page="
+                    + random.nextInt(Math.max(1, produtos / TAMANHO_PAGINA))) == 200;
+            case PAGINACAO_CURSOR -> paginaPorCursor();
+            case BUSCA_POR_ID -> get("/produtos/" + idAleatorio()) == 200;
+            case ATUALIZACAO -> atualizacao();
+            // 409 (estoque esgotado) também é uma resposta válida
+            case RESERVA_ESTOQUE -> {
+                int status = enviar(requisicao("/produtos/" + idAleatorio() + "/estoque/reservar")
+                        .POST(HttpRequest.BodyPublishers.noBody())).statusCode();
+                yield status == 204 || status == 409;
+            }
+        };
+    }
+
+    // Também chamado antes da primeira operação, para que o cliente já tenha um token
+    boolean login() throws IOException, InterruptedException {
+        HttpResponse<byte[]> resposta = enviar(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\": \"admin\", \"password\": \"admin123\"}")));
+        if (resposta.statusCode() != 200) {
+            return false;
+        }
+        token = objectMapper.readTree(resposta.body()).path("token").asText();
+        return true;
+    }
+
+    private boolean listagemFiltrada() throws IOException, InterruptedException {
+        StringBuilder consulta = new StringBuilder("/produtos?size=" + TAMANHO_PAGINA);
+        if (random.nextBoolean()) {
+            String termo = PopuladorCatalogo.TIPOS[random.nextInt(PopuladorCatalogo.TIPOS.length)];
+            if (random.nextBoolean()) {
+                termo += " " + PopuladorCatalogo.MARCAS[random.nextInt(PopuladorCatalogo.MARCAS.length)];
+            }
+            consulta.append("&nome=").append(URLEncoder.encode(termo, StandardCharsets.UTF_8));
+        }
+        if (random.nextBoolean()) {
+            consulta.append("&categoriaId=").append(PopuladorCatalogo.BASE_ID + 1 + random.nextInt(categorias));
+        }
+        int precoMinimo = random.nextInt(9000);
+        consulta.append("&precoMinimo=").append(precoMinimo).append("&precoMaximo=").append(precoMinimo + 1000);
+        consulta.append(random.nextBoolean() ? "&sort=preco,desc" : "&sort=nome");
+        return get(consulta.toString()) == 200;
+    }
+
+    private boolean paginaPorCursor() throws IOException, InterruptedException {
+        if (cursor == null || paginasNoCursor == PAGINAS_POR_CURSOR) {
+            cursor = "";
+            paginasNoCursor = 0;
+        }
+        HttpResponse<byte[]> resposta = enviar(requisicao("/produtos?size=" + TAMANHO_PAGINA + "&sort=nome&after="
+                + URLEncoder.encode(cursor, StandardCharsets.UTF_8)).GET());
+        if (resposta.statusCode() != 200) {
+            cursor = null;
+            return false;
+        }
+        JsonNode proximo = objectMapper.readTree(resposta.body()).path("nextCursor");
+        cursor = proximo.isTextual() ? proximo.asText() : null;
+        paginasNoCursor++;
+        return true;
+    }
+
+    private boolean atualizacao() throws IOException, InterruptedException {
+        long id = idAleatorio();
+        Map<String, Object> produto = new LinkedHashMap<>();
+        produto.put("nome", "Produto atualizado " + id);
+        produto.put("preco", 1 + random.nextInt(999_900) / 100.0);
+        produto.put("estoque", random.nextInt(500));
+        produto.put("categoria", Map.of("id", PopuladorCatalogo.BASE_ID + 1 + random.nextInt(categorias)));
+        return enviar(requisicao("/produtos/" + id)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(produto))))
+                .statusCode() == 200;
+    }
+
+    private long idAleatorio() {
+        return PopuladorCatalogo.BASE_ID + 1 + random.nextInt(produtos);
+    }
+
+    private int get(String caminho) throws IOException, InterruptedException {
+        return enviar(requisicao(caminho).GET()).statusCode();
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho)).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<byte[]> enviar(HttpRequest.Builder requisicao) throws IOException, InterruptedException {
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.backend.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latências de uma rota em microssegundos (HdrHistogram, 3 dígitos significativos, até 60 s)
+class EstatisticasRota {
+
+    private static final long MAXIMO_US = TimeUnit.SECONDS.toMicros(60);
+
+    private final Histogram latencias = new ConcurrentHistogram(MAXIMO_US, 3);
+    private final LongAdder erros = new LongAdder();
+
+    void registrar(long duracaoNanos, boolean sucesso) {
+        latencias.recordValue(Math.min(MAXIMO_US, Math.max(1, TimeUnit.NANOSECONDS.toMicros(duracaoNanos))));
+        if (!sucesso) {
+            erros.increment();
+        }
+    }
+
+    void acumularEm(Histogram total) {
+        total.add(latencias);
+    }
+
+    long erros() {
+        return erros.sum();
+    }
+
+    Map<String, Object> resumo(double segundos) {
+        return resumo(latencias, erros.sum(), segundos);
+    }
+
+    static Map<String, Object> resumo(Histogram histograma, long erros, double segundos) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("requisicoes", histograma.getTotalCount());
+        resumo.put("erros", erros);
+        resumo.put("throughput", arredondar(histograma.getTotalCount() / segundos));
+        resumo.put("p50Ms", percentil(histograma, 50));
+        resumo.put("p99Ms", percentil(histograma, 99));
+        resumo.put("p999Ms", percentil(histograma, 99.9));
+        resumo.put("maxMs", histograma.getTotalCount() == 0 ? 0 : histograma.getMaxValue() / 1000.0);
+        return resumo;
+    }
+
+    private static double percentil(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000.0;
+    }
+
+    private static double arredondar(double valor) {
+        return Math.round(valor * 10) / 10.0;
+    }
+}
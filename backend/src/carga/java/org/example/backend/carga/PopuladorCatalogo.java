@@ -0,0 +1,78 @@
+package org.example.backend.carga;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Catálogo sintético e determinístico para o teste de carga: os mesmos parâmetros geram
+ * sempre as mesmas linhas. Tudo é criado com INSERT ... SELECT sobre generate_series, numa
+ * faixa de ids acima de {@link #BASE_ID} (fora das sequências da aplicação e dentro do
+ * intervalo int do IndiceTrigramas).
+ * <p>
+ * Uma categoria a cada 1000 produtos e um fornecedor a cada 500 (mínimo de 10 de cada),
+ * de 0 a 3 fornecedores e um detalhe a cada 4 produtos. Nomes no formato
+ * "Tipo Marca n", para que os filtros por nome tenham seletividades variadas.
+ * <p>
+ * O cenário altera preços e estoques desses produtos, então o catálogo de uma execução
+ * anterior nunca é reaproveitado: a faixa é sempre apagada e recriada.
+ */
+class PopuladorCatalogo {
+
+    static final long BASE_ID = 100_000_000L;
+
+    static final String[] TIPOS = {"Smartphone", "Notebook", "Monitor", "Fone", "Tablet", "Smart TV"};
+    static final String[] MARCAS = {"Samsung", "Apple", "Dell", "Lenovo", "Motorola", "LG", "Sony", "Asus"};
+
+    private final JdbcTemplate jdbc;
+    private final int produtos;
+    private final int categorias;
+    private final int fornecedores;
+
+    PopuladorCatalogo(JdbcTemplate jdbc, int produtos) {
+        this.jdbc = jdbc;
+        this.produtos = produtos;
+        this.categorias = Math.max(10, produtos / 1000);
+        this.fornecedores = Math.max(10, produtos / 500);
+    }
+
+    int categorias() {
+        return categorias;
+    }
+
+    void popular() {
+        remover();
+
+        jdbc.update("INSERT INTO categorias (id, nome) SELECT ? + c, 'Carga ' || c FROM generate_series(1, ?) c",
+                BASE_ID, categorias);
+        jdbc.update("INSERT INTO fornecedores (id, nome, telefone, email) " +
+                "SELECT ? + f, 'Fornecedor ' || f, '(11) ' || lpad(f::text, 8, '0'), 'fornecedor' || f || '@carga.exemplo' " +
+                "FROM generate_series(1, ?) f", BASE_ID, fornecedores);
+        jdbc.update("INSERT INTO detalhes_produto (id, dimensoes, peso, material) " +
+                "SELECT ? + i, (10 + i % 40) || 'x' || (5 + i % 20) || 'x' || (1 + i % 5), 0.1 + (i % 300) / 10.0, " +
+                "(ARRAY['Alumínio', 'Plástico', 'Vidro', 'Aço'])[1 + i % 4] " +
+                "FROM generate_series(1, ?) i WHERE i % 4 = 0", BASE_ID, produtos);
+        jdbc.update("INSERT INTO produtos (id, nome, preco, estoque, categoria_id, detalhe_produto_id) " +
+                "SELECT ? + i, " +
+                "(" + array(TIPOS) + ")[1 + i % " + TIPOS.length + "] || ' ' || " +
+                "(" + array(MARCAS) + ")[1 + (i / " + TIPOS.length + ") % " + MARCAS.length + "] || ' ' || i, " +
+                "1 + ((i::bigint * 7919) % 999900) / 100.0, (i::bigint * 31) % 500, " +
+                "? + 1 + i % ?, CASE WHEN i % 4 = 0 THEN ? + i END " +
+                "FROM generate_series(1, ?) i", BASE_ID, BASE_ID, categorias, BASE_ID, produtos);
+        jdbc.update("INSERT INTO produto_fornecedor (produto_id, fornecedor_id) " +
+                "SELECT ? + i, ? + 1 + (i::bigint * 13 + k * 101) % ? " +
+                "FROM generate_series(1, ?) i, generate_series(1, 3) k WHERE k <= i % 4 " +
+                "ON CONFLICT DO NOTHING", BASE_ID, BASE_ID, fornecedores, produtos);
+    }
+
+    private void remover() {
+        jdbc.update("DELETE FROM produto_listagem WHERE id > ?", BASE_ID);
+        jdbc.update("DELETE FROM produto_fornecedor WHERE produto_id > ?", BASE_ID);
+        jdbc.update("DELETE FROM produtos WHERE id > ?", BASE_ID);
+        jdbc.update("DELETE FROM detalhes_produto WHERE id > ?", BASE_ID);
+        jdbc.update("DELETE FROM fornecedores WHERE id > ?", BASE_ID);
+        jdbc.update("DELETE FROM categorias WHERE id > ?", BASE_ID);
+    }
+
+    private static String array(String[] valores) {
+        return "ARRAY['" + String.join("', '", valores) + "']";
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.backend.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.example.backend.BackendApplication;
+import org.example.backend.CatalogoColunar;
+import org.example.backend.EstatisticasCatalogo;
+import org.example.backend.IndiceTrigramas;
+import org.example.backend.ProdutoListagemService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Teste de carga reproduzível da API ({@code ./gradlew testeCarga}).
+ * <p>
+ * Sobe a aplicação sobre um PostgreSQL embarcado (ou o banco de {@code carga.jdbc-url}),
+ * popula um catálogo de {@code carga.produtos} produtos com o {@link PopuladorCatalogo} e
+ * executa o {@link CenarioCarga} com {@code carga.concorrencia} clientes em laço fechado:
+ * cada cliente só envia a próxima requisição depois da resposta anterior. Após
+ * {@code carga.aquecimento} segundos sem medir, mede por {@code carga.duracao} segundos e
+ * grava throughput e p50/p99/p999 por rota em JSON ({@code carga.resultado}).
+ * <p>
+ * O PostgreSQL embarcado não roda como root; nesse caso use {@code carga.jdbc-url} com o banco
+ * do docker-compose. O catálogo é recriado a cada execução, pois o cenário o altera.
+ */
+public class TesteCarga {
+
+    public static void main(String[] args) throws Exception {
+        int produtos = Integer.getInteger("carga.produtos", 100_000);
+        int concorrencia = Integer.getInteger("carga.concorrencia", 64);
+        int aquecimento = Integer.getInteger("carga.aquecimento", 10);
+        int duracao = Integer.getInteger("carga.duracao", 60);
+        long semente = Long.getLong("carga.semente", 42);
+        String jdbcUrl = System.getProperty("carga.jdbc-url", "");
+        File resultado = new File(System.getProperty("carga.resultado", "build/reports/carga/resultado.json"));
+
+        EmbeddedPostgres postgres = null;
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN"));
+        if (jdbcUrl.isEmpty()) {
+            postgres = EmbeddedPostgres.builder().start();
+            argumentos.add("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"));
+            argumentos.add("--spring.datasource.username=postgres");
+            argumentos.add("--spring.datasource.password=");
+        } else {
+            argumentos.add("--spring.datasource.url=" + jdbcUrl);
+            argumentos.add("--spring.datasource.username=" + System.getProperty("carga.usuario", "postgres"));
+            argumentos.add("--spring.datasource.password=" + System.getProperty("carga.senha", "masterkey"));
+        }
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BackendApplication.class)
+                .run(argumentos.toArray(new String[0]));
+        try {
+            PopuladorCatalogo populador = new PopuladorCatalogo(contexto.getBean(JdbcTemplate.class), produtos);
+            long inicioCarga = System.currentTimeMillis();
+            populador.popular();
+            // Estruturas derivadas refletem as linhas inseridas diretamente no banco
+            contexto.getBean(ProdutoListagemService.class).reconstruir();
+            contexto.getBean(JdbcTemplate.class).execute("ANALYZE");
+            contexto.getBean(IndiceTrigramas.class).construir();
+            contexto.getBean(EstatisticasCatalogo.class).reconciliar();
+            contexto.getBeanProvider(CatalogoColunar.class).ifAvailable(CatalogoColunar::reconstruir);
+            System.out.printf("Catálogo de %d produtos criado em %d s%n",
+                    produtos, (System.currentTimeMillis() - inicioCarga) / 1000);
+
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            Map<String, Object> relatorio = executar("http://localhost:" + porta + "/api", produtos,
+                    populador.categorias(), concorrencia, aquecimento, duracao, semente);
+
+            Map<String, Object> saida = new LinkedHashMap<>();
+            saida.put("versao", System.getProperty("carga.versao", ""));
+            saida.put("data", Instant.now().toString());
+            saida.put("banco", jdbcUrl.isEmpty() ? "embarcado" : jdbcUrl);
+            saida.put("produtos", produtos);
+            saida.put("concorrencia", concorrencia);
+            saida.put("duracaoSegundos", duracao);
+            saida.put("semente", semente);
+            saida.putAll(relatorio);
+
+            resultado.getAbsoluteFile().getParentFile().mkdirs();
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(resultado, saida);
+            System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(relatorio));
+            System.out.println("Resultado gravado em " + resultado.getAbsolutePath());
+        } finally {
+            contexto.close();
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> executar(String baseUrl, int produtos, int categorias, int concorrencia,
+                                                int aquecimento, int duracao, long semente) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<CenarioCarga.Operacao, EstatisticasRota> estatisticas = new EnumMap<>(CenarioCarga.Operacao.class);
+        for (CenarioCarga.Operacao operacao : CenarioCarga.Operacao.values()) {
+            estatisticas.put(operacao, new EstatisticasRota());
+        }
+
+        long inicioMedicao = System.nanoTime() + TimeUnit.SECONDS.toNanos(aquecimento);
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracao);
+        CountDownLatch concluidos = new CountDownLatch(concorrencia);
+
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            for (int i = 0; i < concorrencia; i++) {
+                CenarioCarga cenario = new CenarioCarga(http, objectMapper, baseUrl, produtos, categorias, semente + i);
+                Thread.ofPlatform().name("carga-" + i).start(() -> {
+                    try {
+                        cenario.login();
+                        long agora;
+                        while ((agora = System.nanoTime()) < fim) {
+                            CenarioCarga.Operacao operacao = cenario.sortear();
+                            boolean sucesso;
+                            try {
+                                sucesso = cenario.executar(operacao);
+                            } catch (IOException e) {
+                                sucesso = false;
+                            }
+                            if (agora >= inicioMedicao) {
+                                estatisticas.get(operacao).registrar(System.nanoTime() - agora, sucesso);
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.err.println(Thread.currentThread().getName() + " interrompido: " + e);
+                    } finally {
+                        concluidos.countDown();
+                    }
+                });
+            }
+            concluidos.await();
+        }
+
+        Map<String, Object> rotas = new LinkedHashMap<>();
+        Histogram total = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+        long erros = 0;
+        for (Map.Entry<CenarioCarga.Operacao, EstatisticasRota> entrada : estatisticas.entrySet()) {
+            rotas.put(entrada.getKey().rota, entrada.getValue().resumo(duracao));
+            entrada.getValue().acumularEm(total);
+            erros += entrada.getValue().erros();
+        }
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("total", EstatisticasRota.resumo(total, erros, duracao));
+        relatorio.put("rotas", rotas);
+        return relatorio;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.backend;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ProdutoService.listarComFiltrosEPaginacao} com 1M de produtos num PostgreSQL embarcado (que
+ * não roda como root): caminho JPA (ids da página e count(*) no banco) contra o catálogo colunar
+ * (filtros, ordenação e total em memória; o banco só carrega a página pelo id).
+ * <p>
+ * Consultas: {@code categoria} sorteia categoria e faixa de preço, ordenando por nome;
+ * {@code nome} filtra por um trecho do nome, ordenando por preço. Páginas de 20 entre as cinco
+ * primeiras.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CatalogoColunarBenchmark {
+
+    private static final int PRODUTOS = 1_000_000;
+    private static final int CATEGORIAS = 20;
+
+    @Param({"jpa", "colunar"})
+    public String caminho;
+
+    @Param({"categoria", "nome"})
+    public String consulta;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private ProdutoService produtoService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.web-application-type=none",
+                "--app.produtos.catalogo-colunar.habilitado=" + caminho.equals("colunar"),
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN");
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        // Faixa de ids fora da usada pelo DbInitialization
+        jdbc.execute("INSERT INTO categorias (id, nome) SELECT 900000000 + c, 'Categoria ' || c " +
+                "FROM generate_series(1, " + CATEGORIAS + ") c");
+        jdbc.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "SELECT 900000000 + i, 'Produto ' || md5(i::text), (i % 5000) + 0.9, i % 300, " +
+                "900000001 + i % " + CATEGORIAS + " FROM generate_series(1, " + PRODUTOS + ") i");
+        jdbc.execute("ANALYZE");
+
+        // Os índices em memória foram construídos na inicialização, antes da carga
+        contexto.getBean(IndiceTrigramas.class).construir();
+        if (caminho.equals("colunar")) {
+            contexto.getBean(CatalogoColunar.class).reconstruir();
+        }
+        produtoService = contexto.getBean(ProdutoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Page<Produto> listar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pagina = random.nextInt(5);
+        if (consulta.equals("categoria")) {
+            int precoMinimo = random.nextInt(4000);
+            return produtoService.listarComFiltrosEPaginacao(null, (double) precoMinimo, precoMinimo + 1000.0,
+                    900000001L + random.nextInt(CATEGORIAS), PageRequest.of(pagina, 20, Sort.by("nome")));
+        }
+        // Dois dígitos hexadecimais do md5: cerca de 1 em 8 produtos
+        String trecho = Integer.toHexString(16 + random.nextInt(240));
+        return produtoService.listarComFiltrosEPaginacao(trecho, null, null, null,
+                PageRequest.of(pagina, 20, Sort.by("preco")));
+    }
+}
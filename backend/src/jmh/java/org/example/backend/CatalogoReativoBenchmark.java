@@ -0,0 +1,112 @@
+package org.example.backend;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.backend.security.JwtUtil;
+import org.example.backend.security.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de GET /produtos (MVC + JPA) e GET /reativo/produtos (R2DBC) lado a lado, por HTTP,
+ * com 256 clientes simultâneos sobre um catálogo de 100 mil produtos num PostgreSQL embarcado
+ * (que não roda como root). Mesma consulta nos dois lados: categoria e faixa de preço
+ * sorteadas, ordenação por nome, páginas de 20. O modo SampleTime reporta os percentis.
+ * <p>
+ * O Hikari e o pool R2DBC ficam com o mesmo número de conexões; o controle de admissão
+ * (app.admissao) segue ativo para o lado MVC, como em produção.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogoReativoBenchmark {
+
+    private static final int PRODUTOS = 100_000;
+    private static final int CATEGORIAS = 20;
+    private static final int CONEXOES = 10;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private HttpClient http;
+    private String baseUrl;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + CONEXOES,
+                "--app.catalogo-reativo.max-conexoes=" + CONEXOES,
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN");
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        // Faixa de ids fora da usada pelo DbInitialization
+        jdbc.execute("INSERT INTO categorias (id, nome) SELECT 900000000 + c, 'Categoria ' || c " +
+                "FROM generate_series(1, " + CATEGORIAS + ") c");
+        jdbc.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "SELECT 900000000 + i, 'Produto ' || md5(i::text), (i % 5000) + 0.9, i % 300, " +
+                "900000001 + i % " + CATEGORIAS + " FROM generate_series(1, " + PRODUTOS + ") i");
+        jdbc.execute("ANALYZE");
+
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        baseUrl = "http://localhost:" + porta + "/api";
+        token = contexto.getBean(JwtUtil.class).generateToken(new User("admin", "x", Set.of("ROLE_ADMIN", "ROLE_USER")));
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        http.close();
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public int servlet() throws Exception {
+        return listar("/produtos");
+    }
+
+    @Benchmark
+    public int reativo() throws Exception {
+        return listar("/reativo/produtos");
+    }
+
+    private int listar(String caminho) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int precoMinimo = random.nextInt(4000);
+        String consulta = "?categoriaId=" + (900000001 + random.nextInt(CATEGORIAS))
+                + "&precoMinimo=" + precoMinimo + "&precoMaximo=" + (precoMinimo + 1000)
+                + "&page=" + random.nextInt(5) + "&size=20&sort=nome";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + caminho + consulta))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .build();
+        HttpResponse<byte[]> resposta = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException(caminho + " respondeu " + resposta.statusCode());
+        }
+        return resposta.body().length;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.backend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Geração de ids sob disputa, de 1 a 64 threads: {@link IdGenerator} (monitor único e
+ * HashMap com boxing) contra {@link AlocadorIds} (contador atômico por classe e blocos
+ * reservados numa sequência). A sequência é simulada com 0,5 ms por nextval, a latência
+ * aproximada de uma ida ao banco, para que o custo da troca de bloco apareça no resultado.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class IdGeneratorBenchmark {
+
+    private AlocadorIds alocador;
+
+    @Setup
+    public void setup() {
+        AtomicLong sequencia = new AtomicLong();
+        alocador = new AlocadorIds(() -> {
+            LockSupport.parkNanos(500_000);
+            return sequencia.incrementAndGet();
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long legado_1() {
+        return IdGenerator.nextId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long legado_4() {
+        return IdGenerator.nextId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long legado_16() {
+        return IdGenerator.nextId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long legado_64() {
+        return IdGenerator.nextId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long alocador_1() {
+        return alocador.proximoId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long alocador_4() {
+        return alocador.proximoId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long alocador_16() {
+        return alocador.proximoId(Produto.class);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long alocador_64() {
+        return alocador.proximoId(Produto.class);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.backend;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.backend.security.JwtUtil;
+import org.example.backend.security.User;
+import org.example.backend.security.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Linhas gravadas por segundo: um POST /produtos por produto (uma transação e um INSERT por
+ * tabela a cada produto) contra a importação em lote de POST /produtos/lote.
+ * <p>
+ * {@code individual}/{@code lote} chamam os serviços diretamente; as variantes {@code Http}
+ * passam pelo servidor, como um cliente carregando o catálogo de um fornecedor.
+ * Sobe a aplicação inteira sobre um PostgreSQL embarcado com as migrações aplicadas.
+ * O PostgreSQL se recusa a rodar como root.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportacaoLoteBenchmark {
+
+    private static final int LINHAS = 1000;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private ProdutoService produtoService;
+    private ImportacaoProdutosService importacao;
+    private Categoria categoria;
+    private byte[] ndjson;
+    private HttpClient http;
+    private String baseUrl;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // Argumentos de linha de comando: precedem o application.yml
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        produtoService = contexto.getBean(ProdutoService.class);
+        importacao = contexto.getBean(ImportacaoProdutosService.class);
+        categoria = contexto.getBean(CategoriaRepository.class).save(new Categoria("Benchmark"));
+
+        ndjson = IntStream.range(0, LINHAS)
+                .mapToObj(i -> "{\"nome\": \"Produto importado " + i + "\", \"preco\": " + i + ".5, \"estoque\": 10, " +
+                        "\"categoria\": {\"id\": " + categoria.getId() + "}, " +
+                        "\"detalheProduto\": {\"dimensoes\": \"10x10x10\", \"peso\": 1.0, \"material\": \"Aço\"}}")
+                .collect(Collectors.joining("\n"))
+                .getBytes(StandardCharsets.UTF_8);
+
+        http = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/produtos";
+        // Usuário criado pelo DbInitialization: o TokenRevocationRegistry recusa tokens de usuários inexistentes
+        User usuario = contexto.getBean(UserRepository.class).findByUsername("user").orElseThrow();
+        token = contexto.getBean(JwtUtil.class).generateToken(usuario);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void individual() {
+        for (int i = 0; i < LINHAS; i++) {
+            Produto produto = new Produto("Produto individual " + i, i + 0.5, 10, categoria);
+            produto.setDetalheProduto(new DetalheProduto("10x10x10", 1.0, "Aço"));
+            produtoService.salvar(produto);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public ResultadoImportacao lote() throws IOException {
+        return importacao.importar(new ByteArrayInputStream(ndjson));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void individualHttp() throws IOException, InterruptedException {
+        for (int i = 0; i < LINHAS; i++) {
+            String corpo = "{\"nome\": \"Produto individual " + i + "\", \"preco\": " + i + ".5, \"estoque\": 10, " +
+                    "\"categoria\": {\"id\": " + categoria.getId() + "}, " +
+                    "\"detalheProduto\": {\"dimensoes\": \"10x10x10\", \"peso\": 1.0, \"material\": \"Aço\"}}";
+            enviar(baseUrl, "application/json", corpo.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void loteHttp() throws IOException, InterruptedException {
+        enviar(baseUrl + "/lote", "application/x-ndjson", ndjson);
+    }
+
+    private void enviar(String url, String contentType, byte[] corpo) throws IOException, InterruptedException {
+        HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", contentType)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + resposta.statusCode() + " em " + url);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.backend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Filtro por nome com 1M de produtos: índice de trigramas contra uma varredura
+ * equivalente ao {@code lower(nome) LIKE '%termo%'} (sem custo de E/S do banco,
+ * portanto um limite inferior para o caminho via SQL).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndiceTrigramasBenchmark {
+
+    private static final String[] MARCAS = {"Samsung", "Apple", "Dell", "Lenovo", "Motorola", "LG", "Sony", "Asus"};
+    private static final String[] TIPOS = {"Smartphone", "Notebook", "Monitor", "Fone", "Tablet", "Smart TV"};
+
+    @Param({"1000000"})
+    public int produtos;
+
+    @Param({"galaxy 4711", "notebook dell"})
+    public String termo;
+
+    private IndiceTrigramas indice;
+    private String[] nomesMinusculos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        String[] nomes = new String[produtos];
+        for (int i = 0; i < produtos; i++) {
+            String marca = MARCAS[random.nextInt(MARCAS.length)];
+            String tipo = TIPOS[random.nextInt(TIPOS.length)];
+            String modelo = random.nextInt(3) == 0 ? "Galaxy " + i : "Modelo " + i;
+            nomes[i] = tipo + " " + marca + " " + modelo;
+        }
+        nomesMinusculos = new String[produtos];
+        for (int i = 0; i < produtos; i++) {
+            nomesMinusculos[i] = nomes[i].toLowerCase(Locale.ROOT);
+        }
+        indice = new IndiceTrigramas(null, Integer.MAX_VALUE);
+        indice.construir(IntStream.range(0, produtos).mapToObj(i -> new Object[]{(long) i + 1, nomes[i]}));
+    }
+
+    @Benchmark
+    public List<Long> indice() {
+        return indice.buscarContendo(termo);
+    }
+
+    @Benchmark
+    public List<Long> varreduraLike() {
+        String padrao = termo.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < nomesMinusculos.length; i++) {
+            if (nomesMinusculos[i].contains(padrao)) {
+                ids.add((long) i + 1);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de uma página de GET /produtos, de 10 a 1000 itens: a entidade
+ * {@link Produto} (o que o ProdutoController devolve) e o {@link ProdutoView} (cache e
+ * catálogo reativo), com categoria, detalhe e dois fornecedores por produto. O ObjectMapper
+ * é montado como o do Spring Boot; a resposta vai para um byte[], sem E/S.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginatedResponseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tamanho;
+
+    private ObjectWriter writer;
+    private PaginatedResponse<Produto> paginaEntidades;
+    private PaginatedResponse<ProdutoView> paginaViews;
+
+    @Setup
+    public void setup() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+        Categoria categoria = new Categoria("Smartphones");
+        categoria.setId(1L);
+        Fornecedor a = new Fornecedor("Distribuidora A", "(11) 1111-1111", "a@exemplo.com");
+        a.setId(1L);
+        Fornecedor b = new Fornecedor("Distribuidora B", "(11) 2222-2222", "b@exemplo.com");
+        b.setId(2L);
+
+        List<Produto> produtos = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Produto produto = new Produto("Smartphone modelo " + i, 999.9 + i, i % 50, categoria);
+            produto.setId((long) i + 1);
+            DetalheProduto detalhe = new DetalheProduto("15x7x0.8", 0.19, "Alumínio");
+            detalhe.setId((long) i + 1);
+            produto.setDetalheProduto(detalhe);
+            produto.adicionarFornecedor(a);
+            produto.adicionarFornecedor(b);
+            produtos.add(produto);
+        }
+
+        PageRequest pageable = PageRequest.of(0, tamanho);
+        paginaEntidades = PaginatedResponse.of(new PageImpl<>(produtos, pageable, 100_000));
+        paginaViews = PaginatedResponse.of(new PageImpl<>(
+                produtos.stream().map(ProdutoView::of).toList(), pageable, 100_000));
+    }
+
+    @Benchmark
+    public byte[] entidade() throws JsonProcessingException {
+        return writer.writeValueAsBytes(paginaEntidades);
+    }
+
+    @Benchmark
+    public byte[] view() throws JsonProcessingException {
+        return writer.writeValueAsBytes(paginaViews);
+    }
+}
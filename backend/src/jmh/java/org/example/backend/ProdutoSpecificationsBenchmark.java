@@ -0,0 +1,76 @@
+package org.example.backend;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem dos predicados de {@link ProdutoSpecifications} sobre o CriteriaBuilder do
+ * Hibernate, sem executar a consulta: sem filtros, com os quatro filtros da listagem e os
+ * mesmos filtros sobre o modelo de leitura. O metamodelo vem da aplicação completa sobre um
+ * PostgreSQL embarcado (que não roda como root); o banco não é consultado durante a medição.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProdutoSpecificationsBenchmark {
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        criteriaBuilder = contexto.getBean(EntityManagerFactory.class).getCriteriaBuilder();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Predicate semFiltros() {
+        CriteriaQuery<Produto> query = criteriaBuilder.createQuery(Produto.class);
+        Root<Produto> root = query.from(Produto.class);
+        return ProdutoSpecifications.comFiltros(null, null, null, null).toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate todosOsFiltros() {
+        CriteriaQuery<Produto> query = criteriaBuilder.createQuery(Produto.class);
+        Root<Produto> root = query.from(Produto.class);
+        return ProdutoSpecifications.comFiltros("Smartphone", 100.0, 5000.0, 1L).toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate listagemTodosOsFiltros() {
+        CriteriaQuery<ProdutoListagem> query = criteriaBuilder.createQuery(ProdutoListagem.class);
+        Root<ProdutoListagem> root = query.from(ProdutoListagem.class);
+        return ProdutoSpecifications.listagemComFiltros("Smartphone", 100.0, 5000.0, 1L)
+                .toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.backend;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservas por segundo de uma unidade do mesmo produto, com 64 threads disputando a linha:
+ * {@code banco} usa o UPDATE condicional (uma transação por reserva, serializada pela trava
+ * da linha); {@code memoria} usa o modo de alta contenção, que arrenda lotes do banco e
+ * vende as unidades arrendadas em memória. Sobe a aplicação sobre um PostgreSQL embarcado, que não roda como root.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaEstoqueBenchmark {
+
+    // Fora da faixa dos ids criados pelo DbInitialization
+    private static final long PRODUTO_BANCO = 900_000_001L;
+    private static final long PRODUTO_MEMORIA = 900_000_002L;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private EstoqueService estoqueService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        contexto = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--app.produtos.estoque.alta-contencao.ids=" + PRODUTO_MEMORIA);
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        jdbc.execute("INSERT INTO categorias (id, nome) VALUES (900000001, 'Benchmark')");
+        // Estoque que não se esgota durante a medição
+        jdbc.update("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) VALUES " +
+                "(?, 'Produto banco', 10, 1000000000, 900000001), (?, 'Produto memória', 10, 1000000000, 900000001)",
+                PRODUTO_BANCO, PRODUTO_MEMORIA);
+        jdbc.execute("INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome, " +
+                "quantidade_fornecedores) SELECT id, nome, preco, estoque, categoria_id, 'Benchmark', 0 FROM produtos " +
+                "WHERE categoria_id = 900000001");
+        estoqueService = contexto.getBean(EstoqueService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public EstoqueService.Resultado banco() {
+        return estoqueService.reservar(PRODUTO_BANCO, 1);
+    }
+
+    @Benchmark
+    public EstoqueService.Resultado memoria() {
+        return estoqueService.reservar(PRODUTO_MEMORIA, 1);
+    }
+}
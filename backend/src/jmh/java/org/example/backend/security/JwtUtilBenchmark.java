@@ -0,0 +1,83 @@
+package org.example.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de autenticar uma requisição a partir do header Authorization.
+ * <p>
+ * {@code legado} reproduz o fluxo anterior: chave reconstruída a cada chamada e
+ * três parses do mesmo token (extractUsername no filtro, extractUsername e
+ * extractExpiration em validateToken).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "03O2Kdx9PoM8/9fE9OvSxhMX11tkAVguyFtNeuL/y6A=";
+
+    private JwtUtil semCache;
+    private JwtUtil comCache;
+    private User usuario;
+    private String token;
+
+    @Setup
+    public void setup() {
+        semCache = new JwtUtil(SECRET, 3_600_000, 0);
+        comCache = new JwtUtil(SECRET, 3_600_000, 10_000);
+        usuario = new User("admin", "x", Set.of("ROLE_ADMIN", "ROLE_USER"));
+        token = semCache.generateToken(usuario);
+    }
+
+    @Benchmark
+    public boolean legado() {
+        String username = legadoClaims(token).getSubject();
+        boolean mesmoUsuario = legadoClaims(token).getSubject().equals(username);
+        return mesmoUsuario && !legadoClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken verificarSemCache() {
+        return semCache.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verificarComCache() {
+        return comCache.verify(token);
+    }
+
+    // Fluxo de validateToken no modo database: verificação e comparação com o usuário carregado
+    @Benchmark
+    public boolean validarTokenSemCache() {
+        return semCache.validateToken(token, usuario);
+    }
+
+    @Benchmark
+    public boolean validarTokenComCache() {
+        return comCache.validateToken(token, usuario);
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return semCache.generateToken(new User("admin", "x", Set.of("ROLE_ADMIN", "ROLE_USER")));
+    }
+
+    private static Claims legadoClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Gera ids exclusivos por classe, substituindo o {@link IdGenerator}.
+ * <p>
+ * Cada classe tem seu próprio contador. Obter um id é um {@code getAndIncrement} sobre o
+ * bloco atual, sem lock e sem boxing. Os blocos vêm da sequência {@code alocador_ids_seq}
+ * (hi/lo: o bloco {@code hi} cobre os ids {@code hi * TAMANHO_BLOCO} até
+ * {@code hi * TAMANHO_BLOCO + TAMANHO_BLOCO - 1}). Na metade de cada bloco o próximo já é
+ * reservado em segundo plano, então a ida ao banco normalmente não bloqueia ninguém; se o
+ * bloco se esgotar antes, uma única thread conclui a troca e as demais aguardam.
+ * Como a sequência é durável e compartilhada, os ids não se repetem após um reinício nem
+ * entre instâncias; os ids não usados dos blocos reservados antes de um reinício são perdidos.
+ */
+@Component
+public class AlocadorIds {
+
+    // Faz parte do formato dos ids já emitidos: alterar este valor pode gerar ids repetidos.
+    // Grande o bastante para que meio bloco dure mais que uma ida ao banco mesmo sob carga.
+    public static final int TAMANHO_BLOCO = 100_000;
+
+    private final LongSupplier proximoHi;
+    private final Executor reservas = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("alocador-ids-", 0).factory());
+
+    private final ClassValue<Contador> contadores = new ClassValue<>() {
+        @Override
+        protected Contador computeValue(Class<?> classe) {
+            return new Contador();
+        }
+    };
+
+    @Autowired
+    public AlocadorIds(JdbcTemplate jdbcTemplate) {
+        this(() -> jdbcTemplate.queryForObject("SELECT nextval('alocador_ids_seq')", Long.class));
+    }
+
+    AlocadorIds(LongSupplier proximoHi) {
+        this.proximoHi = proximoHi;
+    }
+
+    /**
+     * Gera o próximo id exclusivo para a classe fornecida.
+     */
+    public long proximoId(Class<?> classe) {
+        return contadores.get(classe).proximo();
+    }
+
+    // gatilho: o id cuja emissão dispara a reserva antecipada do bloco seguinte
+    private record Bloco(AtomicLong proximo, long gatilho, long limite) {
+
+        static Bloco doHi(long hi) {
+            long inicio = Math.multiplyExact(hi, (long) TAMANHO_BLOCO);
+            return new Bloco(new AtomicLong(inicio), inicio + TAMANHO_BLOCO / 2, inicio + TAMANHO_BLOCO);
+        }
+    }
+
+    private final class Contador {
+        // Bloco vazio: o primeiro uso reserva um bloco de verdade
+        private final AtomicReference<Bloco> atual = new AtomicReference<>(new Bloco(new AtomicLong(), -1, 0));
+        private final AtomicReference<CompletableFuture<Long>> reservaAntecipada = new AtomicReference<>();
+        private final ReentrantLock recarga = new ReentrantLock();
+
+        long proximo() {
+            while (true) {
+                Bloco bloco = atual.get();
+                long id = bloco.proximo().getAndIncrement();
+                if (id < bloco.limite()) {
+                    // Exatamente uma thread recebe o id do gatilho; uma reserva ainda não usada é mantida
+                    if (id == bloco.gatilho()) {
+                        reservarAntecipadamente();
+                    }
+                    return id;
+                }
+                recarregar(bloco);
+            }
+        }
+
+        private void reservarAntecipadamente() {
+            CompletableFuture<Long> reserva = new CompletableFuture<>();
+            if (reservaAntecipada.compareAndSet(null, reserva)) {
+                reservas.execute(() -> {
+                    try {
+                        reserva.complete(proximoHi.getAsLong());
+                    } catch (RuntimeException e) {
+                        reserva.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+
+        private void recarregar(Bloco esgotado) {
+            recarga.lock();
+            try {
+                // Outra thread pode ter trocado o bloco enquanto esta aguardava
+                if (atual.get() == esgotado) {
+                    atual.set(Bloco.doHi(proximoHi()));
+                }
+            } finally {
+                recarga.unlock();
+            }
+        }
+
+        private long proximoHi() {
+            CompletableFuture<Long> reserva = reservaAntecipada.getAndSet(null);
+            if (reserva != null) {
+                try {
+                    return reserva.join();
+                } catch (CompletionException e) {
+                    // A reserva em segundo plano falhou: tenta de novo de forma síncrona
+                }
+            }
+            return proximoHi.getAsLong();
+        }
+    }
+}
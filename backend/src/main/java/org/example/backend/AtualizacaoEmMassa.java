@@ -0,0 +1,70 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * UPDATEs em conjunto usados tanto em {@code produtos} quanto em {@code produto_listagem}.
+ * <p>
+ * Cada operação é um único comando SQL, qualquer que seja o número de linhas afetadas.
+ * Preço e estoque negativos são barrados pelas restrições CHECK do banco
+ * (V5__restricoes_preco_estoque.sql), não por validação linha a linha em Java.
+ */
+final class AtualizacaoEmMassa {
+
+    private AtualizacaoEmMassa() {
+    }
+
+    // UPDATE ... SET preco = floor(preco * fator * 100 + 0.5) / 100 WHERE <filtros da Specification>.
+    // Arredonda para centavos sem round(x, 2), que no PostgreSQL não aceita float8 e que o
+    // Hibernate emula com o número de casas como parâmetro (SQL inválido)
+    static <T> int reajustarPreco(EntityManager entityManager, Class<T> entidade,
+                                  Specification<T> filtros, double fator) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(entidade);
+        Root<T> root = update.from(entidade);
+        Path<Double> preco = root.get("preco");
+
+        Expression<Double> centavos = criteriaBuilder.floor(
+                criteriaBuilder.sum(criteriaBuilder.prod(preco, fator * 100), 0.5));
+        update.set(preco, criteriaBuilder.quot(centavos, 100.0).as(Double.class));
+        // Sem CriteriaQuery num UPDATE: as Specifications de ProdutoSpecifications não dependem dela
+        update.where(filtros.toPredicate(root, null, criteriaBuilder));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Atribui a cada id o seu valor numa coluna, com um único
+     * {@code UPDATE ... FROM unnest(ids, valores)}. Ids inexistentes são ignorados.
+     *
+     * @param tipoSql tipo dos valores no PostgreSQL, usado no cast do array
+     */
+    static <V> int atribuirPorId(EntityManager entityManager, String tabela, String coluna, String tipoSql,
+                                 Class<?> entidade, Map<Long, V> valores, IntFunction<V[]> novoArray) {
+        if (valores.isEmpty()) {
+            return 0;
+        }
+        // Arrays tipados: o Hibernate os envia como bigint[] e int[]/float8[]
+        Long[] ids = valores.keySet().toArray(new Long[0]);
+        V[] novos = valores.values().toArray(novoArray);
+
+        return entityManager.createNativeQuery("UPDATE " + tabela + " t SET " + coluna + " = v.valor " +
+                        "FROM unnest(CAST(:ids AS bigint[]), CAST(:valores AS " + tipoSql + "[])) AS v(id, valor) " +
+                        "WHERE t.id = v.id")
+                .setParameter("ids", ids)
+                .setParameter("valores", novos)
+                // Sem isso o Hibernate invalidaria todas as regiões do cache de segundo nível
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(entidade)
+                .executeUpdate();
+    }
+}
@@ -1,13 +1,36 @@
 package org.example.backend;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BackendApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(BackendApplication.class, args);
+        SpringApplication aplicacao = new SpringApplication(BackendApplication.class);
+        aplicacao.addListeners(new ModoExportacao());
+        ConfigurableApplicationContext contexto = aplicacao.run(args);
+        // Modo de exportação (app.exportacao.saida): fecha o contexto e sai com o código do ExportacaoCatalogoRunner
+        if (contexto.getBeanProvider(ExportacaoCatalogoRunner.class).getIfAvailable() != null) {
+            System.exit(SpringApplication.exit(contexto));
+        }
     }
 
+    // Com app.exportacao.saida definido (argumento, variável de ambiente ou arquivo), sobe sem
+    // servidor web. Roda antes de o Spring ler spring.main.*, que ainda prevalece se informado.
+    static class ModoExportacao implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+        @Override
+        public void onApplicationEvent(ApplicationEnvironmentPreparedEvent evento) {
+            if (evento.getEnvironment().containsProperty(ExportacaoCatalogoRunner.SAIDA)) {
+                evento.getSpringApplication().setWebApplicationType(WebApplicationType.NONE);
+            }
+        }
+    }
 }
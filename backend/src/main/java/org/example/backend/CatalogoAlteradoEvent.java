@@ -0,0 +1,5 @@
+package org.example.backend;
+
+// Publicado pelas atualizações em conjunto, que alteram produtos sem passar pelas entidades:
+// ouvintes descartam tudo o que guardam por produto, após o commit
+public record CatalogoAlteradoEvent(int produtosAfetados) {}
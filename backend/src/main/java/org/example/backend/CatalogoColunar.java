@@ -0,0 +1,711 @@
+package org.example.backend;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Catálogo em colunas na memória que atende {@code ProdutoService.listarComFiltrosEPaginacao} sem
+ * SQL para filtros, ordenação e total. Só é registrado com {@code app.produtos.catalogo-colunar.habilitado}.
+ * <p>
+ * Cada produto ocupa uma posição nas colunas primitivas ({@code long[]} ids, {@code double[]} preços,
+ * {@code int[]} estoques, {@code int[]} ordinais de categoria e os nomes), mantidas em ordem de id.
+ * Duas permutações das posições, ordenadas por nome e por preço (desempate pelo id), atendem a
+ * ordenação: a faixa de preço é uma busca binária na permutação de preços e os demais filtros são
+ * testados numa varredura sem alocação. O banco só carrega os produtos da página, pelo id.
+ * <p>
+ * É construído do banco na inicialização. Após o commit de cada escrita de produto ou de estoque,
+ * o id entra numa fila sem repetições e uma única thread relê a linha pela chave primária e a grava
+ * nas colunas. O ouvinte não consulta o banco: a transação que acabou de commitar ainda segura a sua
+ * conexão, e uma segunda conexão por escrita esgotaria o pool sob carga. Como o id sai da fila antes
+ * da releitura, a última leitura de um produto sempre vem depois do último commit, mesmo que os
+ * ouvintes de duas escritas concorrentes rodem fora da ordem dos commits. Até a releitura, as consultas
+ * podem ver o estado anterior do produto. Atualizações em conjunto não informam os ids: o catálogo é reconstruído
+ * na verificação seguinte e, até lá, as consultas voltam ao banco. Escritas que não passam pelo
+ * ProdutoService (SQL direto, cargas) só aparecem na reconstrução periódica, a cada
+ * {@code intervalo-ms}, ou em {@code POST /admin/produtos/catalogo-colunar/reconstruir}. Os nomes
+ * são ordenados por {@link String#compareTo} (a ordem do {@code COLLATE "C"}), não pelo collation do banco.
+ * <p>
+ * Criar ou remover um produto desloca as permutações (e as colunas, se o id não for o maior): cópias
+ * O(n) de memória, aceitáveis num catálogo com muitas leituras e poucas escritas. O tamanho estimado
+ * é exportado em {@code catalogo.colunar.memoria}; acima de {@code memoria-maxima-mb} o catálogo é
+ * descartado até a próxima reconstrução pedida pelo administrador.
+ */
+@Component
+@ConditionalOnProperty(name = "app.produtos.catalogo-colunar.habilitado", havingValue = "true")
+public class CatalogoColunar {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoColunar.class);
+
+    private static final Set<String> ORDENAVEIS = Set.of("nome", "preco", "estoque", "id");
+
+    public record Pagina(List<Long> ids, long total) {}
+
+    // Linhas no formato {id, nome, preco, estoque, categoriaId}
+    interface Carga {
+        // Entrega todas as linhas, em ordem de id
+        void percorrer(Consumer<Object[]> consumidor);
+    }
+
+    private final Carga carga;
+    // Linha atual de um produto, ou null se não existe mais
+    private final LongFunction<Object[]> leitor;
+    private final long memoriaMaxima;
+    private final long intervaloMs;
+
+    // Uma reconstrução por vez (inicialização, agendamento ou chamada direta)
+    private final Object reconstrucao = new Object();
+    // Uma única thread relê e aplica as linhas; um id só entra uma vez enquanto aguarda
+    private final Executor sincronizador;
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Protegidos pelo lock; colunas é null antes da primeira construção e depois de descartado
+    private Colunas colunas;
+    private List<Consumer<Colunas>> registroDuranteReconstrucao;
+    private boolean desatualizado;
+    private boolean descartado;
+    private long ultimaReconstrucao;
+
+    @Autowired
+    public CatalogoColunar(ProdutoRepository produtoRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry registry,
+                           @Value("${app.produtos.catalogo-colunar.memoria-maxima-mb:1024}") long memoriaMaximaMb,
+                           @Value("${app.produtos.catalogo-colunar.intervalo-ms:300000}") long intervaloMs) {
+        this(carga(produtoRepository, transactionManager), leitor(produtoRepository, transactionManager),
+                registry, memoriaMaximaMb * 1024 * 1024, intervaloMs,
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("catalogo-colunar").daemon().factory()));
+    }
+
+    CatalogoColunar(Carga carga, LongFunction<Object[]> leitor, MeterRegistry registry,
+                    long memoriaMaxima, long intervaloMs, Executor sincronizador) {
+        this.carga = carga;
+        this.leitor = leitor;
+        this.memoriaMaxima = memoriaMaxima;
+        this.intervaloMs = intervaloMs;
+        this.sincronizador = sincronizador;
+
+        Gauge.builder("catalogo.colunar.memoria", this, CatalogoColunar::memoriaEstimada)
+                .description("Tamanho estimado das colunas e permutações do catálogo colunar")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("catalogo.colunar.produtos", this, CatalogoColunar::tamanho)
+                .description("Produtos no catálogo colunar")
+                .register(registry);
+    }
+
+    private static Carga carga(ProdutoRepository produtoRepository, PlatformTransactionManager transactionManager) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return consumidor -> transacao.executeWithoutResult(status -> {
+            try (Stream<Object[]> linhas = produtoRepository.streamColunas()) {
+                linhas.forEach(consumidor);
+            }
+        });
+    }
+
+    private static LongFunction<Object[]> leitor(ProdutoRepository produtoRepository,
+                                                 PlatformTransactionManager transactionManager) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return id -> transacao.execute(status -> produtoRepository.findColunasById(id).stream()
+                .findFirst()
+                .orElse(null));
+    }
+
+    /**
+     * Ids da página e total de produtos que atendem aos filtros, com a semântica de
+     * {@link ProdutoSpecifications#comFiltros}.
+     *
+     * @return a página, ou {@code null} quando o catálogo não pode responder (não construído,
+     * desatualizado, nome com os curingas {@code %} ou {@code _}, ou ordenação por mais de uma
+     * propriedade ou fora de nome, preco, estoque e id) e a consulta deve ir ao banco
+     */
+    public Pagina buscar(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+        if (nome != null && ProdutoSpecifications.temCuringa(nome)) {
+            return null;
+        }
+        Sort.Order ordem = null;
+        if (pageable.getSort().isSorted()) {
+            List<Sort.Order> ordens = pageable.getSort().toList();
+            if (ordens.size() != 1 || ordens.get(0).isIgnoreCase() || !ORDENAVEIS.contains(ordens.get(0).getProperty())) {
+                return null;
+            }
+            ordem = ordens.get(0);
+        }
+        long inicio = pageable.isPaged() ? pageable.getOffset() : 0;
+        long fim = pageable.isPaged() ? inicio + pageable.getPageSize() : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            if (colunas == null || desatualizado) {
+                return null;
+            }
+            return colunas.buscar(nome, precoMinimo, precoMaximo, categoriaId, ordem, inicio, fim);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        sincronizar(evento.produtoId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEstoque(EstoqueAlteradoEvent evento) {
+        sincronizar(evento.produtoId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        marcarDesatualizado();
+    }
+
+    // Os valores do evento podem já ter sido superados por um commit posterior: vale o que está no banco
+    private void sincronizar(Long id) {
+        if (!pendentes.add(id)) {
+            return;
+        }
+        try {
+            sincronizador.execute(() -> reler(id));
+        } catch (RejectedExecutionException e) {
+            pendentes.remove(id);
+            marcarDesatualizado();
+        }
+    }
+
+    // Na thread do sincronizador
+    private void reler(Long id) {
+        pendentes.remove(id);
+        Object[] linha;
+        try {
+            linha = leitor.apply(id);
+        } catch (RuntimeException e) {
+            // Sem a linha, o catálogo não é confiável até a próxima reconstrução
+            log.warn("Falha ao reler o produto {} para o catálogo colunar: {}", id, e.getMessage());
+            marcarDesatualizado();
+            return;
+        }
+        aplicar(linha == null ? c -> c.remover(id) : c -> c.gravar(linha));
+    }
+
+    private void marcarDesatualizado() {
+        lock.writeLock().lock();
+        try {
+            desatualizado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (sincronizador instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void aplicar(Consumer<Colunas> alteracao) {
+        lock.writeLock().lock();
+        try {
+            if (colunas != null) {
+                alteracao.accept(colunas);
+                if (colunas.memoriaEstimada() > memoriaMaxima) {
+                    descartar(colunas.memoriaEstimada());
+                }
+            }
+            if (registroDuranteReconstrucao != null) {
+                registroDuranteReconstrucao.add(alteracao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Uma falha aqui não impede a inicialização: as consultas vão ao banco e a construção é tentada de novo
+    @EventListener(value = ApplicationReadyEvent.class, condition = ExportacaoCatalogoRunner.FORA_DA_EXPORTACAO)
+    public void aoIniciar() {
+        tentarReconstruir();
+    }
+
+    // Verifica com frequência, mas só lê o banco após atualizações em conjunto ou a cada intervalo-ms
+    @Scheduled(fixedDelayString = "${app.produtos.catalogo-colunar.verificacao-ms:1000}")
+    public void reconstruirSeNecessario() {
+        long agora = System.currentTimeMillis();
+        boolean necessario;
+        lock.readLock().lock();
+        try {
+            necessario = !descartado
+                    && (desatualizado || (ultimaReconstrucao != 0 && agora - ultimaReconstrucao >= intervaloMs));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (necessario) {
+            tentarReconstruir();
+        }
+    }
+
+    private void tentarReconstruir() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao construir o catálogo colunar: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lê todos os produtos numa única consulta e substitui o catálogo. Alterações aplicadas
+     * durante a leitura são registradas e reaplicadas sobre o resultado; como cada uma grava o
+     * estado relido do banco, reaplicar uma alteração já vista pela consulta não muda nada.
+     * Também refaz um catálogo descartado por memória.
+     */
+    public void reconstruir() {
+        synchronized (reconstrucao) {
+            long inicio = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                registroDuranteReconstrucao = new ArrayList<>();
+                desatualizado = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Colunas novas;
+            try {
+                novas = Colunas.carregar(carga, memoriaMaxima);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    registroDuranteReconstrucao = null;
+                    if (e instanceof MemoriaExcedidaException excedida) {
+                        descartar(excedida.bytes);
+                        return;
+                    }
+                    desatualizado = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                registroDuranteReconstrucao.forEach(alteracao -> alteracao.accept(novas));
+                registroDuranteReconstrucao = null;
+                colunas = novas;
+                descartado = false;
+                ultimaReconstrucao = System.currentTimeMillis();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Catálogo colunar construído com {} produtos ({} MB) em {} ms", novas.tamanho,
+                    novas.memoriaEstimada() / (1024 * 1024), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    private void descartar(long bytes) {
+        colunas = null;
+        descartado = true;
+        log.warn("Catálogo colunar descartado: {} MB estimados, acima do limite de {} MB",
+                bytes / (1024 * 1024), memoriaMaxima / (1024 * 1024));
+    }
+
+    public long memoriaEstimada() {
+        lock.readLock().lock();
+        try {
+            return colunas == null ? 0 : colunas.memoriaEstimada();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return colunas == null ? 0 : colunas.tamanho;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * As colunas e permutações. Posições são índices nas colunas, em ordem crescente de id; as
+     * permutações guardam posições e desempatam pela própria posição, isto é, pelo id.
+     */
+    private static final class Colunas {
+
+        // Por posição: id, preço, estoque, ordinal da categoria, duas referências de texto e as
+        // duas permutações (referências com oops comprimidos)
+        private static final long BYTES_POR_POSICAO = 8 + 8 + 4 + 4 + 2 * 4 + 2 * 4;
+        private static final int SEM_CATEGORIA = -1;
+
+        long[] ids;
+        String[] nomes;
+        // lower(nome), para o filtro por nome; a mesma instância quando o nome já está em minúsculas
+        String[] nomesNormalizados;
+        double[] precos;
+        int[] estoques;
+        int[] categorias;
+        int[] ordemNome;
+        int[] ordemPreco;
+        int tamanho;
+        long bytesTextos;
+        final Map<Long, Integer> ordinais = new HashMap<>();
+
+        private final IntBinaryOperator porNome = (a, b) -> {
+            int comparacao = nomes[a].compareTo(nomes[b]);
+            return comparacao != 0 ? comparacao : Integer.compare(a, b);
+        };
+        private final IntBinaryOperator porPreco = (a, b) -> {
+            int comparacao = Double.compare(precos[a], precos[b]);
+            return comparacao != 0 ? comparacao : Integer.compare(a, b);
+        };
+
+        Colunas(int capacidade) {
+            ids = new long[capacidade];
+            nomes = new String[capacidade];
+            nomesNormalizados = new String[capacidade];
+            precos = new double[capacidade];
+            estoques = new int[capacidade];
+            categorias = new int[capacidade];
+            ordemNome = new int[capacidade];
+            ordemPreco = new int[capacidade];
+        }
+
+        static Colunas carregar(Carga carga, long memoriaMaxima) {
+            Colunas c = new Colunas(1024);
+            carga.percorrer(linha -> {
+                long id = (Long) linha[0];
+                if (c.tamanho > 0 && id <= c.ids[c.tamanho - 1]) {
+                    throw new IllegalArgumentException("Linhas fora da ordem de id: " + id);
+                }
+                c.garantirCapacidade(c.tamanho + 1);
+                c.definir(c.tamanho, linha);
+                c.tamanho++;
+                if ((c.tamanho & 0xFFFF) == 0 && c.memoriaEstimada() > memoriaMaxima) {
+                    throw new MemoriaExcedidaException(c.memoriaEstimada());
+                }
+            });
+            if (c.memoriaEstimada() > memoriaMaxima) {
+                throw new MemoriaExcedidaException(c.memoriaEstimada());
+            }
+            c.ordemNome = Arrays.copyOf(c.ordenar(c.porNome), c.ids.length);
+            c.ordemPreco = Arrays.copyOf(c.ordenar(c.porPreco), c.ids.length);
+            return c;
+        }
+
+        private int[] ordenar(IntBinaryOperator comparador) {
+            return IntStream.range(0, tamanho).boxed()
+                    .sorted(comparador::applyAsInt)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        Pagina buscar(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+                      Sort.Order ordem, long inicio, long fim) {
+            int categoria = SEM_CATEGORIA;
+            if (categoriaId != null) {
+                Integer ordinal = ordinais.get(categoriaId);
+                if (ordinal == null) {
+                    return new Pagina(List.of(), 0);
+                }
+                categoria = ordinal;
+            }
+            String termo = nome == null || nome.isEmpty() ? null : IndiceTrigramas.normalizar(nome);
+            double minimo = precoMinimo == null ? Double.NEGATIVE_INFINITY : precoMinimo;
+            double maximo = precoMaximo == null ? Double.POSITIVE_INFINITY : precoMaximo;
+            Coletor coletor = new Coletor(inicio, fim);
+            boolean crescente = ordem == null || ordem.isAscending();
+
+            switch (ordem == null ? "id" : ordem.getProperty()) {
+                case "preco" -> {
+                    // Só a faixa de preço da permutação é percorrida
+                    int de = precoMinimo == null ? 0 : primeiroPreco(minimo, true);
+                    int ate = precoMaximo == null ? tamanho : primeiroPreco(maximo, false);
+                    for (int k = 0; k < ate - de; k++) {
+                        int p = ordemPreco[crescente ? de + k : ate - 1 - k];
+                        if (atende(p, termo, categoria, minimo, maximo)) {
+                            coletor.aceitar(ids[p]);
+                        }
+                    }
+                }
+                case "nome" -> {
+                    for (int k = 0; k < tamanho; k++) {
+                        int p = ordemNome[crescente ? k : tamanho - 1 - k];
+                        if (atende(p, termo, categoria, minimo, maximo)) {
+                            coletor.aceitar(ids[p]);
+                        }
+                    }
+                }
+                case "estoque" -> {
+                    // Sem permutação: estoque (nunca negativo, ver V5) e posição empacotados num long
+                    long[] chaves = new long[Math.min(tamanho, 1024)];
+                    int encontrados = 0;
+                    for (int p = 0; p < tamanho; p++) {
+                        if (atende(p, termo, categoria, minimo, maximo)) {
+                            if (encontrados == chaves.length) {
+                                chaves = Arrays.copyOf(chaves, Math.min(tamanho, encontrados * 2));
+                            }
+                            chaves[encontrados++] = ((long) estoques[p] << 32) | p;
+                        }
+                    }
+                    Arrays.sort(chaves, 0, encontrados);
+                    for (int k = 0; k < encontrados; k++) {
+                        coletor.aceitar(ids[(int) chaves[crescente ? k : encontrados - 1 - k]]);
+                    }
+                }
+                default -> {
+                    for (int k = 0; k < tamanho; k++) {
+                        int p = crescente ? k : tamanho - 1 - k;
+                        if (atende(p, termo, categoria, minimo, maximo)) {
+                            coletor.aceitar(ids[p]);
+                        }
+                    }
+                }
+            }
+            return new Pagina(coletor.ids, coletor.total);
+        }
+
+        private boolean atende(int p, String termo, int categoria, double minimo, double maximo) {
+            return (categoria == SEM_CATEGORIA || categorias[p] == categoria)
+                    && precos[p] >= minimo && precos[p] <= maximo
+                    && (termo == null || nomesNormalizados[p].contains(termo));
+        }
+
+        // Primeira posição da permutação de preços com preço maior que o valor (ou igual, se incluirIgual)
+        private int primeiroPreco(double valor, boolean incluirIgual) {
+            int baixo = 0;
+            int alto = tamanho;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                double preco = precos[ordemPreco[meio]];
+                if (preco < valor || (!incluirIgual && preco == valor)) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return baixo;
+        }
+
+        // Linha no formato da carga: {id, nome, preco, estoque, categoriaId}
+        void gravar(Object[] linha) {
+            int p = Arrays.binarySearch(ids, 0, tamanho, (Long) linha[0]);
+            if (p >= 0) {
+                atualizar(p, linha);
+            } else {
+                inserir(-p - 1, linha);
+            }
+        }
+
+        private void atualizar(int p, Object[] linha) {
+            boolean mudaNome = !linha[1].equals(nomes[p]);
+            boolean mudaPreco = Double.compare(((Number) linha[2]).doubleValue(), precos[p]) != 0;
+            if (mudaNome) {
+                retirar(ordemNome, posicao(ordemNome, p, porNome));
+            }
+            if (mudaPreco) {
+                retirar(ordemPreco, posicao(ordemPreco, p, porPreco));
+            }
+            bytesTextos -= bytesTextos(p);
+            definir(p, linha);
+            // Com o produto fora da permutação, ela tem tamanho - 1 posições
+            if (mudaNome) {
+                colocar(ordemNome, tamanho - 1, posicao(ordemNome, tamanho - 1, p, porNome), p);
+            }
+            if (mudaPreco) {
+                colocar(ordemPreco, tamanho - 1, posicao(ordemPreco, tamanho - 1, p, porPreco), p);
+            }
+        }
+
+        private void inserir(int p, Object[] linha) {
+            garantirCapacidade(tamanho + 1);
+            if (p < tamanho) {
+                deslocarColunas(p, p + 1, tamanho - p);
+                // As posições a partir de p andam uma casa
+                for (int k = 0; k < tamanho; k++) {
+                    if (ordemNome[k] >= p) {
+                        ordemNome[k]++;
+                    }
+                    if (ordemPreco[k] >= p) {
+                        ordemPreco[k]++;
+                    }
+                }
+            }
+            definir(p, linha);
+            colocar(ordemNome, tamanho, posicao(ordemNome, tamanho, p, porNome), p);
+            colocar(ordemPreco, tamanho, posicao(ordemPreco, tamanho, p, porPreco), p);
+            tamanho++;
+        }
+
+        void remover(Long id) {
+            int p = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (p < 0) {
+                return;
+            }
+            retirar(ordemNome, posicao(ordemNome, p, porNome));
+            retirar(ordemPreco, posicao(ordemPreco, p, porPreco));
+            bytesTextos -= bytesTextos(p);
+            deslocarColunas(p + 1, p, tamanho - p - 1);
+            tamanho--;
+            nomes[tamanho] = null;
+            nomesNormalizados[tamanho] = null;
+            // As posições depois de p recuam uma casa
+            for (int k = 0; k < tamanho; k++) {
+                if (ordemNome[k] > p) {
+                    ordemNome[k]--;
+                }
+                if (ordemPreco[k] > p) {
+                    ordemPreco[k]--;
+                }
+            }
+        }
+
+        private void definir(int p, Object[] linha) {
+            definir(p, (Long) linha[0], (String) linha[1], ((Number) linha[2]).doubleValue(),
+                    ((Number) linha[3]).intValue(), (Long) linha[4]);
+        }
+
+        private void definir(int p, long id, String nome, double preco, int estoque, Long categoriaId) {
+            ids[p] = id;
+            nomes[p] = nome;
+            nomesNormalizados[p] = IndiceTrigramas.normalizar(nome);
+            precos[p] = preco;
+            estoques[p] = estoque;
+            categorias[p] = categoriaId == null ? SEM_CATEGORIA
+                    : ordinais.computeIfAbsent(categoriaId, k -> ordinais.size());
+            bytesTextos += bytesTextos(p);
+        }
+
+        private void deslocarColunas(int de, int para, int quantidade) {
+            System.arraycopy(ids, de, ids, para, quantidade);
+            System.arraycopy(nomes, de, nomes, para, quantidade);
+            System.arraycopy(nomesNormalizados, de, nomesNormalizados, para, quantidade);
+            System.arraycopy(precos, de, precos, para, quantidade);
+            System.arraycopy(estoques, de, estoques, para, quantidade);
+            System.arraycopy(categorias, de, categorias, para, quantidade);
+        }
+
+        private void garantirCapacidade(int capacidade) {
+            if (capacidade <= ids.length) {
+                return;
+            }
+            int nova = Math.max(capacidade, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, nova);
+            nomes = Arrays.copyOf(nomes, nova);
+            nomesNormalizados = Arrays.copyOf(nomesNormalizados, nova);
+            precos = Arrays.copyOf(precos, nova);
+            estoques = Arrays.copyOf(estoques, nova);
+            categorias = Arrays.copyOf(categorias, nova);
+            ordemNome = Arrays.copyOf(ordemNome, nova);
+            ordemPreco = Arrays.copyOf(ordemPreco, nova);
+        }
+
+        // Índice da posição p na permutação completa (tamanho elementos)
+        private int posicao(int[] ordem, int p, IntBinaryOperator comparador) {
+            return posicao(ordem, tamanho, p, comparador);
+        }
+
+        // Primeiro índice cujo elemento não é menor que a posição p
+        private static int posicao(int[] ordem, int quantidade, int p, IntBinaryOperator comparador) {
+            int baixo = 0;
+            int alto = quantidade;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (comparador.applyAsInt(ordem[meio], p) < 0) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return baixo;
+        }
+
+        private void retirar(int[] ordem, int indice) {
+            System.arraycopy(ordem, indice + 1, ordem, indice, tamanho - indice - 1);
+        }
+
+        private static void colocar(int[] ordem, int quantidade, int indice, int p) {
+            System.arraycopy(ordem, indice, ordem, indice + 1, quantidade - indice);
+            ordem[indice] = p;
+        }
+
+        // String com bytes LATIN1 (compact strings): cabeçalhos de String e do byte[] mais um byte por caractere
+        private long bytesTextos(int p) {
+            long bytes = 40 + nomes[p].length();
+            if (nomesNormalizados[p] != nomes[p]) {
+                bytes += 40 + nomesNormalizados[p].length();
+            }
+            return bytes;
+        }
+
+        long memoriaEstimada() {
+            return (long) ids.length * BYTES_POR_POSICAO + bytesTextos + ordinais.size() * 64L;
+        }
+    }
+
+    // Ids de [inicio, fim) entre os produtos aceitos, contando todos
+    private static final class Coletor {
+        private final long inicio;
+        private final long fim;
+        private final List<Long> ids = new ArrayList<>();
+        private long total;
+
+        Coletor(long inicio, long fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        void aceitar(long id) {
+            if (total >= inicio && total < fim) {
+                ids.add(id);
+            }
+            total++;
+        }
+    }
+
+    private static final class MemoriaExcedidaException extends RuntimeException {
+        private final long bytes;
+
+        MemoriaExcedidaException(long bytes) {
+            super("catálogo colunar acima do limite de memória");
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.backend;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Rotas em /admin/** exigem ROLE_ADMIN (ver SecurityConfig). Reconstrução imediata após cargas
+// feitas direto no banco, sem esperar app.produtos.catalogo-colunar.intervalo-ms
+@RestController
+@RequestMapping("/admin/produtos/catalogo-colunar")
+@ConditionalOnProperty(name = "app.produtos.catalogo-colunar.habilitado", havingValue = "true")
+public class CatalogoColunarAdminController {
+
+    private final CatalogoColunar catalogoColunar;
+
+    public CatalogoColunarAdminController(CatalogoColunar catalogoColunar) {
+        this.catalogoColunar = catalogoColunar;
+    }
+
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruir() {
+        catalogoColunar.reconstruir();
+        return ResponseEntity.ok(Map.of("produtos", catalogoColunar.tamanho(),
+                "memoria", catalogoColunar.memoriaEstimada()));
+    }
+}
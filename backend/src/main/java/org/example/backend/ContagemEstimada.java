@@ -0,0 +1,65 @@
+package org.example.backend;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Totais aproximados para a listagem de produtos.
+ * <p>
+ * Sem filtros, usa a estimativa do planejador do PostgreSQL (pg_class.reltuples).
+ * Com filtros, executa o count(*) uma vez e reaproveita o resultado para a mesma
+ * combinação de filtros até o TTL expirar.
+ */
+@Component
+public class ContagemEstimada {
+
+    private record Entrada(long total, long expiraEm) {}
+
+    private final ProdutoRepository produtoRepository;
+    private final long ttlMs;
+    private final int maxEntradas;
+    private final Map<String, Entrada> contagens = new ConcurrentHashMap<>();
+
+    public ContagemEstimada(ProdutoRepository produtoRepository,
+                            @Value("${app.produtos.contagem-estimada.ttl-ms:60000}") long ttlMs,
+                            @Value("${app.produtos.contagem-estimada.max-entradas:1000}") int maxEntradas) {
+        this.produtoRepository = produtoRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntradas = maxEntradas;
+    }
+
+    public long estimar(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+                        LongSupplier contagemExata) {
+        boolean semFiltros = (nome == null || nome.isEmpty())
+                && precoMinimo == null && precoMaximo == null && categoriaId == null;
+        if (semFiltros) {
+            long estimativa = produtoRepository.estimarTotalProdutos();
+            // reltuples é -1 (ou 0 em versões antigas) enquanto a tabela não foi analisada
+            if (estimativa > 0) {
+                return estimativa;
+            }
+        }
+
+        String assinatura = String.join("|",
+                Objects.toString(nome == null ? null : nome.toLowerCase()), Objects.toString(precoMinimo),
+                Objects.toString(precoMaximo), Objects.toString(categoriaId));
+        long agora = System.currentTimeMillis();
+        Entrada entrada = contagens.get(assinatura);
+        if (entrada == null || entrada.expiraEm() <= agora) {
+            if (contagens.size() >= maxEntradas) {
+                contagens.values().removeIf(e -> e.expiraEm() <= agora);
+                if (contagens.size() >= maxEntradas) {
+                    contagens.clear();
+                }
+            }
+            entrada = new Entrada(contagemExata.getAsLong(), agora + ttlMs);
+            contagens.put(assinatura, entrada);
+        }
+        return entrada.total();
+    }
+}
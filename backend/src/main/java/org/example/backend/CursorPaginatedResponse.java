@@ -0,0 +1,38 @@
+package org.example.backend;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+// Variante de PaginatedResponse para a paginação por cursor: sem página nem totais
+public class CursorPaginatedResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean last;
+
+    public CursorPaginatedResponse() {}
+
+    public static <T> CursorPaginatedResponse<T> of(Window<T> window) {
+        CursorPaginatedResponse<T> response = new CursorPaginatedResponse<>();
+        response.setContent(window.getContent());
+        response.setSize(window.size());
+        response.setLast(!window.hasNext());
+        if (window.hasNext() && !window.isEmpty()) {
+            response.setNextCursor(ProdutoCursor.codificar(
+                    (KeysetScrollPosition) window.positionAt(window.size() - 1)));
+        }
+        return response;
+    }
+
+    // Getters e setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isLast() { return last; }
+    public void setLast(boolean last) { this.last = last; }
+}
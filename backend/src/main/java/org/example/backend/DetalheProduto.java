@@ -1,5 +1,6 @@
 package org.example.backend;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
@@ -7,7 +8,8 @@ import jakarta.persistence.*;
 public class DetalheProduto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalhes_produto_seq")
+    @SequenceGenerator(name = "detalhes_produto_seq", sequenceName = "detalhes_produto_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 50)
@@ -19,6 +21,7 @@ public class DetalheProduto {
     private String material;
 
     // Lado inverso do relacionamento OneToOne com Produto
+    @JsonIgnore // Evita recursão infinita ao serializar Produto -> detalheProduto -> produto
     @OneToOne(mappedBy = "detalheProduto", fetch = FetchType.LAZY)
     private Produto produto;
 
@@ -0,0 +1,310 @@
+package org.example.backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Totais do catálogo para o dashboard ({@code GET /produtos/estatisticas}), mantidos em memória.
+ * <p>
+ * Cada {@link ProdutoAlteradoEvent} e cada {@link EstoqueAlteradoEvent} traz os valores do produto
+ * antes e depois da escrita; após o commit, a contribuição antiga é subtraída e a nova somada, em
+ * O(1). A leitura só copia os agregados e nunca consulta a tabela {@code produtos}.
+ * <p>
+ * Os agregados são recalculados por um único GROUP BY sobre {@code produtos} na inicialização e a
+ * cada {@code intervalo-ms}, o que corrige divergências (escritas concorrentes no mesmo produto,
+ * dados gravados fora do ProdutoService). Atualizações em conjunto não informam os valores
+ * alterados: marcam os agregados como desatualizados e antecipam a reconciliação para até
+ * {@code atraso-pendente-ms}.
+ * <p>
+ * Eventos aplicados durante a reconciliação são registrados e reaplicados sobre o resultado
+ * do GROUP BY. Um commit nos milissegundos entre o início do registro e o snapshot da consulta
+ * é contado duas vezes até a reconciliação seguinte.
+ */
+@Component
+public class EstatisticasCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasCatalogo.class);
+
+    public record Resumo(long totalProdutos, long totalEstoque, double valorEstoque, double precoMedio,
+                         long estoqueBaixo, int limiteEstoqueBaixo, List<PorCategoria> categorias,
+                         List<FaixaPreco> histogramaPrecos, Instant reconciliadoEm, boolean desatualizado) {}
+
+    public record PorCategoria(Long id, String nome, long produtos, long estoque, double valorEstoque) {}
+
+    // [de, ate); ate é null na última faixa
+    public record FaixaPreco(double de, Double ate, long produtos) {}
+
+    private static final class TotaisCategoria {
+        long produtos;
+        long estoque;
+        double valorEstoque;
+    }
+
+    private static final class Agregados {
+        long produtos;
+        long estoque;
+        double somaPrecos;
+        double valorEstoque;
+        long estoqueBaixo;
+        final long[] faixas;
+        final Map<Long, TotaisCategoria> categorias = new HashMap<>();
+
+        Agregados(int faixas) {
+            this.faixas = new long[faixas];
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoriaRepository categoriaRepository;
+    private final double[] limitesFaixas;
+    private final int limiteEstoqueBaixo;
+    private final long intervaloMs;
+    private final long atrasoPendenteMs;
+
+    // Uma reconciliação por vez (inicialização, agendamento ou chamada direta)
+    private final Object reconciliacao = new Object();
+
+    // Protegidos por this: cada evento e cada leitura é O(número de categorias) no pior caso
+    private Agregados agregados;
+    private final Map<Long, String> nomesCategorias = new HashMap<>();
+    private List<ProdutoAlteradoEvent> registroDuranteReconciliacao;
+    private Instant reconciliadoEm;
+    private long ultimaReconciliacao;
+    private long desatualizadoDesde;
+
+    @Autowired
+    public EstatisticasCatalogo(JdbcTemplate jdbcTemplate,
+                                CategoriaRepository categoriaRepository,
+                                @Value("${app.produtos.estatisticas.faixas-preco:50,100,250,500,1000,2500,5000}")
+                                double[] limitesFaixas,
+                                @Value("${app.produtos.estatisticas.estoque-baixo:10}") int limiteEstoqueBaixo,
+                                @Value("${app.produtos.estatisticas.intervalo-ms:300000}") long intervaloMs,
+                                @Value("${app.produtos.estatisticas.atraso-pendente-ms:5000}") long atrasoPendenteMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoriaRepository = categoriaRepository;
+        this.limitesFaixas = limitesFaixas.clone();
+        Arrays.sort(this.limitesFaixas);
+        this.limiteEstoqueBaixo = limiteEstoqueBaixo;
+        this.intervaloMs = intervaloMs;
+        this.atrasoPendenteMs = atrasoPendenteMs;
+        this.agregados = new Agregados(this.limitesFaixas.length + 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        aplicar(agregados, evento);
+        if (registroDuranteReconciliacao != null) {
+            registroDuranteReconciliacao.add(evento);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarEstoque(EstoqueAlteradoEvent evento) {
+        if (evento.antes() == null || evento.depois() == null) {
+            marcarDesatualizado();
+            return;
+        }
+        aoAlterarProduto(new ProdutoAlteradoEvent(evento.produtoId(), evento.antes(), evento.depois()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        marcarDesatualizado();
+    }
+
+    private void marcarDesatualizado() {
+        if (desatualizadoDesde == 0) {
+            desatualizadoDesde = System.currentTimeMillis();
+        }
+    }
+
+    public Resumo resumo() {
+        List<Long> semNome;
+        synchronized (this) {
+            semNome = agregados.categorias.keySet().stream().filter(id -> !nomesCategorias.containsKey(id)).toList();
+        }
+        // Categorias criadas depois da última reconciliação (cache de segundo nível de Categoria)
+        if (!semNome.isEmpty()) {
+            Map<Long, String> nomes = categoriaRepository.findAllById(semNome).stream()
+                    .collect(Collectors.toMap(Categoria::getId, Categoria::getNome));
+            synchronized (this) {
+                nomesCategorias.putAll(nomes);
+            }
+        }
+
+        synchronized (this) {
+            Agregados a = agregados;
+            List<PorCategoria> categorias = a.categorias.entrySet().stream()
+                    .map(e -> new PorCategoria(e.getKey(), nomesCategorias.get(e.getKey()), e.getValue().produtos,
+                            e.getValue().estoque, centavos(e.getValue().valorEstoque)))
+                    .sorted(Comparator.comparing(PorCategoria::valorEstoque).reversed())
+                    .toList();
+            List<FaixaPreco> faixas = new ArrayList<>(a.faixas.length);
+            for (int i = 0; i < a.faixas.length; i++) {
+                faixas.add(new FaixaPreco(i == 0 ? 0 : limitesFaixas[i - 1],
+                        i < limitesFaixas.length ? limitesFaixas[i] : null, a.faixas[i]));
+            }
+            return new Resumo(a.produtos, a.estoque, centavos(a.valorEstoque),
+                    a.produtos == 0 ? 0 : centavos(a.somaPrecos / a.produtos), a.estoqueBaixo, limiteEstoqueBaixo,
+                    categorias, faixas, reconciliadoEm, desatualizadoDesde != 0);
+        }
+    }
+
+    // Uma falha aqui não impede a inicialização: os agregados ficam desatualizados e a
+    // reconciliação é tentada de novo após atraso-pendente-ms
+    @EventListener(value = ApplicationReadyEvent.class, condition = ExportacaoCatalogoRunner.FORA_DA_EXPORTACAO)
+    public void aoIniciar() {
+        tentarReconciliar();
+    }
+
+    // Verifica com frequência, mas só consulta o banco no intervalo ou com alterações pendentes
+    @Scheduled(fixedDelayString = "${app.produtos.estatisticas.verificacao-ms:1000}")
+    public void reconciliarSeNecessario() {
+        long agora = System.currentTimeMillis();
+        boolean necessario;
+        synchronized (this) {
+            necessario = (ultimaReconciliacao != 0 && agora - ultimaReconciliacao >= intervaloMs)
+                    || (desatualizadoDesde != 0 && agora - desatualizadoDesde >= atrasoPendenteMs);
+        }
+        if (necessario) {
+            tentarReconciliar();
+        }
+    }
+
+    private void tentarReconciliar() {
+        try {
+            reconciliar();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao reconciliar as estatísticas do catálogo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula os agregados com um único GROUP BY por categoria e faixa de preço.
+     */
+    public void reconciliar() {
+        synchronized (reconciliacao) {
+            reconciliarAgora();
+        }
+    }
+
+    private void reconciliarAgora() {
+        long inicio = System.currentTimeMillis();
+        synchronized (this) {
+            registroDuranteReconciliacao = new ArrayList<>();
+            desatualizadoDesde = 0;
+        }
+        Agregados novos = new Agregados(limitesFaixas.length + 1);
+        Map<Long, String> nomes = new HashMap<>();
+        try {
+            // width_bucket com os limites ordenados: quantidade de limites <= preço, de 0 a n
+            jdbcTemplate.query("""
+                    SELECT p.categoria_id, c.nome, width_bucket(p.preco, ?::float8[]) AS faixa,
+                           count(*), sum(p.estoque), sum(p.preco), sum(p.preco * p.estoque),
+                           count(*) FILTER (WHERE p.estoque < ?)
+                    FROM produtos p JOIN categorias c ON c.id = p.categoria_id
+                    GROUP BY p.categoria_id, c.nome, faixa""", rs -> {
+                long produtos = rs.getLong(4);
+                long estoque = rs.getLong(5);
+                double valor = rs.getDouble(7);
+                novos.produtos += produtos;
+                novos.estoque += estoque;
+                novos.somaPrecos += rs.getDouble(6);
+                novos.valorEstoque += valor;
+                novos.estoqueBaixo += rs.getLong(8);
+                novos.faixas[rs.getInt(3)] += produtos;
+                TotaisCategoria categoria = novos.categorias.computeIfAbsent(rs.getLong(1), id -> new TotaisCategoria());
+                categoria.produtos += produtos;
+                categoria.estoque += estoque;
+                categoria.valorEstoque += valor;
+                nomes.put(rs.getLong(1), rs.getString(2));
+            }, arrayLimites(), limiteEstoqueBaixo);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                registroDuranteReconciliacao = null;
+                marcarDesatualizado();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (ProdutoAlteradoEvent evento : registroDuranteReconciliacao) {
+                aplicar(novos, evento);
+            }
+            registroDuranteReconciliacao = null;
+            agregados = novos;
+            nomesCategorias.clear();
+            nomesCategorias.putAll(nomes);
+            reconciliadoEm = Instant.now();
+            ultimaReconciliacao = System.currentTimeMillis();
+        }
+        log.debug("Estatísticas do catálogo reconciliadas em {} ms", System.currentTimeMillis() - inicio);
+    }
+
+    private String arrayLimites() {
+        return Arrays.stream(limitesFaixas).mapToObj(Double::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private void aplicar(Agregados a, ProdutoAlteradoEvent evento) {
+        if (evento.antes() != null) {
+            somar(a, evento.antes(), -1);
+        }
+        if (evento.depois() != null) {
+            somar(a, evento.depois(), 1);
+        }
+    }
+
+    private void somar(Agregados a, ProdutoAlteradoEvent.Estado estado, int sinal) {
+        double valor = estado.preco() * estado.estoque();
+        a.produtos += sinal;
+        a.estoque += (long) sinal * estado.estoque();
+        a.somaPrecos += sinal * estado.preco();
+        a.valorEstoque += sinal * valor;
+        if (estado.estoque() < limiteEstoqueBaixo) {
+            a.estoqueBaixo += sinal;
+        }
+        a.faixas[faixa(estado.preco())] += sinal;
+        if (estado.categoriaId() != null) {
+            TotaisCategoria categoria = a.categorias.computeIfAbsent(estado.categoriaId(), id -> new TotaisCategoria());
+            categoria.produtos += sinal;
+            categoria.estoque += (long) sinal * estado.estoque();
+            categoria.valorEstoque += sinal * valor;
+            if (categoria.produtos == 0) {
+                a.categorias.remove(estado.categoriaId());
+            }
+        }
+    }
+
+    // Mesma regra do width_bucket: quantidade de limites menores ou iguais ao preço
+    private int faixa(double preco) {
+        int posicao = Arrays.binarySearch(limitesFaixas, preco);
+        if (posicao < 0) {
+            return -posicao - 1;
+        }
+        while (posicao < limitesFaixas.length && limitesFaixas[posicao] <= preco) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    private static double centavos(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.backend;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Totais do dashboard servidos dos agregados em memória do EstatisticasCatalogo, sem consultar produtos
+@RestController
+@RequestMapping("/produtos/estatisticas")
+public class EstatisticasController {
+
+    private final EstatisticasCatalogo estatisticasCatalogo;
+
+    public EstatisticasController(EstatisticasCatalogo estatisticasCatalogo) {
+        this.estatisticasCatalogo = estatisticasCatalogo;
+    }
+
+    @GetMapping
+    public ResponseEntity<EstatisticasCatalogo.Resumo> estatisticas() {
+        return ResponseEntity.ok(estatisticasCatalogo.resumo());
+    }
+}
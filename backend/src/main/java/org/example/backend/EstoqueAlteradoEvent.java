@@ -0,0 +1,25 @@
+package org.example.backend;
+
+/**
+ * Publicado quando só o estoque de um produto muda (reserva, liberação, arrendamento ou
+ * devolução das reservas em memória). Diferente de ProdutoAlteradoEvent, não reinicia os
+ * contadores de ReservaEstoqueEmMemoria, que são a origem da própria alteração.
+ * {@code antes} e {@code depois} diferem só no estoque; ambos são null quando a escrita
+ * não devolveu a linha gravada, e então {@link EstatisticasCatalogo} reconcilia pelo banco.
+ */
+public record EstoqueAlteradoEvent(Long produtoId, ProdutoAlteradoEvent.Estado antes,
+                                   ProdutoAlteradoEvent.Estado depois) {
+
+    /**
+     * @param linha [preco, estoque, categoria_id] devolvidos pelo UPDATE ... RETURNING
+     * @param delta variação aplicada ao estoque por aquele UPDATE
+     */
+    public static EstoqueAlteradoEvent gravado(Long produtoId, Object[] linha, int delta) {
+        double preco = ((Number) linha[0]).doubleValue();
+        int estoque = ((Number) linha[1]).intValue();
+        Long categoriaId = linha[2] == null ? null : ((Number) linha[2]).longValue();
+        return new EstoqueAlteradoEvent(produtoId,
+                new ProdutoAlteradoEvent.Estado(preco, estoque - delta, categoriaId),
+                new ProdutoAlteradoEvent.Estado(preco, estoque, categoriaId));
+    }
+}
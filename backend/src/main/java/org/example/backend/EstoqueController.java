@@ -0,0 +1,48 @@
+package org.example.backend;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Reserva e liberação atômicas de estoque: 204 se efetuada, 409 se o estoque não comporta
+// a quantidade, 404 se o produto não existe
+@RestController
+@RequestMapping("/produtos/{id}/estoque")
+public class EstoqueController {
+
+    private final EstoqueService estoqueService;
+
+    public EstoqueController(EstoqueService estoqueService) {
+        this.estoqueService = estoqueService;
+    }
+
+    @PostMapping("/reservar")
+    public ResponseEntity<Void> reservar(@PathVariable Long id, @RequestParam(defaultValue = "1") int quantidade) {
+        try {
+            return resposta(estoqueService.reservar(id, quantidade));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/liberar")
+    public ResponseEntity<Void> liberar(@PathVariable Long id, @RequestParam(defaultValue = "1") int quantidade) {
+        try {
+            return resposta(estoqueService.liberar(id, quantidade));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static ResponseEntity<Void> resposta(EstoqueService.Resultado resultado) {
+        return switch (resultado) {
+            case EFETUADO -> ResponseEntity.noContent().build();
+            case INSUFICIENTE -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NAO_ENCONTRADO -> ResponseEntity.notFound().build();
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.backend;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Reserva e liberação de estoque sem ler e regravar a entidade inteira.
+ * <p>
+ * No caminho padrão cada operação é um UPDATE condicional ({@code WHERE estoque >= n}):
+ * o PostgreSQL serializa as reservas concorrentes pela trava da linha e nenhuma venda
+ * ultrapassa o estoque. O UPDATE devolve a linha gravada, e o {@link EstoqueAlteradoEvent}
+ * leva o estoque antes e depois para os ouvintes aplicarem a variação sem consultar o banco. Os produtos configurados para alta contenção são atendidos por
+ * {@link ReservaEstoqueEmMemoria}.
+ */
+@Service
+public class EstoqueService {
+
+    public enum Resultado { EFETUADO, INSUFICIENTE, NAO_ENCONTRADO }
+
+    private final ProdutoRepository produtoRepository;
+    private final ProdutoListagemRepository listagemRepository;
+    private final ReservaEstoqueEmMemoria reservaEmMemoria;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transacao;
+
+    public EstoqueService(ProdutoRepository produtoRepository,
+                          ProdutoListagemRepository listagemRepository,
+                          ReservaEstoqueEmMemoria reservaEmMemoria,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager) {
+        this.produtoRepository = produtoRepository;
+        this.listagemRepository = listagemRepository;
+        this.reservaEmMemoria = reservaEmMemoria;
+        this.eventPublisher = eventPublisher;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    public Resultado reservar(Long id, int quantidade) {
+        validar(quantidade);
+        if (reservaEmMemoria.atende(id)) {
+            return reservaEmMemoria.reservar(id, quantidade);
+        }
+        return transacao.execute(status -> {
+            List<Object[]> gravada = produtoRepository.reservarEstoque(id, quantidade);
+            if (gravada.isEmpty()) {
+                return produtoRepository.existsById(id) ? Resultado.INSUFICIENTE : Resultado.NAO_ENCONTRADO;
+            }
+            aposAlterar(id, -quantidade, gravada.get(0));
+            return Resultado.EFETUADO;
+        });
+    }
+
+    public Resultado liberar(Long id, int quantidade) {
+        validar(quantidade);
+        if (reservaEmMemoria.atende(id)) {
+            return reservaEmMemoria.liberar(id, quantidade);
+        }
+        return transacao.execute(status -> {
+            List<Object[]> gravada = produtoRepository.somarEstoque(id, quantidade);
+            if (gravada.isEmpty()) {
+                return Resultado.NAO_ENCONTRADO;
+            }
+            aposAlterar(id, quantidade, gravada.get(0));
+            return Resultado.EFETUADO;
+        });
+    }
+
+    private void aposAlterar(Long id, int delta, Object[] gravada) {
+        listagemRepository.somarEstoque(id, delta);
+        eventPublisher.publishEvent(EstoqueAlteradoEvent.gravado(id, gravada, delta));
+    }
+
+    private static void validar(int quantidade) {
+        if (quantidade < 1) {
+            throw new IllegalArgumentException("Quantidade deve ser maior que zero");
+        }
+    }
+}
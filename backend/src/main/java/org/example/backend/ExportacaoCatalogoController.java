@@ -0,0 +1,67 @@
+package org.example.backend;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Locale;
+
+// Rotas em /admin/** exigem ROLE_ADMIN (ver SecurityConfig). Feeds dos parceiros:
+// formato=ndjson (padrão, compactado com gzip) ou formato=csv (sem compressão), ambos
+// alteráveis com compactar=true|false. O arquivo é enviado como anexo.
+@RestController
+@RequestMapping("/admin/produtos/exportacao")
+public class ExportacaoCatalogoController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    private final ExportacaoCatalogoService exportacaoCatalogoService;
+
+    public ExportacaoCatalogoController(ExportacaoCatalogoService exportacaoCatalogoService) {
+        this.exportacaoCatalogoService = exportacaoCatalogoService;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) Boolean compactar) {
+        ExportacaoCatalogoService.Formato tipo;
+        ExportacaoCatalogoService.Filtro filtro;
+        try {
+            tipo = ExportacaoCatalogoService.Formato.valueOf(formato.toUpperCase(Locale.ROOT));
+            filtro = new ExportacaoCatalogoService.Filtro(nome, precoMinimo, precoMaximo, categoriaId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = compactar != null ? compactar : tipo == ExportacaoCatalogoService.Formato.NDJSON;
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                exportacaoCatalogoService.exportar(filtro, tipo, gzip, outputStream);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Falha na exportação do catálogo", e);
+            }
+        };
+
+        MediaType contentType = gzip ? APPLICATION_GZIP
+                : tipo == ExportacaoCatalogoService.Formato.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON;
+        String arquivo = "produtos." + tipo.name().toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .body(body);
+    }
+}
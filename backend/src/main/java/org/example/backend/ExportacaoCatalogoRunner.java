@@ -0,0 +1,81 @@
+package org.example.backend;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Modo de linha de comando da exportação do catálogo, para os jobs noturnos:
+ * <pre>
+ * java -jar backend.jar --app.exportacao.saida=/feeds/produtos.ndjson.gz [--app.exportacao.categoria-id=1]
+ * </pre>
+ * Nesse modo a aplicação sobe sem servidor web ({@link BackendApplication.ModoExportacao}) e os
+ * ouvintes de ApplicationReadyEvent que aquecem estruturas da API (índice de trigramas, verificação
+ * de produto_listagem, estatísticas, catálogo colunar) não rodam: a condição
+ * {@link #FORA_DA_EXPORTACAO} os desliga.
+ * O formato vem da extensão do arquivo (.csv, .csv.gz, .ndjson ou .ndjson.gz); os filtros
+ * opcionais são {@code app.exportacao.nome}, {@code preco-minimo}, {@code preco-maximo} e
+ * {@code categoria-id}. Ao fim da exportação, {@link BackendApplication#main} fecha o contexto e
+ * encerra com o código deste runner: 0 com o arquivo gravado, 1 caso contrário.
+ */
+@Component
+@ConditionalOnProperty(name = "app.exportacao.saida")
+public class ExportacaoCatalogoRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    static final String SAIDA = "app.exportacao.saida";
+
+    // Condição SpEL dos ouvintes de inicialização que só servem à API
+    public static final String FORA_DA_EXPORTACAO = "!@environment.containsProperty('" + SAIDA + "')";
+
+    private final ExportacaoCatalogoService exportacaoCatalogoService;
+    private final Path saida;
+    private final ExportacaoCatalogoService.Filtro filtro;
+    private volatile boolean exportado;
+
+    public ExportacaoCatalogoRunner(ExportacaoCatalogoService exportacaoCatalogoService,
+                                    @Value("${app.exportacao.saida}") String saida,
+                                    @Value("${app.exportacao.nome:#{null}}") String nome,
+                                    @Value("${app.exportacao.preco-minimo:#{null}}") Double precoMinimo,
+                                    @Value("${app.exportacao.preco-maximo:#{null}}") Double precoMaximo,
+                                    @Value("${app.exportacao.categoria-id:#{null}}") Long categoriaId) {
+        this.exportacaoCatalogoService = exportacaoCatalogoService;
+        this.saida = Path.of(saida);
+        this.filtro = new ExportacaoCatalogoService.Filtro(nome, precoMinimo, precoMaximo, categoriaId);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String arquivo = saida.getFileName().toString();
+        boolean compactar = arquivo.endsWith(".gz");
+        String semGz = compactar ? arquivo.substring(0, arquivo.length() - ".gz".length()) : arquivo;
+        ExportacaoCatalogoService.Formato formato;
+        if (semGz.endsWith(".csv")) {
+            formato = ExportacaoCatalogoService.Formato.CSV;
+        } else if (semGz.endsWith(".ndjson")) {
+            formato = ExportacaoCatalogoService.Formato.NDJSON;
+        } else {
+            throw new IllegalArgumentException("Extensão não suportada em app.exportacao.saida: " + arquivo);
+        }
+
+        // Grava num arquivo temporário e renomeia: o feed nunca fica parcialmente escrito
+        Path temporario = saida.resolveSibling(arquivo + ".parcial");
+        try (OutputStream out = Files.newOutputStream(temporario)) {
+            exportacaoCatalogoService.exportar(filtro, formato, compactar, out);
+        }
+        Files.move(temporario, saida, StandardCopyOption.REPLACE_EXISTING);
+        exportado = true;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exportado ? 0 : 1;
+    }
+}
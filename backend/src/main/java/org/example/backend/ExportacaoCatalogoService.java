@@ -0,0 +1,141 @@
+package org.example.backend;
+
+import org.postgresql.PGConnection;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação do catálogo completo para os feeds dos parceiros.
+ * <p>
+ * As linhas saem do PostgreSQL já formatadas, por {@code COPY ... TO STDOUT} do
+ * {@link org.postgresql.copy.CopyManager}, e são copiadas direto para a saída: sem entidades,
+ * sem Jackson e com memória constante. Em CSV os fornecedores vêm em duas colunas separadas
+ * por "|"; em NDJSON cada linha é montada por json_build_object com a mesma estrutura do JSON
+ * de {@link Produto} (os números seguem a formatação do PostgreSQL, ex.: 7999 em vez de 7999.0).
+ * <p>
+ * O COPY não aceita parâmetros, então os filtros entram no SQL como literais: números já
+ * convertidos e o nome escapado pelo próprio driver.
+ */
+@Service
+public class ExportacaoCatalogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacaoCatalogoService.class);
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    public enum Formato { CSV, NDJSON }
+
+    /**
+     * Mesmos filtros de {@link ProdutoSpecifications#comFiltros}.
+     *
+     * @throws IllegalArgumentException se um preço não é um número finito
+     */
+    public record Filtro(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
+        public Filtro {
+            if ((precoMinimo != null && !Double.isFinite(precoMinimo))
+                    || (precoMaximo != null && !Double.isFinite(precoMaximo))) {
+                throw new IllegalArgumentException("Preço inválido");
+            }
+        }
+    }
+
+    private static final String FROM_PRODUTOS = """
+            FROM produtos p
+            JOIN categorias c ON c.id = p.categoria_id
+            LEFT JOIN detalhes_produto d ON d.id = p.detalhe_produto_id""";
+
+    private static final String SELECT_CSV = """
+            SELECT p.id, p.nome, p.preco, p.estoque, c.id AS categoria_id, c.nome AS categoria_nome,
+                   d.dimensoes, d.peso, d.material, fs.ids AS fornecedores_ids, fs.nomes AS fornecedores_nomes
+            """ + FROM_PRODUTOS + """
+
+            LEFT JOIN LATERAL (
+                SELECT string_agg(f.id::text, '|' ORDER BY f.id) AS ids, string_agg(f.nome, '|' ORDER BY f.id) AS nomes
+                FROM produto_fornecedor pf JOIN fornecedores f ON f.id = pf.fornecedor_id
+                WHERE pf.produto_id = p.id) fs ON TRUE""";
+
+    private static final String SELECT_NDJSON = """
+            SELECT json_build_object(
+                'id', p.id, 'nome', p.nome, 'preco', p.preco, 'estoque', p.estoque,
+                'categoria', json_build_object('id', c.id, 'nome', c.nome),
+                'detalheProduto', CASE WHEN d.id IS NULL THEN NULL ELSE json_build_object(
+                    'id', d.id, 'dimensoes', d.dimensoes, 'peso', d.peso, 'material', d.material) END,
+                'fornecedores', COALESCE(fs.fornecedores, '[]'::json))
+            """ + FROM_PRODUTOS + """
+
+            LEFT JOIN LATERAL (
+                SELECT json_agg(json_build_object('id', f.id, 'nome', f.nome, 'telefone', f.telefone, 'email', f.email)
+                                ORDER BY f.id) AS fornecedores
+                FROM produto_fornecedor pf JOIN fornecedores f ON f.id = pf.fornecedor_id
+                WHERE pf.produto_id = p.id) fs ON TRUE""";
+
+    // NDJSON pelo modo CSV com aspas e delimitador que nunca aparecem no JSON (caracteres de
+    // controle são escapados por json_build_object): cada linha sai exatamente como gerada.
+    // No modo texto o COPY duplicaria as barras invertidas do JSON.
+    private static final String OPCOES_NDJSON = "(FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+    private static final String OPCOES_CSV = "(FORMAT csv, HEADER)";
+
+    private final DataSource dataSource;
+
+    public ExportacaoCatalogoService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Escreve os produtos filtrados, em ordem de id, em {@code saida}, que não é fechada.
+     *
+     * @return quantidade de produtos exportados
+     */
+    public long exportar(Filtro filtro, Formato formato, boolean compactar, OutputStream saida)
+            throws IOException, SQLException {
+        long inicio = System.currentTimeMillis();
+        try (Connection conexao = dataSource.getConnection()) {
+            String sql = "COPY (" + (formato == Formato.CSV ? SELECT_CSV : SELECT_NDJSON)
+                    + where(filtro, conexao.unwrap(BaseConnection.class)) + " ORDER BY p.id) TO STDOUT WITH "
+                    + (formato == Formato.CSV ? OPCOES_CSV : OPCOES_NDJSON);
+
+            // O CopyManager escreve uma vez por linha; o buffer agrupa as escritas antes da compressão
+            GZIPOutputStream gzip = compactar ? new GZIPOutputStream(saida, TAMANHO_BUFFER) : null;
+            BufferedOutputStream destino = new BufferedOutputStream(gzip != null ? gzip : saida, TAMANHO_BUFFER);
+            long linhas = conexao.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, destino);
+            destino.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+
+            log.info("Exportação do catálogo ({}{}): {} produtos em {} ms", formato,
+                    compactar ? ", gzip" : "", linhas, System.currentTimeMillis() - inicio);
+            return linhas;
+        }
+    }
+
+    // Mesmos predicados de ProdutoSpecifications.comFiltros, como literais
+    static String where(Filtro filtro, BaseConnection conexao) throws SQLException {
+        List<String> condicoes = new ArrayList<>();
+        if (filtro.nome() != null && !filtro.nome().isEmpty()) {
+            condicoes.add("lower(p.nome) LIKE '" + conexao.escapeString(ProdutoSpecifications.padraoNome(filtro.nome())) + "'");
+        }
+        if (filtro.precoMinimo() != null) {
+            condicoes.add("p.preco >= " + filtro.precoMinimo() + "::float8");
+        }
+        if (filtro.precoMaximo() != null) {
+            condicoes.add("p.preco <= " + filtro.precoMaximo() + "::float8");
+        }
+        if (filtro.categoriaId() != null) {
+            condicoes.add("p.categoria_id = " + filtro.categoriaId());
+        }
+        return condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes);
+    }
+}
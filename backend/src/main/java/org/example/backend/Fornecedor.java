@@ -1,19 +1,24 @@
 package org.example.backend;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "fornecedores")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fornecedores")
 public class Fornecedor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fornecedores_seq")
+    @SequenceGenerator(name = "fornecedores_seq", sequenceName = "fornecedores_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -30,6 +35,7 @@ public class Fornecedor {
     private String email;
 
     // Lado inverso do relacionamento ManyToMany com Produto
+    @JsonIgnore // Evita recursão infinita ao serializar Produto -> fornecedores -> produtos
     @ManyToMany(mappedBy = "fornecedores")
     private Set<Produto> produtos = new HashSet<>();
 
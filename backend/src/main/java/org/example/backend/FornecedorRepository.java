@@ -1,12 +1,20 @@
 package org.example.backend;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface FornecedorRepository extends JpaRepository<Fornecedor, Long> {
+    // Resultado guardado no cache de consultas; invalidado automaticamente quando fornecedores é alterada
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-referencia")
+    })
     Fornecedor findByEmail(String email);
     List<Fornecedor> findByNomeContainingIgnoreCase(String nome);
 }
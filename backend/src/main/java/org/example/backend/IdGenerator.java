@@ -9,7 +9,11 @@ import java.util.Map;
  * <p>
  * Fornece um metodo para gerar IDs incrementais exclusivos
  * e uma maneira de acessar os últimos IDs gerados para cada classe.
+ *
+ * @deprecated os contadores ficam só em memória (recomeçam a cada reinício) e todas as
+ * chamadas disputam o mesmo monitor; use {@link AlocadorIds}.
  */
+@Deprecated
 public class IdGenerator {
 
     // Tabela interna para armazenar o último ID gerado para cada classe
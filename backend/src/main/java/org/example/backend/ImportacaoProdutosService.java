@@ -0,0 +1,209 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de produtos em lote a partir de um array JSON ou de NDJSON.
+ * <p>
+ * A entrada é lida em fluxo, um produto por vez, e cada linha é validada isoladamente.
+ * As linhas válidas são gravadas em transações de {@code tamanhoTransacao} linhas; com ids
+ * vindos de sequência e {@code hibernate.jdbc.batch_size}, cada transação envia os INSERTs
+ * em lotes JDBC. Se o banco rejeitar uma transação, suas linhas são regravadas uma a uma
+ * para que só a linha culpada fique de fora.
+ */
+@Service
+public class ImportacaoProdutosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoProdutosService.class);
+
+    private record Pendente(int linha, Produto produto) {}
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transacao;
+    private final EntityManager entityManager;
+    private final CategoriaRepository categoriaRepository;
+    private final FornecedorRepository fornecedorRepository;
+    private final ProdutoListagemService produtoListagemService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int tamanhoTransacao;
+
+    public ImportacaoProdutosService(ObjectMapper objectMapper,
+                                     Validator validator,
+                                     PlatformTransactionManager transactionManager,
+                                     EntityManager entityManager,
+                                     CategoriaRepository categoriaRepository,
+                                     FornecedorRepository fornecedorRepository,
+                                     ProdutoListagemService produtoListagemService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${app.produtos.lote.tamanho-transacao:500}") int tamanhoTransacao) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.categoriaRepository = categoriaRepository;
+        this.fornecedorRepository = fornecedorRepository;
+        this.produtoListagemService = produtoListagemService;
+        this.eventPublisher = eventPublisher;
+        this.tamanhoTransacao = tamanhoTransacao;
+    }
+
+    public ResultadoImportacao importar(InputStream entrada) throws IOException {
+        long inicio = System.currentTimeMillis();
+        List<ResultadoImportacao.Linha> resultados = new ArrayList<>();
+        List<Pendente> pendentes = new ArrayList<>(tamanhoTransacao);
+        int linha = 0;
+
+        // readValues aceita tanto um array JSON quanto valores separados por quebra de linha
+        try (MappingIterator<Produto> produtos = objectMapper.readerFor(Produto.class).readValues(entrada)) {
+            while (produtos.hasNextValue()) {
+                linha++;
+                Produto produto;
+                try {
+                    produto = produtos.nextValue();
+                } catch (JsonMappingException e) {
+                    // Tipo incompatível: o iterador descarta o restante do item e segue para o próximo
+                    resultados.add(ResultadoImportacao.Linha.invalida(linha, List.of(e.getOriginalMessage())));
+                    continue;
+                }
+
+                List<String> erros = validar(produto);
+                if (!erros.isEmpty()) {
+                    resultados.add(ResultadoImportacao.Linha.invalida(linha, erros));
+                    continue;
+                }
+                pendentes.add(new Pendente(linha, produto));
+                if (pendentes.size() == tamanhoTransacao) {
+                    gravar(pendentes, resultados);
+                    pendentes.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // JSON malformado: não há como localizar o início do próximo item
+            resultados.add(ResultadoImportacao.Linha.erro(linha, "JSON malformado: " + e.getOriginalMessage()));
+        }
+        gravar(pendentes, resultados);
+
+        resultados.sort(Comparator.comparingInt(ResultadoImportacao.Linha::linha));
+        ResultadoImportacao resultado = ResultadoImportacao.of(resultados);
+        log.info("Importação em lote: {} linhas, {} criadas, em {} ms",
+                resultado.total(), resultado.criados(), System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    private List<String> validar(Produto produto) {
+        List<String> erros = new ArrayList<>();
+        for (ConstraintViolation<Produto> violacao : validator.validate(produto)) {
+            erros.add(violacao.getPropertyPath() + ": " + violacao.getMessage());
+        }
+        if (produto.getCategoria() == null || produto.getCategoria().getId() == null) {
+            erros.add("categoria: Categoria é obrigatória");
+        }
+        for (Fornecedor fornecedor : produto.getFornecedores()) {
+            if (fornecedor.getId() == null) {
+                erros.add("fornecedores: Fornecedor deve ser informado pelo id");
+            }
+        }
+        erros.sort(null);
+        return erros;
+    }
+
+    private void gravar(List<Pendente> pendentes, List<ResultadoImportacao.Linha> resultados) {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        try {
+            resultados.addAll(transacao.execute(status -> inserir(pendentes)));
+        } catch (RuntimeException e) {
+            if (pendentes.size() == 1) {
+                String causa = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                resultados.add(ResultadoImportacao.Linha.erro(pendentes.get(0).linha(), causa));
+                return;
+            }
+            log.warn("Transação de {} linhas rejeitada, regravando uma a uma: {}", pendentes.size(), e.getMessage());
+            for (Pendente pendente : pendentes) {
+                gravar(List.of(pendente), resultados);
+            }
+        }
+    }
+
+    // Roda dentro da transação; categorias e fornecedores vêm numa consulta por lote (ou do cache de segundo nível)
+    private List<ResultadoImportacao.Linha> inserir(List<Pendente> pendentes) {
+        Map<Long, Categoria> categorias = porId(categoriaRepository.findAllById(pendentes.stream()
+                .map(p -> p.produto().getCategoria().getId())
+                .collect(Collectors.toSet())), Categoria::getId);
+        Map<Long, Fornecedor> fornecedores = porId(fornecedorRepository.findAllById(pendentes.stream()
+                .flatMap(p -> p.produto().getFornecedores().stream())
+                .map(Fornecedor::getId)
+                .collect(Collectors.toSet())), Fornecedor::getId);
+
+        List<ResultadoImportacao.Linha> resultados = new ArrayList<>(pendentes.size());
+        List<Pendente> criados = new ArrayList<>(pendentes.size());
+        for (Pendente pendente : pendentes) {
+            Produto produto = pendente.produto();
+            Categoria categoria = categorias.get(produto.getCategoria().getId());
+            List<Fornecedor> fornecedoresProduto = produto.getFornecedores().stream()
+                    .map(f -> fornecedores.get(f.getId()))
+                    .toList();
+            if (categoria == null || fornecedoresProduto.contains(null)) {
+                List<String> erros = new ArrayList<>();
+                if (categoria == null) {
+                    erros.add("categoria: Categoria não encontrada");
+                }
+                if (fornecedoresProduto.contains(null)) {
+                    erros.add("fornecedores: Fornecedor não encontrado");
+                }
+                resultados.add(ResultadoImportacao.Linha.invalida(pendente.linha(), erros));
+                continue;
+            }
+
+            // Ids informados na entrada são ignorados: tudo é criado
+            produto.setId(null);
+            produto.setCategoria(categoria);
+            // Só o lado dono da associação: Fornecedor.produtos não é carregado
+            produto.setFornecedores(new HashSet<>(fornecedoresProduto));
+            if (produto.getDetalheProduto() != null) {
+                produto.getDetalheProduto().setId(null);
+                produto.setDetalheProduto(produto.getDetalheProduto());
+            }
+            entityManager.persist(produto);
+            produtoListagemService.inserir(produto);
+            eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(null, produto));
+            criados.add(pendente);
+        }
+        entityManager.flush();
+
+        for (Pendente pendente : criados) {
+            resultados.add(ResultadoImportacao.Linha.criada(pendente.linha(), pendente.produto().getId()));
+        }
+        return resultados;
+    }
+
+    private static <T> Map<Long, T> porId(List<T> entidades, Function<T, Long> id) {
+        return entidades.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -0,0 +1,422 @@
+package org.example.backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido de trigramas sobre {@code Produto.nome}, mantido em memória.
+ * <p>
+ * Cada trigrama do nome em minúsculas aponta para uma lista de ids em {@code int[]}.
+ * Uma busca por substring intersecta as listas dos trigramas do termo e confirma
+ * os candidatos no nome armazenado, substituindo o {@code lower(nome) LIKE '%x%'}
+ * que nenhum índice B-tree atende. É construído na inicialização e atualizado
+ * pelo {@link IndiceTrigramasListener} após o commit de cada escrita.
+ * <p>
+ * A cada {@code intervalo-ms} é reconstruído do zero, o que corrige nomes gravados fora do
+ * ProdutoService. A leitura do banco e a montagem das listas ocorrem fora da trava, com as
+ * buscas atendidas pelo índice anterior; escritas aplicadas nesse meio tempo são registradas
+ * e reaplicadas sobre o índice novo antes da troca. Como cada uma grava o nome do commit,
+ * reaplicar uma escrita já vista pela consulta não muda nada.
+ */
+@Component
+public class IndiceTrigramas {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTrigramas.class);
+
+    public record Sugestao(Long id, String nome, double relevancia) {}
+
+    // Nome normalizado e quantos trigramas distintos ele tem (com as bordas), para o Jaccard de sugerir()
+    private record Nome(String texto, int trigramas) {}
+
+    // Escrita aplicada durante uma reconstrução; nome null é remoção
+    private record Alteracao(Long id, String nome) {}
+
+    private final ProdutoRepository produtoRepository;
+    private final int maxCandidatos;
+
+    // Uma reconstrução por vez (inicialização ou agendamento)
+    private final Object reconstrucao = new Object();
+
+    // Protegidos por lock; substituídos por inteiro a cada reconstrução
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, Nome> nomes = new HashMap<>();
+    private Map<Long, ListaInts> postings = new HashMap<>();
+    private List<Alteracao> registroDuranteReconstrucao;
+    private volatile boolean pronto;
+
+    public IndiceTrigramas(ProdutoRepository produtoRepository,
+                           @Value("${app.produtos.indice-nome.max-candidatos:10000}") int maxCandidatos) {
+        this.produtoRepository = produtoRepository;
+        this.maxCandidatos = maxCandidatos;
+    }
+
+    @EventListener(value = ApplicationReadyEvent.class, condition = ExportacaoCatalogoRunner.FORA_DA_EXPORTACAO)
+    @Scheduled(fixedDelayString = "${app.produtos.indice-nome.intervalo-ms:300000}",
+            initialDelayString = "${app.produtos.indice-nome.intervalo-ms:300000}")
+    @Transactional(readOnly = true)
+    public void construir() {
+        try (Stream<Object[]> linhas = produtoRepository.streamIdsENomes()) {
+            construir(linhas);
+        }
+    }
+
+    // Linhas no formato {id, nome}
+    void construir(Stream<Object[]> linhas) {
+        synchronized (reconstrucao) {
+            long inicio = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                registroDuranteReconstrucao = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Integer, Nome> novosNomes = new HashMap<>();
+            Map<Long, ListaInts> novosPostings = new HashMap<>();
+            try {
+                linhas.forEach(linha -> adicionar(novosNomes, novosPostings, (Long) linha[0], (String) linha[1]));
+            } catch (IdForaDoIntervaloException e) {
+                lock.writeLock().lock();
+                try {
+                    registroDuranteReconstrucao = null;
+                    desativar(e);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return;
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    registroDuranteReconstrucao = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Alteracao alteracao : registroDuranteReconstrucao) {
+                    remover(novosNomes, novosPostings, alteracao.id());
+                    if (alteracao.nome() != null) {
+                        adicionar(novosNomes, novosPostings, alteracao.id(), alteracao.nome());
+                    }
+                }
+                registroDuranteReconstrucao = null;
+                nomes = novosNomes;
+                postings = novosPostings;
+                pronto = true;
+            } catch (IdForaDoIntervaloException e) {
+                registroDuranteReconstrucao = null;
+                desativar(e);
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de trigramas construído com {} produtos em {} ms",
+                    novosNomes.size(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    // Chamado com a trava de escrita
+    private void desativar(IdForaDoIntervaloException e) {
+        pronto = false;
+        nomes = new HashMap<>();
+        postings = new HashMap<>();
+        log.warn("Índice de trigramas desativado: {}", e.getMessage());
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Ids cujo nome contém o termo (mesma semântica de {@code lower(nome) LIKE '%termo%'}).
+     *
+     * @return os ids, ou {@code null} quando o índice não pode responder (não pronto, termo com
+     * menos de três caracteres, com os curingas {@code %} ou {@code _}, ou candidatos demais) e a
+     * consulta deve usar o LIKE
+     */
+    public List<Long> buscarContendo(String termo) {
+        if (!pronto || termo == null || ProdutoSpecifications.temCuringa(termo)) {
+            return null;
+        }
+        String normalizado = normalizar(termo);
+        if (normalizado.length() < 3) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            ListaInts menor = null;
+            for (int i = 0; i + 3 <= normalizado.length(); i++) {
+                ListaInts lista = postings.get(trigrama(normalizado, i));
+                if (lista == null) {
+                    return List.of();
+                }
+                if (menor == null || lista.tamanho < menor.tamanho) {
+                    menor = lista;
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < menor.tamanho; i++) {
+                int id = menor.valores[i];
+                if (nomes.get(id).texto().contains(normalizado)) {
+                    if (ids.size() == maxCandidatos) {
+                        return null;
+                    }
+                    ids.add((long) id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca tolerante a erros de digitação: ordena os nomes pela similaridade de
+     * trigramas (coeficiente de Jaccard) com o termo, sem exigir correspondência exata.
+     * <p>
+     * As listas dos trigramas do termo são percorridas da mais curta para a mais longa e só os
+     * primeiros {@code max-candidatos} ids entram na contagem: trigramas comuns ("pro", "o ")
+     * apenas somam aos candidatos já encontrados pelos mais raros.
+     */
+    public List<Sugestao> sugerir(String termo, int limite) {
+        if (!pronto || termo == null || termo.isBlank() || limite <= 0) {
+            return List.of();
+        }
+        // Espaços nas bordas dão peso ao início e ao fim das palavras
+        String normalizado = "  " + normalizar(termo) + " ";
+        long[] trigramasTermo = trigramasDistintos(normalizado);
+
+        lock.readLock().lock();
+        try {
+            List<ListaInts> listas = new ArrayList<>(trigramasTermo.length);
+            for (long t : trigramasTermo) {
+                ListaInts lista = postings.get(t);
+                if (lista != null) {
+                    listas.add(lista);
+                }
+            }
+            listas.sort(Comparator.comparingInt(lista -> lista.tamanho));
+
+            ContagemInts comuns = new ContagemInts();
+            for (ListaInts lista : listas) {
+                for (int i = 0; i < lista.tamanho; i++) {
+                    comuns.somar(lista.valores[i], comuns.tamanho < maxCandidatos);
+                }
+            }
+
+            // Os limite mais relevantes, com o menos relevante no topo
+            PriorityQueue<Sugestao> melhores = new PriorityQueue<>(limite,
+                    Comparator.comparingDouble(Sugestao::relevancia));
+            for (int i = 0; i < comuns.chaves.length; i++) {
+                int comum = comuns.contagens[i];
+                if (comum == 0) {
+                    continue;
+                }
+                Nome nome = nomes.get(comuns.chaves[i]);
+                double jaccard = (double) comum / (trigramasTermo.length + nome.trigramas() - comum);
+                if (melhores.size() < limite) {
+                    melhores.add(new Sugestao((long) comuns.chaves[i], nome.texto(), jaccard));
+                } else if (jaccard > melhores.peek().relevancia()) {
+                    melhores.poll();
+                    melhores.add(new Sugestao((long) comuns.chaves[i], nome.texto(), jaccard));
+                }
+            }
+            List<Sugestao> sugestoes = new ArrayList<>(melhores);
+            sugestoes.sort(Comparator.comparingDouble(Sugestao::relevancia).reversed());
+            return sugestoes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexar(Long id, String nome) {
+        lock.writeLock().lock();
+        try {
+            if (registroDuranteReconstrucao != null) {
+                registroDuranteReconstrucao.add(new Alteracao(id, nome));
+            }
+            remover(nomes, postings, id);
+            adicionar(nomes, postings, id, nome);
+        } catch (IdForaDoIntervaloException e) {
+            pronto = false;
+            log.warn("Índice de trigramas desativado: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (registroDuranteReconstrucao != null) {
+                registroDuranteReconstrucao.add(new Alteracao(id, null));
+            }
+            remover(nomes, postings, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return nomes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void adicionar(Map<Integer, Nome> nomes, Map<Long, ListaInts> postings, Long id, String nome) {
+        if (id > Integer.MAX_VALUE) {
+            throw new IdForaDoIntervaloException(id);
+        }
+        int chave = id.intValue();
+        // Indexa com as bordas para que sugerir() também encontre os trigramas de início e fim
+        String normalizado = normalizar(nome);
+        long[] trigramas = trigramasDistintos("  " + normalizado + " ");
+        nomes.put(chave, new Nome(normalizado, trigramas.length));
+        for (long t : trigramas) {
+            postings.computeIfAbsent(t, k -> new ListaInts()).adicionar(chave);
+        }
+    }
+
+    private static void remover(Map<Integer, Nome> nomes, Map<Long, ListaInts> postings, Long id) {
+        if (id > Integer.MAX_VALUE) {
+            return;
+        }
+        int chave = id.intValue();
+        Nome anterior = nomes.remove(chave);
+        if (anterior == null) {
+            return;
+        }
+        for (long t : trigramasDistintos("  " + anterior.texto() + " ")) {
+            ListaInts lista = postings.get(t);
+            if (lista != null && lista.remover(chave) && lista.tamanho == 0) {
+                postings.remove(t);
+            }
+        }
+    }
+
+    static String normalizar(String texto) {
+        return texto.toLowerCase(Locale.ROOT);
+    }
+
+    // Três caracteres UTF-16 empacotados em 48 bits
+    private static long trigrama(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+    }
+
+    private static long[] trigramasDistintos(String texto) {
+        if (texto.length() < 3) {
+            return new long[0];
+        }
+        long[] trigramas = new long[texto.length() - 2];
+        for (int i = 0; i < trigramas.length; i++) {
+            trigramas[i] = trigrama(texto, i);
+        }
+        return Arrays.stream(trigramas).distinct().toArray();
+    }
+
+    // Lista de ids sem boxing; remoção troca o elemento pelo último (a ordem não importa)
+    private static final class ListaInts {
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        void adicionar(int valor) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        boolean remover(int valor) {
+            for (int i = 0; i < tamanho; i++) {
+                if (valores[i] == valor) {
+                    valores[i] = valores[--tamanho];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Contagem por id sem boxing, com endereçamento aberto; contagem 0 marca posição livre
+    private static final class ContagemInts {
+        private int[] chaves = new int[64];
+        private int[] contagens = new int[64];
+        private int tamanho;
+
+        // Soma 1 à contagem do id; um id ainda ausente só entra se admitir
+        void somar(int chave, boolean admitir) {
+            int mascara = chaves.length - 1;
+            int i = espalhar(chave) & mascara;
+            while (contagens[i] != 0) {
+                if (chaves[i] == chave) {
+                    contagens[i]++;
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            if (!admitir) {
+                return;
+            }
+            chaves[i] = chave;
+            contagens[i] = 1;
+            if (++tamanho * 2 > chaves.length) {
+                crescer();
+            }
+        }
+
+        private void crescer() {
+            int[] chavesAntigas = chaves;
+            int[] contagensAntigas = contagens;
+            chaves = new int[chavesAntigas.length * 2];
+            contagens = new int[chavesAntigas.length * 2];
+            int mascara = chaves.length - 1;
+            for (int j = 0; j < chavesAntigas.length; j++) {
+                if (contagensAntigas[j] != 0) {
+                    int i = espalhar(chavesAntigas[j]) & mascara;
+                    while (contagens[i] != 0) {
+                        i = (i + 1) & mascara;
+                    }
+                    chaves[i] = chavesAntigas[j];
+                    contagens[i] = contagensAntigas[j];
+                }
+            }
+        }
+
+        // Ids sequenciais ocupariam posições vizinhas; a multiplicação os espalha pela tabela
+        private static int espalhar(int chave) {
+            int h = chave * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class IdForaDoIntervaloException extends RuntimeException {
+        IdForaDoIntervaloException(Long id) {
+            super("id " + id + " não cabe em int");
+        }
+    }
+}
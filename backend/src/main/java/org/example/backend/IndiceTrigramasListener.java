@@ -0,0 +1,49 @@
+package org.example.backend;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Callbacks de ciclo de vida de Produto que mantêm o IndiceTrigramas atualizado.
+// As alterações só são aplicadas após o commit, para que um rollback não deixe o índice divergente.
+@Component
+public class IndiceTrigramasListener {
+
+    // Opcional: contextos parciais (ex.: @DataJpaTest) não registram o índice
+    private final ObjectProvider<IndiceTrigramas> indice;
+
+    public IndiceTrigramasListener(ObjectProvider<IndiceTrigramas> indice) {
+        this.indice = indice;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void aposSalvar(Produto produto) {
+        Long id = produto.getId();
+        String nome = produto.getNome();
+        aposCommit(() -> indice.ifAvailable(i -> i.indexar(id, nome)));
+    }
+
+    @PostRemove
+    public void aposRemover(Produto produto) {
+        Long id = produto.getId();
+        aposCommit(() -> indice.ifAvailable(i -> i.remover(id)));
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.backend;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import java.util.List;
 
 public class PaginatedResponse<T> {
@@ -11,6 +12,9 @@ public class PaginatedResponse<T> {
     private int totalPages;
     private boolean first;
     private boolean last;
+    // true quando totalElements/totalPages são estimativas; -1 indica que não foram calculados
+    // (nem estimados), e então totalAproximado é false
+    private boolean totalAproximado;
     
     public PaginatedResponse() {}
     
@@ -25,6 +29,43 @@ public class PaginatedResponse<T> {
         response.setLast(page.isLast());
         return response;
     }
+
+    // Sem contagem: totalElements e totalPages ficam em -1
+    public static <T> PaginatedResponse<T> of(Slice<T> slice) {
+        PaginatedResponse<T> response = new PaginatedResponse<>();
+        response.setContent(slice.getContent());
+        response.setPage(slice.getNumber());
+        response.setSize(slice.getSize());
+        response.setTotalElements(-1);
+        response.setTotalPages(-1);
+        response.setFirst(slice.isFirst());
+        response.setLast(slice.isLast());
+        return response;
+    }
+
+    // Total estimado; na última página com conteúdo o total é conhecido exatamente
+    public static <T> PaginatedResponse<T> of(Slice<T> slice, long totalEstimado) {
+        PaginatedResponse<T> response = of(slice);
+        boolean exato = totalExato(slice);
+        long total;
+        if (exato) {
+            total = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements();
+        } else if (slice.hasNext()) {
+            total = Math.max(totalEstimado, (long) (slice.getNumber() + 1) * slice.getSize() + 1);
+        } else {
+            // Página além do fim: só se sabe que o total não passa do início dela
+            total = Math.min(totalEstimado, (long) slice.getNumber() * slice.getSize());
+        }
+        response.setTotalElements(total);
+        response.setTotalPages(slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize()));
+        response.setTotalAproximado(!exato);
+        return response;
+    }
+
+    // Uma página vazia depois da primeira está além do fim e não diz quantos elementos existem
+    public static boolean totalExato(Slice<?> slice) {
+        return slice.isLast() && (slice.hasContent() || slice.isFirst());
+    }
     
     // Getters e setters
     public List<T> getContent() { return content; }
@@ -41,4 +82,6 @@ public class PaginatedResponse<T> {
     public void setFirst(boolean first) { this.first = first; }
     public boolean isLast() { return last; }
     public void setLast(boolean last) { this.last = last; }
+    public boolean isTotalAproximado() { return totalAproximado; }
+    public void setTotalAproximado(boolean totalAproximado) { this.totalAproximado = totalAproximado; }
 }
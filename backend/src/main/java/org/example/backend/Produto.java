@@ -2,15 +2,22 @@ package org.example.backend;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Check;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "produtos")
+// Também em V5__restricoes_preco_estoque.sql; valem para os UPDATEs em conjunto, que ignoram o Bean Validation
+@Check(name = "ck_produtos_preco_nao_negativo", constraints = "preco >= 0")
+@Check(name = "ck_produtos_estoque_nao_negativo", constraints = "estoque >= 0")
+@EntityListeners(IndiceTrigramasListener.class)
 public class Produto {
 
+    // Sequência com blocos de 50 ids (ver V3__sequencias_ids.sql): permite INSERTs em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produtos_seq")
+    @SequenceGenerator(name = "produtos_seq", sequenceName = "produtos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -0,0 +1,26 @@
+package org.example.backend;
+
+/**
+ * Publicado pelo ProdutoService a cada escrita em um produto; ouvintes reagem após o commit.
+ * {@code antes} e {@code depois} trazem os valores agregados pelo {@link EstatisticasCatalogo}:
+ * {@code antes} é null para produtos criados e {@code depois} é null para produtos removidos.
+ */
+public record ProdutoAlteradoEvent(Long produtoId, Estado antes, Estado depois) {
+
+    public record Estado(double preco, int estoque, Long categoriaId) {
+
+        // Só o id da categoria: não inicializa o proxy
+        public static Estado of(Produto produto) {
+            Categoria categoria = produto.getCategoria();
+            return new Estado(produto.getPreco(), produto.getEstoque(), categoria == null ? null : categoria.getId());
+        }
+    }
+
+    public static ProdutoAlteradoEvent gravado(Estado antes, Produto produto) {
+        return new ProdutoAlteradoEvent(produto.getId(), antes, Estado.of(produto));
+    }
+
+    public static ProdutoAlteradoEvent removido(Long produtoId, Estado antes) {
+        return new ProdutoAlteradoEvent(produtoId, antes, null);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.backend;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura de {@link ProdutoView} por id, na frente de {@code GET /produtos/{id}}.
+ * <p>
+ * Caffeine (despejo W-TinyLFU) com tamanho máximo configurável. Falhas concorrentes para o
+ * mesmo id aguardam uma única carga. Cada escrita no produto invalida a entrada após o
+ * commit; o TTL limita o tempo de vida de entradas alteradas fora do ProdutoService.
+ * Acertos, falhas e tempo de carga são publicados como métricas {@code cache.*{cache=produtos}}.
+ */
+@Component
+public class ProdutoCache {
+
+    private final LoadingCache<Long, ProdutoView> cache;
+
+    @Autowired
+    public ProdutoCache(ProdutoRepository produtoRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.produtos.cache.max-size:10000}") long maxSize,
+                        @Value("${app.produtos.cache.ttl-ms:600000}") long ttlMs) {
+        this(carregadorTransacional(produtoRepository, transactionManager), maxSize, ttlMs, meterRegistry);
+    }
+
+    ProdutoCache(Function<Long, ProdutoView> carregador, long maxSize, long ttlMs, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                // null (produto inexistente) não é guardado
+                .build(carregador::apply);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "produtos");
+    }
+
+    private static Function<Long, ProdutoView> carregadorTransacional(ProdutoRepository produtoRepository,
+                                                                      PlatformTransactionManager transactionManager) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return id -> transacao.execute(status ->
+                produtoRepository.findByIdComAssociacoes(id).map(ProdutoView::of).orElse(null));
+    }
+
+    /**
+     * @return a visão do produto, ou {@code null} se ele não existe
+     */
+    public ProdutoView buscar(Long id) {
+        return cache.get(id);
+    }
+
+    // A carga em andamento para o mesmo id termina antes da remoção, então um valor lido
+    // antes do commit não sobrevive à invalidação. Roda antes da troca de versão do VersaoCatalogo.
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        cache.invalidate(evento.produtoId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarEstoque(EstoqueAlteradoEvent evento) {
+        cache.invalidate(evento.produtoId());
+    }
+
+    // Atualizações em conjunto não informam os ids afetados
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        invalidarTudo();
+    }
+
+    public void invalidarTudo() {
+        cache.invalidateAll();
+    }
+}
@@ -1,26 +1,100 @@
 package org.example.backend;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/produtos")
 public class ProdutoController {
 
+    private static final int TAMANHO_LOTE_STREAM = 500;
+
+    // no-cache: o navegador guarda a resposta mas revalida com If-None-Match a cada uso
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
     private final ProdutoService produtoService;
+    private final ProdutoListagemService produtoListagemService;
+    private final ObjectMapper objectMapper;
+    private final VersaoCatalogo versaoCatalogo;
+    private final ImportacaoProdutosService importacaoProdutosService;
 
     @Autowired
-    public ProdutoController(ProdutoService produtoService) {
+    public ProdutoController(ProdutoService produtoService, ProdutoListagemService produtoListagemService,
+                             ObjectMapper objectMapper, VersaoCatalogo versaoCatalogo,
+                             ImportacaoProdutosService importacaoProdutosService) {
         this.produtoService = produtoService;
+        this.produtoListagemService = produtoListagemService;
+        this.objectMapper = objectMapper;
+        this.versaoCatalogo = versaoCatalogo;
+        this.importacaoProdutosService = importacaoProdutosService;
+    }
+
+    /**
+     * GET condicional: devolve 304 sem executar a consulta quando o If-None-Match do
+     * cliente confere com a versão atual; caso contrário, acrescenta a ETag à resposta.
+     * A versão é lida antes da consulta, então nunca é mais nova que os dados enviados.
+     * Sem ETag (desligadas em {@link VersaoCatalogo}), a consulta sempre executa.
+     */
+    private static <T> ResponseEntity<T> condicional(WebRequest request, String etag,
+                                                     Supplier<ResponseEntity<T>> consulta) {
+        if (naoModificado(request, etag)) {
+            return naoModificado(etag);
+        }
+        return comEtag(consulta.get(), etag);
+    }
+
+    // Também usados pelo ProdutoReativoController
+    static boolean naoModificado(WebRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (etag == null || ifNoneMatch == null) {
+            return false;
+        }
+        ETag atual = ETag.create(etag);
+        // "*" é ignorado: a versão existe mesmo para ids sem produto, e um 304 responderia
+        // por um recurso que a consulta devolveria como 404
+        return ETag.parse(ifNoneMatch).stream().anyMatch(e -> !e.isWildcard() && e.compare(atual, false));
+    }
+
+    static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDAR).build();
+    }
+
+    static <T> ResponseEntity<T> comEtag(ResponseEntity<T> resposta, String etag) {
+        if (etag == null || !resposta.getStatusCode().is2xxSuccessful()) {
+            return resposta;
+        }
+        return ResponseEntity.status(resposta.getStatusCode())
+                .headers(resposta.getHeaders())
+                .eTag(etag)
+                .cacheControl(REVALIDAR)
+                .body(resposta.getBody());
     }
 
     // Endpoint principal com suporte a filtragem, paginação e ordenação
@@ -30,12 +104,83 @@ public class ProdutoController {
             @RequestParam(required = false) Double precoMinimo,
             @RequestParam(required = false) Double precoMaximo,
             @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "exata") String contagem,
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+
+        return condicional(request, versaoCatalogo.etagListagem(), () -> listarProdutos(
+                nome, precoMinimo, precoMaximo, categoriaId, contagem, pageable));
+    }
+
+    private ResponseEntity<PaginatedResponse<Produto>> listarProdutos(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+            String contagem, Pageable pageable) {
+        // contagem=nenhuma dispensa o count(*); contagem=estimada devolve um total aproximado
+        switch (contagem) {
+            case "nenhuma" -> {
+                Slice<Produto> slice = produtoService.listarComFiltrosSemContagem(
+                        nome, precoMinimo, precoMaximo, categoriaId, pageable);
+                return ResponseEntity.ok(PaginatedResponse.of(slice));
+            }
+            case "estimada" -> {
+                Slice<Produto> slice = produtoService.listarComFiltrosSemContagem(
+                        nome, precoMinimo, precoMaximo, categoriaId, pageable);
+                long total = PaginatedResponse.totalExato(slice)
+                        ? 0
+                        : produtoService.estimarTotalComFiltros(nome, precoMinimo, precoMaximo, categoriaId);
+                return ResponseEntity.ok(PaginatedResponse.of(slice, total));
+            }
+            case "exata" -> {
+                Page<Produto> pageProdutos = produtoService.listarComFiltrosEPaginacao(
+                        nome, precoMinimo, precoMaximo, categoriaId, pageable);
+                return ResponseEntity.ok(PaginatedResponse.of(pageProdutos));
+            }
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+    }
+
+    // Modo cursor (keyset): ativado pelo parâmetro "after"; vazio na primeira página,
+    // depois o valor de nextCursor da resposta anterior. O parâmetro "page" é ignorado.
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPaginatedResponse<Produto>> listarProdutosPorCursor(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam String after,
             @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable) {
+        try {
+            Window<Produto> window = produtoService.listarComFiltrosECursor(
+                    nome, precoMinimo, precoMaximo, categoriaId, pageable.getSort(), pageable.getPageSize(), after);
+            return ResponseEntity.ok(CursorPaginatedResponse.of(window));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-        Page<Produto> pageProdutos = produtoService.listarComFiltrosEPaginacao(
+    // Listagem servida pelo modelo de leitura produto_listagem: mesmos filtros, sem joins
+    @GetMapping("/listagem")
+    public ResponseEntity<PaginatedResponse<ProdutoListagem>> listarProdutosResumidos(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId,
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable) {
+
+        Page<ProdutoListagem> page = produtoListagemService.listarComFiltros(
                 nome, precoMinimo, precoMaximo, categoriaId, pageable);
 
-        return ResponseEntity.ok(PaginatedResponse.of(pageProdutos));
+        return ResponseEntity.ok(PaginatedResponse.of(page));
+    }
+
+    // Busca por nome tolerante a erros de digitação (ex.: "iphnoe" encontra "iPhone 14")
+    @GetMapping("/busca")
+    public ResponseEntity<List<IndiceTrigramas.Sugestao>> buscarPorNomeAproximado(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(produtoService.sugerirPorNome(q, Math.min(limite, 100)));
     }
 
     // Endpoint para listar todos os produtos (sem paginação) - pode ficar lento com muitos registros
@@ -44,13 +189,49 @@ public class ProdutoController {
         return ResponseEntity.ok(produtoService.listarTodos());
     }
 
+    // Variante em fluxo de /todos: memória constante independentemente do tamanho do catálogo.
+    // formato=ndjson (padrão) escreve um produto por linha; formato=json escreve um único array.
+    @GetMapping("/todos/stream")
+    public ResponseEntity<StreamingResponseBody> listarTodosEmFluxo(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        boolean ndjson = !"json".equals(formato);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                produtoService.percorrerTodos(TAMANHO_LOTE_STREAM, produto -> {
+                    try {
+                        writer.writeValue(generator, produto);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Produto> buscarPorId(@PathVariable Long id) {
-        try {
-            return ResponseEntity.ok(produtoService.buscarPorId(id));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<ProdutoView> buscarPorId(@PathVariable Long id, WebRequest request) {
+        return condicional(request, versaoCatalogo.etagProduto(id), () -> {
+            try {
+                return ResponseEntity.ok(produtoService.buscarViewPorId(id));
+            } catch (Exception e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     @PostMapping
@@ -58,6 +239,52 @@ public class ProdutoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(produtoService.salvar(produto));
     }
 
+    // Importação em lote: array JSON ou NDJSON (um produto por linha), lido em fluxo.
+    // Categoria e fornecedores são referenciados pelo id; a resposta traz o resultado de cada linha.
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoImportacao> importarLote(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(importacaoProdutosService.importar(corpo));
+    }
+
+    // Atualizações em conjunto. Cada uma é um único UPDATE; preço ou estoque negativo
+    // viola uma restrição CHECK do banco e nada é alterado (400), assim como NaN ou infinito.
+
+    // Ex.: POST /produtos/precos/reajuste?percentual=10&categoriaId=1 (mesmos filtros da listagem)
+    @PostMapping("/precos/reajuste")
+    public ResponseEntity<ResultadoAtualizacao> reajustarPrecos(
+            @RequestParam double percentual,
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId) {
+        try {
+            return ResponseEntity.ok(new ResultadoAtualizacao(
+                    produtoService.reajustarPrecos(nome, precoMinimo, precoMaximo, categoriaId, percentual)));
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Tabela de preços: {"id": preço, ...}; ids inexistentes são ignorados
+    @PutMapping("/precos")
+    public ResponseEntity<ResultadoAtualizacao> aplicarTabelaPrecos(@RequestBody Map<Long, Double> precos) {
+        try {
+            return ResponseEntity.ok(new ResultadoAtualizacao(produtoService.aplicarTabelaPrecos(precos)));
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Estoques: {"id": quantidade, ...}; ids inexistentes são ignorados
+    @PutMapping("/estoques")
+    public ResponseEntity<ResultadoAtualizacao> definirEstoques(@RequestBody Map<Long, Integer> estoques) {
+        try {
+            return ResponseEntity.ok(new ResultadoAtualizacao(produtoService.definirEstoques(estoques)));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Produto> atualizar(@PathVariable Long id, @Valid @RequestBody Produto produto) {
         try {
@@ -116,21 +343,26 @@ public class ProdutoController {
     @GetMapping("/categoria/{categoriaId}")
     public ResponseEntity<PaginatedResponse<Produto>> buscarPorCategoria(
             @PathVariable Long categoriaId,
-            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable) {
-        try {
-            Page<Produto> page = produtoService.buscarPorCategoriaPaginado(categoriaId, pageable);
-            return ResponseEntity.ok(PaginatedResponse.of(page));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        return condicional(request, versaoCatalogo.etagListagem(), () -> {
+            try {
+                Page<Produto> page = produtoService.buscarPorCategoriaPaginado(categoriaId, pageable);
+                return ResponseEntity.ok(PaginatedResponse.of(page));
+            } catch (Exception e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     @GetMapping("/fornecedor/{fornecedorId}")
-    public ResponseEntity<List<Produto>> buscarPorFornecedor(@PathVariable Long fornecedorId) {
-        try {
-            return ResponseEntity.ok(produtoService.buscarPorFornecedor(fornecedorId));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<List<Produto>> buscarPorFornecedor(@PathVariable Long fornecedorId, WebRequest request) {
+        return condicional(request, versaoCatalogo.etagListagem(), () -> {
+            try {
+                return ResponseEntity.ok(produtoService.buscarPorFornecedor(fornecedorId));
+            } catch (Exception e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 }
@@ -0,0 +1,87 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cursor opaco da paginação por keyset de produtos.
+ * <p>
+ * Codifica em Base64 os valores da última linha retornada para cada campo de
+ * ordenação (sempre terminando pelo id), de modo que a próxima página seja
+ * buscada com {@code WHERE (campo, id) > (valor, ultimoId)} em vez de OFFSET.
+ */
+public final class ProdutoCursor {
+
+    // Campos aceitos na ordenação do modo cursor (todos NOT NULL)
+    public static final Set<String> CAMPOS_ORDENACAO = Set.of("id", "nome", "preco", "estoque");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ProdutoCursor() {}
+
+    public static void validarOrdenacao(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!CAMPOS_ORDENACAO.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Ordenação não suportada no modo cursor: " + order.getProperty());
+            }
+        }
+    }
+
+    public static String codificar(KeysetScrollPosition position) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(position.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao codificar cursor", e);
+        }
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente. Vazio ou nulo representa a primeira página.
+     *
+     * @throws IllegalArgumentException se o cursor for inválido ou não corresponder à ordenação
+     */
+    public static KeysetScrollPosition decodificar(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<?, ?> valores;
+        try {
+            valores = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), Map.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), converter(order.getProperty(), valores.get(order.getProperty())));
+        }
+        keys.put("id", converter("id", valores.get("id")));
+        if (keys.size() != valores.size()) {
+            throw new IllegalArgumentException("Cursor não corresponde à ordenação solicitada");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    // O JSON não preserva o tipo numérico; converte para o tipo do atributo da entidade
+    private static Object converter(String campo, Object valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Cursor não corresponde à ordenação solicitada");
+        }
+        return switch (campo) {
+            case "id" -> ((Number) valor).longValue();
+            case "preco" -> ((Number) valor).doubleValue();
+            case "estoque" -> ((Number) valor).intValue();
+            default -> valor.toString();
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * Modelo de leitura da listagem de produtos (CQRS).
+ * <p>
+ * Uma linha achatada por produto com tudo o que a listagem exibe, mantida por
+ * {@link ProdutoListagemService} na mesma transação das escritas de
+ * {@link ProdutoService}. Permite listar sem joins nem carregamento de associações.
+ */
+@Entity
+@Table(name = "produto_listagem", indexes = {
+        @Index(name = "idx_produto_listagem_nome", columnList = "nome, id"),
+        @Index(name = "idx_produto_listagem_preco", columnList = "preco, id"),
+        @Index(name = "idx_produto_listagem_categoria_nome", columnList = "categoria_id, nome, id")
+})
+public class ProdutoListagem {
+
+    // Mesmo id do produto
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String nome;
+
+    @Column(nullable = false)
+    private Double preco;
+
+    @Column(nullable = false)
+    private Integer estoque;
+
+    @Column(name = "categoria_id", nullable = false)
+    private Long categoriaId;
+
+    @Column(name = "categoria_nome", nullable = false, length = 50)
+    private String categoriaNome;
+
+    @Column(name = "quantidade_fornecedores", nullable = false)
+    private int quantidadeFornecedores;
+
+    // Nomes dos fornecedores em ordem alfabética, separados por ", "
+    @Column(name = "nomes_fornecedores", columnDefinition = "text")
+    private String nomesFornecedores;
+
+    @Column(length = 50)
+    private String dimensoes;
+
+    private Double peso;
+
+    @Column(length = 100)
+    private String material;
+
+    public ProdutoListagem() {}
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public Double getPreco() { return preco; }
+    public void setPreco(Double preco) { this.preco = preco; }
+    public Integer getEstoque() { return estoque; }
+    public void setEstoque(Integer estoque) { this.estoque = estoque; }
+    public Long getCategoriaId() { return categoriaId; }
+    public void setCategoriaId(Long categoriaId) { this.categoriaId = categoriaId; }
+    public String getCategoriaNome() { return categoriaNome; }
+    public void setCategoriaNome(String categoriaNome) { this.categoriaNome = categoriaNome; }
+    public int getQuantidadeFornecedores() { return quantidadeFornecedores; }
+    public void setQuantidadeFornecedores(int quantidadeFornecedores) { this.quantidadeFornecedores = quantidadeFornecedores; }
+    public String getNomesFornecedores() { return nomesFornecedores; }
+    public void setNomesFornecedores(String nomesFornecedores) { this.nomesFornecedores = nomesFornecedores; }
+    public String getDimensoes() { return dimensoes; }
+    public void setDimensoes(String dimensoes) { this.dimensoes = dimensoes; }
+    public Double getPeso() { return peso; }
+    public void setPeso(Double peso) { this.peso = peso; }
+    public String getMaterial() { return material; }
+    public void setMaterial(String material) { this.material = material; }
+}
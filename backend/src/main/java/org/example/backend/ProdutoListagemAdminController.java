@@ -0,0 +1,25 @@
+package org.example.backend;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Rotas em /admin/** exigem ROLE_ADMIN (ver SecurityConfig)
+@RestController
+@RequestMapping("/admin/produtos/listagem")
+public class ProdutoListagemAdminController {
+
+    private final ProdutoListagemService produtoListagemService;
+
+    public ProdutoListagemAdminController(ProdutoListagemService produtoListagemService) {
+        this.produtoListagemService = produtoListagemService;
+    }
+
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruir() {
+        return ResponseEntity.ok(Map.of("linhas", produtoListagemService.reconstruir()));
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProdutoListagemRepository extends JpaRepository<ProdutoListagem, Long>, JpaSpecificationExecutor<ProdutoListagem> {
+
+    @Modifying
+    @Query(value = "DELETE FROM produto_listagem", nativeQuery = true)
+    int apagarTudo();
+
+    // Reconstrói todas as linhas a partir das tabelas normalizadas numa única instrução
+    @Modifying
+    @Query(value = """
+            INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome,
+                                          quantidade_fornecedores, nomes_fornecedores, dimensoes, peso, material)
+            SELECT p.id, p.nome, p.preco, p.estoque, c.id, c.nome,
+                   COALESCE(f.quantidade, 0), f.nomes, d.dimensoes, d.peso, d.material
+            FROM produtos p
+            JOIN categorias c ON c.id = p.categoria_id
+            LEFT JOIN detalhes_produto d ON d.id = p.detalhe_produto_id
+            LEFT JOIN (
+                SELECT pf.produto_id, count(*) AS quantidade, string_agg(fo.nome, ', ' ORDER BY fo.nome) AS nomes
+                FROM produto_fornecedor pf
+                JOIN fornecedores fo ON fo.id = pf.fornecedor_id
+                GROUP BY pf.produto_id
+            ) f ON f.produto_id = p.id
+            """, nativeQuery = true)
+    int reconstruir();
+
+    // Acompanha as alterações de estoque feitas por reserva/liberação em produtos
+    @Modifying
+    @Query("UPDATE ProdutoListagem linha SET linha.estoque = linha.estoque + :delta WHERE linha.id = :id")
+    int somarEstoque(Long id, int delta);
+}
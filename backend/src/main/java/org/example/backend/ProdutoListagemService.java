@@ -0,0 +1,121 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ProdutoListagemService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProdutoListagemService.class);
+
+    private final ProdutoListagemRepository listagemRepository;
+    private final ProdutoRepository produtoRepository;
+    private final EntityManager entityManager;
+
+    public ProdutoListagemService(ProdutoListagemRepository listagemRepository, ProdutoRepository produtoRepository,
+                                  EntityManager entityManager) {
+        this.listagemRepository = listagemRepository;
+        this.produtoRepository = produtoRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProdutoListagem> listarComFiltros(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+        return listagemRepository.findAll(
+                ProdutoSpecifications.listagemComFiltros(nome, precoMinimo, precoMaximo, categoriaId), pageable);
+    }
+
+    // Chamado pelas escritas de ProdutoService: precisa participar da mesma transação
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sincronizar(Produto produto) {
+        listagemRepository.save(montarLinha(produto));
+    }
+
+    // Produto recém-criado: persist direto, sem o SELECT que o merge de save() faz para ids atribuídos
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void inserir(Produto produto) {
+        entityManager.persist(montarLinha(produto));
+    }
+
+    // Espelham as atualizações em conjunto de ProdutoService com o mesmo UPDATE sobre o modelo de leitura.
+    // Como a listagem reflete os produtos antes da alteração, os mesmos filtros selecionam as mesmas linhas.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reajustarPrecos(Specification<ProdutoListagem> spec, double fator) {
+        AtualizacaoEmMassa.reajustarPreco(entityManager, ProdutoListagem.class, spec, fator);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atribuirPrecos(Map<Long, Double> precos) {
+        AtualizacaoEmMassa.atribuirPorId(entityManager, "produto_listagem", "preco", "float8",
+                ProdutoListagem.class, precos, Double[]::new);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atribuirEstoques(Map<Long, Integer> estoques) {
+        AtualizacaoEmMassa.atribuirPorId(entityManager, "produto_listagem", "estoque", "int",
+                ProdutoListagem.class, estoques, Integer[]::new);
+    }
+
+    private static ProdutoListagem montarLinha(Produto produto) {
+        ProdutoListagem linha = new ProdutoListagem();
+        linha.setId(produto.getId());
+        linha.setNome(produto.getNome());
+        linha.setPreco(produto.getPreco());
+        linha.setEstoque(produto.getEstoque());
+        linha.setCategoriaId(produto.getCategoria().getId());
+        linha.setCategoriaNome(produto.getCategoria().getNome());
+        linha.setQuantidadeFornecedores(produto.getFornecedores().size());
+        linha.setNomesFornecedores(produto.getFornecedores().isEmpty() ? null : produto.getFornecedores().stream()
+                .map(Fornecedor::getNome)
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        DetalheProduto detalhe = produto.getDetalheProduto();
+        if (detalhe != null) {
+            linha.setDimensoes(detalhe.getDimensoes());
+            linha.setPeso(detalhe.getPeso());
+            linha.setMaterial(detalhe.getMaterial());
+        }
+        return linha;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remover(Long produtoId) {
+        listagemRepository.deleteById(produtoId);
+    }
+
+    /**
+     * Descarta o modelo de leitura e o recria a partir das tabelas normalizadas.
+     * Usado para recuperar de divergências (ex.: dados gravados fora de ProdutoService).
+     *
+     * @return quantidade de linhas recriadas
+     */
+    @Transactional
+    public int reconstruir() {
+        listagemRepository.apagarTudo();
+        int linhas = listagemRepository.reconstruir();
+        log.info("Modelo de leitura produto_listagem reconstruído com {} linhas", linhas);
+        return linhas;
+    }
+
+    // Cargas feitas direto pelo repositório (ex.: DbInitialization) não passam pelo serviço
+    @EventListener(value = ApplicationReadyEvent.class, condition = ExportacaoCatalogoRunner.FORA_DA_EXPORTACAO)
+    @Transactional
+    public void verificarNaInicializacao() {
+        if (listagemRepository.count() != produtoRepository.count()) {
+            reconstruir();
+        }
+    }
+}
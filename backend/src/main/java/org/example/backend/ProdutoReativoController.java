@@ -0,0 +1,92 @@
+package org.example.backend;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Leitura do catálogo pelo driver R2DBC: mesmos parâmetros e JSON de GET /produtos e
+// GET /produtos/{id}. A thread da requisição é liberada enquanto o banco responde, e estas
+// rotas não passam pelo controle de admissão, que é dimensionado pelo pool do Hikari.
+@RestController
+@RequestMapping("/reativo/produtos")
+public class ProdutoReativoController {
+
+    private final ProdutoReativoService produtoReativoService;
+    private final VersaoCatalogo versaoCatalogo;
+
+    public ProdutoReativoController(ProdutoReativoService produtoReativoService, VersaoCatalogo versaoCatalogo) {
+        this.produtoReativoService = produtoReativoService;
+        this.versaoCatalogo = versaoCatalogo;
+    }
+
+    // contagem=exata (padrão) ou nenhuma; a estimada depende do count(*) bloqueante do ContagemEstimada
+    @GetMapping
+    public Mono<ResponseEntity<PaginatedResponse<ProdutoView>>> listarProdutos(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "exata") String contagem,
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+
+        String etag = versaoCatalogo.etagListagem();
+        if (ProdutoController.naoModificado(request, etag)) {
+            return Mono.just(ProdutoController.naoModificado(etag));
+        }
+        try {
+            ProdutoReativoRepository.validarOrdenacao(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Mono<PaginatedResponse<ProdutoView>> pagina = switch (contagem) {
+            case "exata" -> produtoReativoService.listarComFiltrosEPaginacao(
+                    nome, precoMinimo, precoMaximo, categoriaId, pageable);
+            case "nenhuma" -> produtoReativoService.listarComFiltrosSemContagem(
+                    nome, precoMinimo, precoMaximo, categoriaId, pageable);
+            default -> null;
+        };
+        if (pagina == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return pagina.map(p -> ProdutoController.comEtag(ResponseEntity.ok(p), etag));
+    }
+
+    // Mesma página em NDJSON: um produto por linha, escritos a cada lote de fornecedores carregado
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<ProdutoView>> listarProdutosEmFluxo(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Double precoMinimo,
+            @RequestParam(required = false) Double precoMaximo,
+            @RequestParam(required = false) Long categoriaId,
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable) {
+        try {
+            ProdutoReativoRepository.validarOrdenacao(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(
+                produtoReativoService.percorrerComFiltros(nome, precoMinimo, precoMaximo, categoriaId, pageable));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProdutoView>> buscarPorId(@PathVariable Long id, WebRequest request) {
+        String etag = versaoCatalogo.etagProduto(id);
+        if (ProdutoController.naoModificado(request, etag)) {
+            return Mono.just(ProdutoController.naoModificado(etag));
+        }
+        return produtoReativoService.buscarPorId(id)
+                .map(produto -> ProdutoController.comEtag(ResponseEntity.ok(produto), etag))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
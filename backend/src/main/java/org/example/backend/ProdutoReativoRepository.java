@@ -0,0 +1,230 @@
+package org.example.backend;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas do catálogo pelo driver R2DBC do PostgreSQL, sem bloquear threads.
+ * <p>
+ * Os filtros são traduzidos para SQL com a mesma semântica de
+ * {@link ProdutoSpecifications#comFiltros}. Uma página custa duas consultas, como na
+ * listagem JPA: as linhas com categoria e detalhe num único join e, a cada lote de
+ * {@value #TAMANHO_LOTE} produtos, os fornecedores de todos eles de uma vez.
+ * As conexões vêm de um pool R2DBC próprio (app.catalogo-reativo), separado do Hikari.
+ */
+@Component
+public class ProdutoReativoRepository {
+
+    /**
+     * Filtros da listagem. {@code ids} são os candidatos resolvidos pelo {@link IndiceTrigramas};
+     * quando presentes substituem o filtro por nome.
+     */
+    public record Filtro(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, List<Long> ids) {}
+
+    static final int TAMANHO_LOTE = 100;
+
+    // Propriedades de Produto aceitas na ordenação e suas colunas
+    private static final Map<String, String> COLUNAS_ORDENACAO = Map.of(
+            "id", "p.id",
+            "nome", "p.nome",
+            "preco", "p.preco",
+            "estoque", "p.estoque",
+            "categoria.nome", "c.nome");
+
+    private static final String SELECT_PRODUTOS = """
+            SELECT p.id, p.nome, p.preco, p.estoque, c.id AS categoria_id, c.nome AS categoria_nome,
+                   d.id AS detalhe_id, d.dimensoes, d.peso, d.material
+            FROM produtos p
+            JOIN categorias c ON c.id = p.categoria_id
+            LEFT JOIN detalhes_produto d ON d.id = p.detalhe_produto_id""";
+
+    private static final String SELECT_FORNECEDORES = """
+            SELECT pf.produto_id, f.id, f.nome, f.telefone, f.email
+            FROM produto_fornecedor pf
+            JOIN fornecedores f ON f.id = pf.fornecedor_id
+            WHERE pf.produto_id = ANY($1)
+            ORDER BY pf.produto_id, f.id""";
+
+    private final ConnectionFactory connectionFactory;
+
+    @Autowired
+    public ProdutoReativoRepository(
+            @Value("${app.catalogo-reativo.url:}") String url,
+            @Value("${spring.datasource.url}") String urlJdbc,
+            @Value("${spring.datasource.username:}") String usuario,
+            @Value("${spring.datasource.password:}") String senha,
+            @Value("${app.catalogo-reativo.max-conexoes:20}") int maxConexoes) {
+        this(criarPool(url.isBlank() ? urlR2dbc(urlJdbc) : url, usuario, senha, maxConexoes));
+    }
+
+    ProdutoReativoRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    // Não é um bean ConnectionFactory: com um deles no contexto o Spring Boot deixaria de
+    // configurar o DataSource do JPA
+    private static ConnectionPool criarPool(String url, String usuario, String senha, int maxConexoes) {
+        ConnectionFactoryOptions.Builder opcoes = ConnectionFactoryOptions.parse(url).mutate();
+        if (!usuario.isEmpty()) {
+            opcoes.option(ConnectionFactoryOptions.USER, usuario);
+        }
+        if (!senha.isEmpty()) {
+            opcoes.option(ConnectionFactoryOptions.PASSWORD, senha);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opcoes.build()))
+                .initialSize(0)
+                .maxSize(maxConexoes)
+                .build());
+    }
+
+    // jdbc:postgresql://host:porta/banco?opcoes -> r2dbc:postgresql://host:porta/banco
+    static String urlR2dbc(String urlJdbc) {
+        String semOpcoes = urlJdbc.contains("?") ? urlJdbc.substring(0, urlJdbc.indexOf('?')) : urlJdbc;
+        return "r2dbc:" + semOpcoes.substring("jdbc:".length());
+    }
+
+    @PreDestroy
+    public void fechar() {
+        if (connectionFactory instanceof ConnectionPool pool) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException se a ordenação usa uma propriedade não suportada
+     */
+    public static void validarOrdenacao(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!COLUNAS_ORDENACAO.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Ordenação não suportada: " + order.getProperty());
+            }
+        }
+    }
+
+    public Mono<ProdutoView> buscarPorId(Long id) {
+        return comFornecedores(consultar(SELECT_PRODUTOS + " WHERE p.id = $1", List.of(id),
+                ProdutoReativoRepository::linhaProduto)).next();
+    }
+
+    // Produtos na ordem pedida; o id desempata a ordenação para que o offset seja estável
+    public Flux<ProdutoView> listar(Filtro filtro, Sort sort, long offset, int limite) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = SELECT_PRODUTOS + where(filtro, parametros) + orderBy(sort)
+                + " LIMIT $" + (parametros.size() + 1) + " OFFSET $" + (parametros.size() + 2);
+        parametros.add(limite);
+        parametros.add(offset);
+        return comFornecedores(consultar(sql, parametros, ProdutoReativoRepository::linhaProduto));
+    }
+
+    public Mono<Long> contar(Filtro filtro) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = "SELECT count(*) FROM produtos p" + where(filtro, parametros);
+        return consultar(sql, parametros, linha -> linha.get(0, Long.class)).single();
+    }
+
+    // Mesmos predicados de ProdutoSpecifications.comFiltros
+    private static String where(Filtro filtro, List<Object> parametros) {
+        List<String> condicoes = new ArrayList<>();
+        if (filtro.ids() != null) {
+            if (filtro.ids().isEmpty()) {
+                return " WHERE FALSE";
+            }
+            parametros.add(filtro.ids().toArray(new Long[0]));
+            condicoes.add("p.id = ANY($" + parametros.size() + ")");
+        } else if (filtro.nome() != null && !filtro.nome().isEmpty()) {
+            parametros.add(ProdutoSpecifications.padraoNome(filtro.nome()));
+            condicoes.add("lower(p.nome) LIKE $" + parametros.size());
+        }
+        if (filtro.precoMinimo() != null) {
+            parametros.add(filtro.precoMinimo());
+            condicoes.add("p.preco >= $" + parametros.size());
+        }
+        if (filtro.precoMaximo() != null) {
+            parametros.add(filtro.precoMaximo());
+            condicoes.add("p.preco <= $" + parametros.size());
+        }
+        if (filtro.categoriaId() != null) {
+            parametros.add(filtro.categoriaId());
+            condicoes.add("p.categoria_id = $" + parametros.size());
+        }
+        return condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes);
+    }
+
+    private static String orderBy(Sort sort) {
+        validarOrdenacao(sort);
+        List<String> colunas = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            colunas.add(COLUNAS_ORDENACAO.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor("id") == null) {
+            colunas.add("p.id ASC");
+        }
+        return " ORDER BY " + String.join(", ", colunas);
+    }
+
+    // Produto sem fornecedores; a lista é preenchida por comFornecedores
+    private static ProdutoView linhaProduto(Readable linha) {
+        Long detalheId = linha.get("detalhe_id", Long.class);
+        return new ProdutoView(
+                linha.get("id", Long.class),
+                linha.get("nome", String.class),
+                linha.get("preco", Double.class),
+                linha.get("estoque", Integer.class),
+                new ProdutoView.CategoriaView(linha.get("categoria_id", Long.class), linha.get("categoria_nome", String.class)),
+                detalheId == null ? null : new ProdutoView.DetalheView(detalheId,
+                        linha.get("dimensoes", String.class), linha.get("peso", Double.class),
+                        linha.get("material", String.class)),
+                List.of());
+    }
+
+    private record FornecedorDoProduto(Long produtoId, ProdutoView.FornecedorView fornecedor) {}
+
+    // Em lotes, preservando a ordem. Os fornecedores só são consultados depois que a consulta dos
+    // produtos termina e devolve a conexão: com ela aberta, cada requisição prenderia duas conexões
+    // e, com o pool esgotado, todas esperariam pela segunda. A página já é limitada pelo size.
+    private Flux<ProdutoView> comFornecedores(Flux<ProdutoView> produtos) {
+        return produtos.collectList().flatMapIterable(pagina -> pagina).buffer(TAMANHO_LOTE).concatMap(lote -> {
+            Long[] ids = lote.stream().map(ProdutoView::id).toArray(Long[]::new);
+            return consultar(SELECT_FORNECEDORES, List.of((Object) ids), linha -> new FornecedorDoProduto(
+                    linha.get("produto_id", Long.class),
+                    new ProdutoView.FornecedorView(linha.get("id", Long.class), linha.get("nome", String.class),
+                            linha.get("telefone", String.class), linha.get("email", String.class))))
+                    .collect(Collectors.groupingBy(FornecedorDoProduto::produtoId,
+                            Collectors.mapping(FornecedorDoProduto::fornecedor, Collectors.toList())))
+                    .flatMapIterable(fornecedores -> lote.stream()
+                            .map(p -> new ProdutoView(p.id(), p.nome(), p.preco(), p.estoque(), p.categoria(),
+                                    p.detalheProduto(), fornecedores.getOrDefault(p.id(), List.of())))
+                            .toList());
+        });
+    }
+
+    // Uma conexão do pool por consulta, devolvida ao término ou cancelamento do fluxo
+    private <T> Flux<T> consultar(String sql, List<Object> parametros, Function<Readable, T> mapeamento) {
+        return Flux.usingWhen(connectionFactory.create(), conexao -> {
+            Statement statement = conexao.createStatement(sql);
+            for (int i = 0; i < parametros.size(); i++) {
+                statement.bind(i, parametros.get(i));
+            }
+            return Flux.from(statement.execute()).flatMap(resultado -> resultado.map(mapeamento));
+        }, Connection::close);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.backend;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Leitura do catálogo sem bloqueio, servida pelo {@link ProdutoReativoRepository}.
+ * Resolve os filtros como {@link ProdutoService} (nome pelo {@link IndiceTrigramas} quando
+ * possível) e monta o mesmo {@link PaginatedResponse} da listagem JPA.
+ */
+@Service
+public class ProdutoReativoService {
+
+    private final ProdutoReativoRepository produtoReativoRepository;
+    private final IndiceTrigramas indiceTrigramas;
+
+    public ProdutoReativoService(ProdutoReativoRepository produtoReativoRepository, IndiceTrigramas indiceTrigramas) {
+        this.produtoReativoRepository = produtoReativoRepository;
+        this.indiceTrigramas = indiceTrigramas;
+    }
+
+    public Mono<ProdutoView> buscarPorId(Long id) {
+        return produtoReativoRepository.buscarPorId(id);
+    }
+
+    // Página e count(*) em paralelo, cada um numa conexão do pool
+    public Mono<PaginatedResponse<ProdutoView>> listarComFiltrosEPaginacao(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+
+        ProdutoReativoRepository.Filtro filtro = filtro(nome, precoMinimo, precoMaximo, categoriaId);
+        return Mono.zip(
+                        produtoReativoRepository.listar(filtro, pageable.getSort(), pageable.getOffset(),
+                                pageable.getPageSize()).collectList(),
+                        produtoReativoRepository.contar(filtro))
+                .map(t -> PaginatedResponse.of(new PageImpl<>(t.getT1(), pageable, t.getT2())));
+    }
+
+    // Sem count(*): busca size + 1 linhas apenas para saber se há próxima página
+    public Mono<PaginatedResponse<ProdutoView>> listarComFiltrosSemContagem(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+
+        return produtoReativoRepository.listar(filtro(nome, precoMinimo, precoMaximo, categoriaId),
+                        pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1)
+                .collectList()
+                .map(produtos -> {
+                    boolean haMais = produtos.size() > pageable.getPageSize();
+                    List<ProdutoView> pagina = haMais ? produtos.subList(0, pageable.getPageSize()) : produtos;
+                    return PaginatedResponse.of(new SliceImpl<>(pagina, pageable, haMais));
+                });
+    }
+
+    // Os produtos da página em lotes, sem montar a resposta inteira
+    public Flux<ProdutoView> percorrerComFiltros(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+
+        return produtoReativoRepository.listar(filtro(nome, precoMinimo, precoMaximo, categoriaId),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private ProdutoReativoRepository.Filtro filtro(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
+        List<Long> candidatos = indiceTrigramas.buscarContendo(nome);
+        return new ProdutoReativoRepository.Filtro(nome, precoMinimo, precoMaximo, categoriaId, candidatos);
+    }
+}
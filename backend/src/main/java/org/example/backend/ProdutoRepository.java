@@ -1,22 +1,29 @@
 package org.example.backend;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpecificationExecutor<Produto> {
+public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpecificationExecutor<Produto>, ProdutoRepositoryCustom {
     List<Produto> findByNomeContainingIgnoreCase(String nome);
     List<Produto> findByPrecoLessThanEqual(Double preco);
     List<Produto> findByEstoqueGreaterThan(Integer estoque);
 
     // Consultas relacionadas aos relacionamentos
     List<Produto> findByCategoria(Categoria categoria);
+    // Junção explícita: o MEMBER OF derivado vira uma subconsulta correlacionada avaliada para cada produto
+    @Query("SELECT produto FROM Produto produto JOIN produto.fornecedores fornecedor WHERE fornecedor = :fornecedor")
     List<Produto> findByFornecedoresContains(Fornecedor fornecedor);
 
     // Consultas com paginação
@@ -28,4 +35,54 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long>, JpaSpec
     // Consultas sem paginação
     @Query("SELECT DISTINCT produto FROM Produto produto " + "JOIN FETCH produto.categoria LEFT JOIN FETCH produto.fornecedores ")
     List<Produto> findAllWithDetalhes ();
+
+    // Produto com todas as associações em uma consulta, para montar o ProdutoView
+    @Query("SELECT produto FROM Produto produto JOIN FETCH produto.categoria " +
+            "LEFT JOIN FETCH produto.detalheProduto LEFT JOIN FETCH produto.fornecedores WHERE produto.id = :id")
+    Optional<Produto> findByIdComAssociacoes(Long id);
+
+    // Leitura em fluxo do catálogo inteiro: o driver busca 500 linhas por vez em vez de materializar tudo.
+    // Sem fetch da coleção fornecedores para não multiplicar linhas; ela é carregada em lotes.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT produto FROM Produto produto JOIN FETCH produto.categoria " +
+            "LEFT JOIN FETCH produto.detalheProduto ORDER BY produto.id")
+    Stream<Produto> streamAllWithDetalhes();
+
+    // Carga do índice de trigramas de nomes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT produto.id, produto.nome FROM Produto produto")
+    Stream<Object[]> streamIdsENomes();
+
+    // Carga do catálogo colunar, em ordem de id; a categoria sai da chave estrangeira, sem join
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT produto.id, produto.nome, produto.preco, produto.estoque, produto.categoria.id " +
+            "FROM Produto produto ORDER BY produto.id")
+    Stream<Object[]> streamColunas();
+
+    // Releitura de um produto pelo CatalogoColunar após o commit de uma escrita
+    @Query("SELECT produto.id, produto.nome, produto.preco, produto.estoque, produto.categoria.id " +
+            "FROM Produto produto WHERE produto.id = :id")
+    List<Object[]> findColunasById(Long id);
+
+    @Query("SELECT DISTINCT produto FROM Produto produto LEFT JOIN FETCH produto.fornecedores WHERE produto IN :produtos")
+    List<Produto> carregarFornecedores(List<Produto> produtos);
+
+    // Baixa condicional e atômica: nenhuma linha muda se o estoque não comporta a quantidade.
+    // Devolve [preco, estoque, categoria_id] já gravados, ou nenhuma linha; com o preço e a
+    // categoria na mesma instrução, EstatisticasCatalogo aplica a variação sem reconsultar.
+    @Query(value = "UPDATE produtos SET estoque = estoque - :quantidade WHERE id = :id AND estoque >= :quantidade " +
+            "RETURNING preco, estoque, categoria_id", nativeQuery = true)
+    List<Object[]> reservarEstoque(Long id, int quantidade);
+
+    // Soma relativa ao valor atual do banco; um resultado negativo viola a restrição CHECK.
+    // Mesmo retorno de reservarEstoque; nenhuma linha se o produto não existe.
+    @Query(value = "UPDATE produtos SET estoque = estoque + :delta WHERE id = :id " +
+            "RETURNING preco, estoque, categoria_id", nativeQuery = true)
+    List<Object[]> somarEstoque(Long id, int delta);
+
+    @Query("SELECT produto.estoque FROM Produto produto WHERE produto.id = :id")
+    Optional<Integer> findEstoqueById(Long id);
 }
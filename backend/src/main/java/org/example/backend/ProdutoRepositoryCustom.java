@@ -0,0 +1,41 @@
+package org.example.backend;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+// Consultas que o Spring Data não oferece a partir de uma Specification
+public interface ProdutoRepositoryCustom {
+
+    /**
+     * Página de produtos com categoria, detalhes e fornecedores já carregados.
+     * <p>
+     * Executa um número fixo de consultas independentemente do tamanho da página:
+     * ids da página, count(*) (quando necessário), produtos com associações to-one
+     * e fornecedores da página.
+     */
+    Page<Produto> findPageComAssociacoes(Specification<Produto> spec, Pageable pageable);
+
+    // Busca size + 1 ids para saber se existe próxima página, sem executar count(*)
+    Slice<Produto> findSlice(Specification<Produto> spec, Pageable pageable);
+
+    // Produtos com associações, na ordem dos ids (ids da página resolvidos pelo CatalogoColunar)
+    List<Produto> findAllComAssociacoes(List<Long> ids);
+
+    // Carrega em duas consultas as associações de produtos já obtidos por outro caminho
+    void inicializarAssociacoes(List<Produto> produtos);
+
+    // Estimativa de linhas da tabela produtos segundo as estatísticas do planejador (-1 se ausentes)
+    long estimarTotalProdutos();
+
+    // Atualizações em conjunto: um único UPDATE cada, retornando o número de linhas afetadas
+    int reajustarPrecos(Specification<Produto> spec, double fator);
+
+    int atribuirPrecos(Map<Long, Double> precos);
+
+    int atribuirEstoques(Map<Long, Integer> estoques);
+}
@@ -0,0 +1,144 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProdutoRepositoryCustomImpl implements ProdutoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Produto> findPageComAssociacoes(Specification<Produto> spec, Pageable pageable) {
+        List<Long> ids = buscarIds(spec, pageable, 0);
+        return PageableExecutionUtils.getPage(carregarPorIds(ids), pageable, () -> contar(spec));
+    }
+
+    @Override
+    public Slice<Produto> findSlice(Specification<Produto> spec, Pageable pageable) {
+        List<Long> ids = buscarIds(spec, pageable, 1);
+
+        boolean hasNext = pageable.isPaged() && ids.size() > pageable.getPageSize();
+        if (hasNext) {
+            ids = ids.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(carregarPorIds(ids), pageable, hasNext);
+    }
+
+    @Override
+    public List<Produto> findAllComAssociacoes(List<Long> ids) {
+        return carregarPorIds(ids);
+    }
+
+    @Override
+    public void inicializarAssociacoes(List<Produto> produtos) {
+        if (produtos.isEmpty()) {
+            return;
+        }
+        // Reconsultar as mesmas entidades inicializa os proxies já presentes no contexto de persistência
+        entityManager.createQuery("SELECT p FROM Produto p JOIN FETCH p.categoria " +
+                        "LEFT JOIN FETCH p.detalheProduto WHERE p IN :produtos", Produto.class)
+                .setParameter("produtos", produtos)
+                .getResultList();
+        buscarFornecedores(produtos);
+    }
+
+    @Override
+    public long estimarTotalProdutos() {
+        Number estimativa = (Number) entityManager
+                .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = 'produtos'::regclass")
+                .getSingleResult();
+        return estimativa != null ? estimativa.longValue() : -1;
+    }
+
+    @Override
+    public int reajustarPrecos(Specification<Produto> spec, double fator) {
+        return AtualizacaoEmMassa.reajustarPreco(entityManager, Produto.class, spec, fator);
+    }
+
+    @Override
+    public int atribuirPrecos(Map<Long, Double> precos) {
+        return AtualizacaoEmMassa.atribuirPorId(entityManager, "produtos", "preco", "float8",
+                Produto.class, precos, Double[]::new);
+    }
+
+    @Override
+    public int atribuirEstoques(Map<Long, Integer> estoques) {
+        return AtualizacaoEmMassa.atribuirPorId(entityManager, "produtos", "estoque", "int",
+                Produto.class, estoques, Integer[]::new);
+    }
+
+    // Apenas os ids da página, com filtros e ordenação aplicados no banco
+    private List<Long> buscarIds(Specification<Produto> spec, Pageable pageable, int linhasExtras) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Produto> root = query.from(Produto.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + linhasExtras);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private long contar(Specification<Produto> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Produto> root = query.from(Produto.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Produtos com categoria e detalhes num único SELECT e fornecedores num segundo, na ordem dos ids
+    private List<Produto> carregarPorIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Produto> produtos = entityManager.createQuery("SELECT p FROM Produto p JOIN FETCH p.categoria " +
+                        "LEFT JOIN FETCH p.detalheProduto WHERE p.id IN :ids", Produto.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        buscarFornecedores(produtos);
+
+        Map<Long, Produto> porId = new HashMap<>();
+        produtos.forEach(produto -> porId.put(produto.getId(), produto));
+        List<Produto> ordenados = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Produto produto = porId.get(id);
+            if (produto != null) {
+                ordenados.add(produto);
+            }
+        }
+        return ordenados;
+    }
+
+    private void buscarFornecedores(List<Produto> produtos) {
+        if (!produtos.isEmpty()) {
+            entityManager.createQuery("SELECT DISTINCT p FROM Produto p LEFT JOIN FETCH p.fornecedores " +
+                            "WHERE p IN :produtos", Produto.class)
+                    .setParameter("produtos", produtos)
+                    .getResultList();
+        }
+    }
+}
@@ -1,30 +1,67 @@
 package org.example.backend;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Um timer produto.service por método (tags class e method), registrado pelo TimedAspect
 @Service
+@Timed("produto.service")
 public class ProdutoService {
 
     private final ProdutoRepository produtoRepository;
     private final CategoriaRepository categoriaRepository;
     private final FornecedorRepository fornecedorRepository;
+    private final ContagemEstimada contagemEstimada;
+    private final ProdutoListagemService produtoListagemService;
+    private final IndiceTrigramas indiceTrigramas;
+    private final EntityManager entityManager;
+    private final ProdutoCache produtoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    // Opcional: só registrado com app.produtos.catalogo-colunar.habilitado
+    private final ObjectProvider<CatalogoColunar> catalogoColunar;
 
     @Autowired
     public ProdutoService(
             ProdutoRepository produtoRepository,
             CategoriaRepository categoriaRepository,
-            FornecedorRepository fornecedorRepository) {
+            FornecedorRepository fornecedorRepository,
+            ContagemEstimada contagemEstimada,
+            ProdutoListagemService produtoListagemService,
+            IndiceTrigramas indiceTrigramas,
+            EntityManager entityManager,
+            ProdutoCache produtoCache,
+            ApplicationEventPublisher eventPublisher,
+            ObjectProvider<CatalogoColunar> catalogoColunar) {
         this.produtoRepository = produtoRepository;
         this.categoriaRepository = categoriaRepository;
         this.fornecedorRepository = fornecedorRepository;
+        this.contagemEstimada = contagemEstimada;
+        this.produtoListagemService = produtoListagemService;
+        this.indiceTrigramas = indiceTrigramas;
+        this.entityManager = entityManager;
+        this.produtoCache = produtoCache;
+        this.eventPublisher = eventPublisher;
+        this.catalogoColunar = catalogoColunar;
     }
 
     // Métodos básicos CRUD para Produto
@@ -34,6 +71,36 @@ public class ProdutoService {
         return produtoRepository.findAllWithDetalhes();
     }
 
+    /**
+     * Percorre o catálogo inteiro com memória constante.
+     * <p>
+     * As linhas chegam do banco em fluxo; a cada lote os fornecedores são carregados
+     * numa única consulta, o lote é entregue ao consumidor e o contexto de persistência
+     * é limpo, de modo que nunca há mais que {@code tamanhoLote} produtos em memória.
+     */
+    @Transactional(readOnly = true)
+    public void percorrerTodos(int tamanhoLote, Consumer<Produto> consumidor) {
+        List<Produto> lote = new ArrayList<>(tamanhoLote);
+        try (Stream<Produto> produtos = produtoRepository.streamAllWithDetalhes()) {
+            produtos.forEach(produto -> {
+                lote.add(produto);
+                if (lote.size() == tamanhoLote) {
+                    entregarLote(lote, consumidor);
+                }
+            });
+        }
+        if (!lote.isEmpty()) {
+            entregarLote(lote, consumidor);
+        }
+    }
+
+    private void entregarLote(List<Produto> lote, Consumer<Produto> consumidor) {
+        produtoRepository.carregarFornecedores(lote);
+        lote.forEach(consumidor);
+        lote.clear();
+        entityManager.clear();
+    }
+
     @Transactional(readOnly = true)
     public Page<Produto> listarTodosPaginado(Pageable pageable) {
         return produtoRepository.findAll(pageable);
@@ -45,6 +112,15 @@ public class ProdutoService {
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com id: " + id));
     }
 
+    // Servido pelo ProdutoCache: só abre transação quando o produto não está em cache
+    public ProdutoView buscarViewPorId(Long id) {
+        ProdutoView view = produtoCache.buscar(id);
+        if (view == null) {
+            throw new EntityNotFoundException("Produto não encontrado com id: " + id);
+        }
+        return view;
+    }
+
     @Transactional
     public Produto salvar(Produto produto) {
         // Verificar se a categoria existe
@@ -53,13 +129,20 @@ public class ProdutoService {
                     .orElseThrow(() -> new EntityNotFoundException("Categoria não encontrada"));
             produto.setCategoria(categoria);
         }
-
-        return produtoRepository.save(produto);
+        // Com id informado o save() sobrescreve um produto existente: os valores anteriores saem das estatísticas
+        ProdutoAlteradoEvent.Estado antes = produto.getId() == null ? null
+                : produtoRepository.findById(produto.getId()).map(ProdutoAlteradoEvent.Estado::of).orElse(null);
+
+        Produto salvo = produtoRepository.save(produto);
+        produtoListagemService.sincronizar(salvo);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(antes, salvo));
+        return salvo;
     }
 
     @Transactional
     public Produto atualizar(Long id, Produto produtoAtualizado) {
         Produto produtoExistente = buscarPorId(id);
+        ProdutoAlteradoEvent.Estado antes = ProdutoAlteradoEvent.Estado.of(produtoExistente);
 
         produtoExistente.setNome(produtoAtualizado.getNome());
         produtoExistente.setPreco(produtoAtualizado.getPreco());
@@ -83,13 +166,66 @@ public class ProdutoService {
             }
         }
 
-        return produtoRepository.save(produtoExistente);
+        Produto salvo = produtoRepository.save(produtoExistente);
+        produtoListagemService.sincronizar(salvo);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(antes, salvo));
+        return salvo;
     }
 
     @Transactional
     public void deletar(Long id) {
-        buscarPorId(id); // Verifica se existe
+        ProdutoAlteradoEvent.Estado antes = ProdutoAlteradoEvent.Estado.of(buscarPorId(id)); // Verifica se existe
         produtoRepository.deleteById(id);
+        produtoListagemService.remover(id);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.removido(id, antes));
+    }
+
+    // Atualizações em conjunto: um UPDATE em produtos e o mesmo em produto_listagem,
+    // na mesma transação. Valores negativos violam as restrições CHECK e desfazem tudo;
+    // NaN e infinito passariam por elas (no PostgreSQL, 'NaN' >= 0) e são recusados antes.
+
+    // Reajuste percentual (ex.: 10 = +10%, -5 = -5%) dos produtos que atendem aos filtros
+    @Transactional
+    public int reajustarPrecos(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+                               double percentual) {
+        double fator = 1 + percentual / 100;
+        if (!Double.isFinite(fator)) {
+            throw new IllegalArgumentException("Percentual inválido: " + percentual);
+        }
+        int atualizados = produtoRepository.reajustarPrecos(
+                ProdutoSpecifications.comFiltros(nome, precoMinimo, precoMaximo, categoriaId), fator);
+        produtoListagemService.reajustarPrecos(
+                ProdutoSpecifications.listagemComFiltros(nome, precoMinimo, precoMaximo, categoriaId), fator);
+        publicarAlteracaoEmMassa(atualizados);
+        return atualizados;
+    }
+
+    // Tabela de preços: id do produto -> novo preço
+    @Transactional
+    public int aplicarTabelaPrecos(Map<Long, Double> precos) {
+        precos.forEach((id, preco) -> {
+            if (preco != null && !Double.isFinite(preco)) {
+                throw new IllegalArgumentException("Preço inválido para o produto " + id + ": " + preco);
+            }
+        });
+        int atualizados = produtoRepository.atribuirPrecos(precos);
+        produtoListagemService.atribuirPrecos(precos);
+        publicarAlteracaoEmMassa(atualizados);
+        return atualizados;
+    }
+
+    @Transactional
+    public int definirEstoques(Map<Long, Integer> estoques) {
+        int atualizados = produtoRepository.atribuirEstoques(estoques);
+        produtoListagemService.atribuirEstoques(estoques);
+        publicarAlteracaoEmMassa(atualizados);
+        return atualizados;
+    }
+
+    private void publicarAlteracaoEmMassa(int atualizados) {
+        if (atualizados > 0) {
+            eventPublisher.publishEvent(new CatalogoAlteradoEvent(atualizados));
+        }
     }
 
     // Métodos para gerenciar relacionamentos
@@ -101,7 +237,10 @@ public class ProdutoService {
                 .orElseThrow(() -> new EntityNotFoundException("Fornecedor não encontrado"));
 
         produto.adicionarFornecedor(fornecedor);
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        produtoListagemService.sincronizar(salvo);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(ProdutoAlteradoEvent.Estado.of(salvo), salvo));
+        return salvo;
     }
 
     @Transactional
@@ -111,7 +250,10 @@ public class ProdutoService {
                 .orElseThrow(() -> new EntityNotFoundException("Fornecedor não encontrado"));
 
         produto.removerFornecedor(fornecedor);
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        produtoListagemService.sincronizar(salvo);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(ProdutoAlteradoEvent.Estado.of(salvo), salvo));
+        return salvo;
     }
 
     @Transactional
@@ -126,7 +268,10 @@ public class ProdutoService {
             produto.getDetalheProduto().setMaterial(detalhes.getMaterial());
         }
 
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        produtoListagemService.sincronizar(salvo);
+        eventPublisher.publishEvent(ProdutoAlteradoEvent.gravado(ProdutoAlteradoEvent.Estado.of(salvo), salvo));
+        return salvo;
     }
 
     // Métodos para buscar produtos relacionados
@@ -140,9 +285,11 @@ public class ProdutoService {
 
     @Transactional(readOnly = true)
     public Page<Produto> buscarPorCategoriaPaginado(Long categoriaId, Pageable pageable) {
-        Categoria categoria = categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new EntityNotFoundException("Categoria não encontrada"));
-        return produtoRepository.findByCategoria(categoria, pageable);
+        if (!categoriaRepository.existsById(categoriaId)) {
+            throw new EntityNotFoundException("Categoria não encontrada");
+        }
+        return produtoRepository.findPageComAssociacoes(
+                ProdutoSpecifications.comFiltros(null, null, null, categoriaId), pageable);
     }
 
     @Transactional(readOnly = true)
@@ -158,10 +305,72 @@ public class ProdutoService {
     public Page<Produto> listarComFiltrosEPaginacao(
             String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
 
-        Specification<Produto> spec = ProdutoSpecifications.comFiltros(
-                nome, precoMinimo, precoMaximo, categoriaId
-        );
+        // Com o catálogo colunar, filtros, ordenação e total saem da memória; o banco só carrega a página
+        CatalogoColunar catalogo = catalogoColunar.getIfAvailable();
+        CatalogoColunar.Pagina pagina = catalogo == null
+                ? null
+                : catalogo.buscar(nome, precoMinimo, precoMaximo, categoriaId, pageable);
+        if (pagina != null) {
+            return new PageImpl<>(produtoRepository.findAllComAssociacoes(pagina.ids()), pageable, pagina.total());
+        }
+
+        Specification<Produto> spec = especificacaoComFiltros(nome, precoMinimo, precoMaximo, categoriaId);
+
+        // Ids da página e associações em lotes: número de consultas fixo, sem N+1
+        return produtoRepository.findPageComAssociacoes(spec, pageable);
+    }
+
+    // Sem count(*): busca size + 1 linhas apenas para saber se há próxima página
+    @Transactional(readOnly = true)
+    public Slice<Produto> listarComFiltrosSemContagem(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId, Pageable pageable) {
+
+        Specification<Produto> spec = especificacaoComFiltros(nome, precoMinimo, precoMaximo, categoriaId);
+
+        return produtoRepository.findSlice(spec, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long estimarTotalComFiltros(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
+        return contagemEstimada.estimar(nome, precoMinimo, precoMaximo, categoriaId,
+                () -> produtoRepository.count(especificacaoComFiltros(
+                        nome, precoMinimo, precoMaximo, categoriaId)));
+    }
+
+    // Busca tolerante a erros de digitação, servida apenas pelo índice em memória
+    public List<IndiceTrigramas.Sugestao> sugerirPorNome(String termo, int limite) {
+        return indiceTrigramas.sugerir(termo, limite);
+    }
+
+    // O filtro por nome é resolvido pelo índice de trigramas quando possível;
+    // os demais predicados rodam no banco sobre os ids candidatos
+    private Specification<Produto> especificacaoComFiltros(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
+        List<Long> candidatos = indiceTrigramas.buscarContendo(nome);
+        if (candidatos == null) {
+            return ProdutoSpecifications.comFiltros(nome, precoMinimo, precoMaximo, categoriaId);
+        }
+        return ProdutoSpecifications.comFiltros(null, precoMinimo, precoMaximo, categoriaId)
+                .and(ProdutoSpecifications.idEm(candidatos));
+    }
 
-        return produtoRepository.findAll(spec, pageable);
+    // Paginação por keyset: o custo de cada página independe da sua posição na listagem
+    @Transactional(readOnly = true)
+    public Window<Produto> listarComFiltrosECursor(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+            Sort sort, int tamanho, String cursor) {
+
+        ProdutoCursor.validarOrdenacao(sort);
+        KeysetScrollPosition posicao = ProdutoCursor.decodificar(cursor, sort);
+
+        Specification<Produto> spec = especificacaoComFiltros(nome, precoMinimo, precoMaximo, categoriaId);
+
+        // O Spring Data acrescenta o id à ordenação para torná-la única
+        Window<Produto> window = produtoRepository.findBy(spec, query -> query
+                .sortBy(sort)
+                .limit(tamanho)
+                .scroll(posicao));
+        produtoRepository.inicializarAssociacoes(window.getContent());
+        return window;
     }
 }
@@ -1,22 +1,59 @@
 package org.example.backend;
 
 import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 public class ProdutoSpecifications {
 
     public static Specification<Produto> comFiltros(
             String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
 
+        return filtros(nome, precoMinimo, precoMaximo, categoriaId,
+                root -> root.get("categoria").get("id"));
+    }
+
+    // Restringe aos ids resolvidos pelo IndiceTrigramas; lista vazia não retorna nada
+    public static Specification<Produto> idEm(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> ids.isEmpty()
+                ? criteriaBuilder.disjunction()
+                : root.get("id").in(ids);
+    }
+
+    // Mesmos filtros sobre o modelo de leitura, onde a categoria é uma coluna da própria linha
+    public static Specification<ProdutoListagem> listagemComFiltros(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId) {
+
+        return filtros(nome, precoMinimo, precoMaximo, categoriaId,
+                root -> root.get("categoriaId"));
+    }
+
+    // Padrão do LIKE sobre lower(nome); também usado pelo catálogo reativo (ProdutoReativoRepository)
+    public static String padraoNome(String nome) {
+        return "%" + nome.toLowerCase() + "%";
+    }
+
+    // Os índices em memória comparam substrings literais e não atendem termos com curingas do LIKE
+    static boolean temCuringa(String nome) {
+        return nome.indexOf('%') >= 0 || nome.indexOf('_') >= 0;
+    }
+
+    private static <T> Specification<T> filtros(
+            String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+            Function<Root<T>, Path<Object>> categoriaIdPath) {
+
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (nome != null && !nome.isEmpty()) {
                 predicates.add(criteriaBuilder.like(
                     criteriaBuilder.lower(root.get("nome")), 
-                    "%" + nome.toLowerCase() + "%"
+                    padraoNome(nome)
                 ));
             }
 
@@ -34,7 +71,7 @@ public class ProdutoSpecifications {
 
             if (categoriaId != null) {
                 predicates.add(criteriaBuilder.equal(
-                    root.get("categoria").get("id"), categoriaId
+                    categoriaIdPath.apply(root), categoriaId
                 ));
             }
 
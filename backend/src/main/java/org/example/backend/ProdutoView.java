@@ -0,0 +1,43 @@
+package org.example.backend;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cópia imutável de um produto com suas associações, guardada no {@link ProdutoCache}.
+ * Serializa para o mesmo JSON que a entidade {@link Produto}.
+ */
+public record ProdutoView(
+        Long id,
+        String nome,
+        Double preco,
+        Integer estoque,
+        CategoriaView categoria,
+        DetalheView detalheProduto,
+        List<FornecedorView> fornecedores) implements Serializable {
+
+    public record CategoriaView(Long id, String nome) implements Serializable {}
+
+    public record DetalheView(Long id, String dimensoes, Double peso, String material) implements Serializable {}
+
+    public record FornecedorView(Long id, String nome, String telefone, String email) implements Serializable {}
+
+    // As associações precisam estar inicializadas (ver ProdutoRepository.findByIdComAssociacoes)
+    public static ProdutoView of(Produto produto) {
+        Categoria categoria = produto.getCategoria();
+        DetalheProduto detalhe = produto.getDetalheProduto();
+        return new ProdutoView(
+                produto.getId(),
+                produto.getNome(),
+                produto.getPreco(),
+                produto.getEstoque(),
+                categoria == null ? null : new CategoriaView(categoria.getId(), categoria.getNome()),
+                detalhe == null ? null
+                        : new DetalheView(detalhe.getId(), detalhe.getDimensoes(), detalhe.getPeso(), detalhe.getMaterial()),
+                produto.getFornecedores().stream()
+                        .sorted(Comparator.comparing(Fornecedor::getId))
+                        .map(f -> new FornecedorView(f.getId(), f.getNome(), f.getTelefone(), f.getEmail()))
+                        .toList());
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.backend;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Modo de alta contenção das reservas de estoque, para os poucos produtos listados em
+ * {@code app.produtos.estoque.alta-contencao.ids}.
+ * <p>
+ * A instância arrenda estoque do banco em lotes de {@code lote} unidades, com a mesma baixa
+ * condicional do caminho padrão ({@code estoque = estoque - lote WHERE estoque >= lote}), e
+ * só vende em memória as unidades já arrendadas: cada reserva é um compare-and-set numa faixa
+ * escolhida pela thread, sem transação nem bloqueio de linha. Como as unidades saem do banco
+ * antes de serem vendidas, várias instâncias com os mesmos ids nunca vendem além do estoque,
+ * e nada fica para ser gravado depois da resposta.
+ * <p>
+ * As sobras voltam ao banco ({@code estoque = estoque + sobra}, que não viola a restrição CHECK)
+ * a cada {@code intervalo-devolucao-ms}, no encerramento e quando outra escrita no produto (PUT,
+ * atualização em conjunto) fecha o contador. Enquanto arrendadas, elas não aparecem no estoque
+ * do banco; uma queda do processo perde no máximo as sobras arrendadas, sem vender a mais.
+ * Liberações somam direto ao estoque do banco.
+ */
+@Component
+public class ReservaEstoqueEmMemoria {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaEstoqueEmMemoria.class);
+
+    // Estoque do produto no banco; cada chamada é uma transação própria
+    interface Banco {
+        // Baixa condicional: false se o estoque não comporta a quantidade ou o produto não existe
+        boolean arrendar(long id, int quantidade);
+
+        // false se o produto não existe
+        boolean devolver(long id, int quantidade);
+
+        boolean existe(long id);
+    }
+
+    private final Set<Long> ids;
+    private final int faixas;
+    private final int lote;
+    private final Banco banco;
+    private final ConcurrentHashMap<Long, Contador> contadores = new ConcurrentHashMap<>();
+    // Sobras de contadores fechados cuja devolução falhou; a próxima rodada tenta de novo
+    private final ConcurrentHashMap<Long, Integer> aDevolver = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReservaEstoqueEmMemoria(ProdutoRepository produtoRepository,
+                                   ProdutoListagemRepository listagemRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${app.produtos.estoque.alta-contencao.ids:}") Set<Long> ids,
+                                   @Value("${app.produtos.estoque.alta-contencao.faixas:16}") int faixas,
+                                   @Value("${app.produtos.estoque.alta-contencao.lote:100}") int lote) {
+        this(ids, faixas, lote, banco(produtoRepository, listagemRepository, transactionManager, eventPublisher));
+    }
+
+    ReservaEstoqueEmMemoria(Set<Long> ids, int faixas, int lote, Banco banco) {
+        this.ids = Set.copyOf(ids);
+        this.faixas = faixas;
+        this.lote = lote;
+        this.banco = banco;
+    }
+
+    // Transação própria: a devolução também ocorre dentro do afterCommit de outra transação
+    private static Banco banco(ProdutoRepository produtoRepository,
+                               ProdutoListagemRepository listagemRepository,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        return new Banco() {
+            @Override
+            public boolean arrendar(long id, int quantidade) {
+                return Boolean.TRUE.equals(transacao.execute(status -> {
+                    List<Object[]> gravada = produtoRepository.reservarEstoque(id, quantidade);
+                    if (gravada.isEmpty()) {
+                        return false;
+                    }
+                    listagemRepository.somarEstoque(id, -quantidade);
+                    eventPublisher.publishEvent(EstoqueAlteradoEvent.gravado(id, gravada.get(0), -quantidade));
+                    return true;
+                }));
+            }
+
+            @Override
+            public boolean devolver(long id, int quantidade) {
+                return Boolean.TRUE.equals(transacao.execute(status -> {
+                    List<Object[]> gravada = produtoRepository.somarEstoque(id, quantidade);
+                    if (gravada.isEmpty()) {
+                        return false;
+                    }
+                    listagemRepository.somarEstoque(id, quantidade);
+                    eventPublisher.publishEvent(EstoqueAlteradoEvent.gravado(id, gravada.get(0), quantidade));
+                    return true;
+                }));
+            }
+
+            @Override
+            public boolean existe(long id) {
+                return Boolean.TRUE.equals(leitura.execute(status -> produtoRepository.existsById(id)));
+            }
+        };
+    }
+
+    public boolean atende(Long id) {
+        return ids.contains(id);
+    }
+
+    public EstoqueService.Resultado reservar(Long id, int quantidade) {
+        while (true) {
+            Contador contador = contadores.computeIfAbsent(id, Contador::new);
+            switch (contador.retirar(quantidade)) {
+                case EFETUADA:
+                    return EstoqueService.Resultado.EFETUADO;
+                case INSUFICIENTE:
+                    EstoqueService.Resultado resultado = contador.arrendarERetirar(quantidade);
+                    if (resultado != null) {
+                        return resultado;
+                    }
+                    break;
+                case FECHADO:
+                    // Espera o fechamento terminar de devolver e remover o contador
+                    contador.lock.lock();
+                    contador.lock.unlock();
+                    break;
+            }
+        }
+    }
+
+    public EstoqueService.Resultado liberar(Long id, int quantidade) {
+        return banco.devolver(id, quantidade) ? EstoqueService.Resultado.EFETUADO : EstoqueService.Resultado.NAO_ENCONTRADO;
+    }
+
+    @Scheduled(fixedDelayString = "${app.produtos.estoque.alta-contencao.intervalo-devolucao-ms:1000}")
+    public void devolverSobras() {
+        for (Contador contador : contadores.values()) {
+            contador.lock.lock();
+            try {
+                if (!contador.fechado) {
+                    int sobra = contador.recolher(false);
+                    try {
+                        devolver(contador.id, sobra);
+                    } catch (RuntimeException e) {
+                        // As unidades continuam arrendadas e à venda nesta instância
+                        contador.somar(0, sobra);
+                        log.warn("Falha ao devolver {} unidades do produto {}: {}", sobra, contador.id, e.getMessage());
+                    }
+                }
+            } finally {
+                contador.lock.unlock();
+            }
+        }
+        aDevolver.forEach((id, sobra) -> {
+            try {
+                devolver(id, sobra);
+                aDevolver.remove(id, sobra);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao devolver {} unidades do produto {}: {}", sobra, id, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        contadores.values().forEach(this::fechar);
+        devolverSobras();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        Contador contador = contadores.get(evento.produtoId());
+        if (contador != null) {
+            fechar(contador);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        contadores.values().forEach(this::fechar);
+    }
+
+    // Estoque arrendado ainda disponível em memória, ou -1 se o produto não está carregado
+    int disponivelEmMemoria(Long id) {
+        Contador contador = contadores.get(id);
+        return contador == null ? -1 : contador.totalDisponivel();
+    }
+
+    private void devolver(long id, int sobra) {
+        if (sobra > 0 && !banco.devolver(id, sobra)) {
+            log.info("Produto {} removido: {} unidades arrendadas descartadas", id, sobra);
+        }
+    }
+
+    // O estoque gravado pela outra escrita não conta as unidades arrendadas: a sobra volta somada a ele
+    private void fechar(Contador contador) {
+        contador.lock.lock();
+        try {
+            if (contador.fechado) {
+                return;
+            }
+            contador.fechado = true;
+            int sobra = contador.recolher(true);
+            contadores.remove(contador.id, contador);
+            try {
+                devolver(contador.id, sobra);
+            } catch (RuntimeException e) {
+                aDevolver.merge(contador.id, sobra, Integer::sum);
+                log.warn("Falha ao devolver {} unidades do produto {}: {}", sobra, contador.id, e.getMessage());
+            }
+        } finally {
+            contador.lock.unlock();
+        }
+    }
+
+    private enum Tentativa { EFETUADA, INSUFICIENTE, FECHADO }
+
+    /**
+     * Unidades arrendadas de um produto, em faixas. As reservas só tocam as faixas (CAS); o
+     * lock serializa os caminhos raros: consolidação, arrendamento, devolução e fechamento.
+     */
+    private final class Contador {
+
+        private static final int FECHADA = -1;
+
+        final long id;
+        final AtomicIntegerArray valores;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean fechado;
+
+        Contador(long id) {
+            this.id = id;
+            this.valores = new AtomicIntegerArray(faixas);
+        }
+
+        Tentativa retirar(int quantidade) {
+            int inicio = faixaDaThread();
+            for (int i = 0; i < faixas; i++) {
+                Tentativa tentativa = retirar((inicio + i) % faixas, quantidade);
+                if (tentativa != Tentativa.INSUFICIENTE) {
+                    return tentativa;
+                }
+            }
+            return Tentativa.INSUFICIENTE;
+        }
+
+        private Tentativa retirar(int faixa, int quantidade) {
+            while (true) {
+                int disponivel = valores.get(faixa);
+                if (disponivel == FECHADA) {
+                    return Tentativa.FECHADO;
+                }
+                if (disponivel < quantidade) {
+                    return Tentativa.INSUFICIENTE;
+                }
+                if (valores.compareAndSet(faixa, disponivel, disponivel - quantidade)) {
+                    return Tentativa.EFETUADA;
+                }
+            }
+        }
+
+        /**
+         * Junta as faixas e, se ainda faltar, arrenda do banco um lote (ou só o que falta, quando o
+         * banco não comporta o lote) e retira a quantidade.
+         *
+         * @return o resultado da reserva, ou {@code null} se o contador foi fechado
+         */
+        EstoqueService.Resultado arrendarERetirar(int quantidade) {
+            lock.lock();
+            try {
+                while (true) {
+                    if (fechado) {
+                        return null;
+                    }
+                    consolidar();
+                    // As demais threads continuam retirando da faixa 0 sem o lock: o CAS decide
+                    if (retirar(0, quantidade) == Tentativa.EFETUADA) {
+                        return EstoqueService.Resultado.EFETUADO;
+                    }
+                    int falta = quantidade - Math.max(valores.get(0), 0);
+                    int pedido = Math.max(lote, falta);
+                    int arrendado = 0;
+                    if (banco.arrendar(id, pedido)) {
+                        arrendado = pedido;
+                    } else if (falta < pedido && banco.arrendar(id, falta)) {
+                        arrendado = falta;
+                    }
+                    if (arrendado == 0) {
+                        return banco.existe(id) ? EstoqueService.Resultado.INSUFICIENTE
+                                : EstoqueService.Resultado.NAO_ENCONTRADO;
+                    }
+                    somar(0, arrendado);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Com o lock: move o disponível das demais faixas para a faixa 0
+        private void consolidar() {
+            for (int i = 1; i < faixas; i++) {
+                int disponivel = valores.getAndSet(i, 0);
+                if (disponivel > 0) {
+                    somar(0, disponivel);
+                }
+            }
+        }
+
+        // Com o lock: zera as faixas (ou as marca como fechadas) e devolve o total que havia
+        int recolher(boolean fechar) {
+            int total = 0;
+            for (int i = 0; i < faixas; i++) {
+                total += Math.max(valores.getAndSet(i, fechar ? FECHADA : 0), 0);
+            }
+            return total;
+        }
+
+        int totalDisponivel() {
+            int total = 0;
+            for (int i = 0; i < faixas; i++) {
+                total += Math.max(valores.get(i), 0);
+            }
+            return total;
+        }
+
+        void somar(int faixa, int quantidade) {
+            valores.addAndGet(faixa, quantidade);
+        }
+
+        private int faixaDaThread() {
+            return (int) Math.floorMod(Thread.currentThread().threadId(), (long) faixas);
+        }
+    }
+}
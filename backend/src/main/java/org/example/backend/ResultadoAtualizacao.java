@@ -0,0 +1,4 @@
+package org.example.backend;
+
+// Resposta das atualizações em conjunto: quantos produtos o UPDATE alterou
+public record ResultadoAtualizacao(int atualizados) {}
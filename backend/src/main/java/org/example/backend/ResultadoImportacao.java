@@ -0,0 +1,35 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Relatório de POST /produtos/lote: totais e o resultado de cada linha da entrada, em ordem.
+ */
+public record ResultadoImportacao(int total, int criados, int rejeitados, List<Linha> linhas) {
+
+    public enum Status { CRIADO, INVALIDO, ERRO }
+
+    // linha: posição do item na entrada, a partir de 1; id só em CRIADO, erros só nos demais
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Linha(int linha, Status status, Long id, List<String> erros) {
+
+        static Linha criada(int linha, Long id) {
+            return new Linha(linha, Status.CRIADO, id, null);
+        }
+
+        static Linha invalida(int linha, List<String> erros) {
+            return new Linha(linha, Status.INVALIDO, null, erros);
+        }
+
+        static Linha erro(int linha, String erro) {
+            return new Linha(linha, Status.ERRO, null, List.of(erro));
+        }
+    }
+
+    static ResultadoImportacao of(List<Linha> linhas) {
+        int criados = (int) linhas.stream().filter(l -> l.status() == Status.CRIADO).count();
+        return new ResultadoImportacao(linhas.size(), criados, linhas.size() - criados, linhas);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versões de modificação do catálogo usadas como ETag nas consultas de produtos.
+ * <p>
+ * Há uma versão para a tabela inteira (listagens) e uma por faixa de ids (produto
+ * individual). Ambas são incrementadas após o commit de cada {@link ProdutoAlteradoEvent}
+ * ou {@link EstoqueAlteradoEvent}, e o controller compara o If-None-Match com elas antes de executar qualquer consulta.
+ * Ids que caem na mesma faixa compartilham a versão: uma colisão só custa um 200 a mais.
+ * Um {@link CatalogoAlteradoEvent} (atualização em conjunto) muda a versão geral, que
+ * compõe as ETags de todos os produtos de uma vez.
+ * O prefixo da instância evita que contadores zerados num reinício reaproveitem ETags antigas.
+ * <p>
+ * As versões só enxergam as escritas feitas neste processo. Com mais de uma instância, uma
+ * escrita atendida por outra não mudaria a ETag daqui e o cliente receberia 304 com dados
+ * antigos; por isso as ETags vêm desligadas ({@code app.produtos.etag.habilitado=false},
+ * consultas sempre 200) e só devem ser ligadas quando há uma única instância escrevendo.
+ */
+@Component
+public class VersaoCatalogo {
+
+    private static final int FAIXAS = 4096;
+
+    private final boolean habilitado;
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versaoTabela = new AtomicLong();
+    private final AtomicLong versaoGeral = new AtomicLong();
+    private final AtomicLongArray versaoPorFaixa = new AtomicLongArray(FAIXAS);
+
+    @Autowired
+    public VersaoCatalogo(@Value("${app.produtos.etag.habilitado:false}") boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    VersaoCatalogo() {
+        this(true);
+    }
+
+    // Último ouvinte: os caches (ProdutoCache) já foram invalidados quando a versão muda,
+    // então uma ETag nova nunca acompanha dados antigos
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        incrementar(evento.produtoId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoAlterarEstoque(EstoqueAlteradoEvent evento) {
+        incrementar(evento.produtoId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        versaoGeral.incrementAndGet();
+        versaoTabela.incrementAndGet();
+    }
+
+    /**
+     * @return a ETag das listagens, ou {@code null} se as ETags estão desligadas
+     */
+    public String etagListagem() {
+        if (!habilitado) {
+            return null;
+        }
+        return "\"" + instancia + "-" + versaoTabela.get() + "\"";
+    }
+
+    /**
+     * @return a ETag do produto, ou {@code null} se as ETags estão desligadas
+     */
+    public String etagProduto(Long id) {
+        if (!habilitado) {
+            return null;
+        }
+        return "\"" + instancia + "-" + versaoGeral.get() + "p" + versaoPorFaixa.get(faixa(id)) + "\"";
+    }
+
+    private void incrementar(Long produtoId) {
+        versaoPorFaixa.incrementAndGet(faixa(produtoId));
+        versaoTabela.incrementAndGet();
+    }
+
+    private static int faixa(Long id) {
+        return (int) Math.floorMod(id, (long) FAIXAS);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controle de admissão das requisições, dimensionado pelo pool de conexões.
+ * <p>
+ * Com threads virtuais o Tomcat aceita milhares de requisições simultâneas; sem este filtro
+ * todas disputariam as poucas conexões do Hikari e expirariam no connectionTimeout. Aqui só
+ * {@code totalPermissoes} requisições executam ao mesmo tempo; as demais esperam num semáforo
+ * justo (FIFO), o que custa apenas uma thread virtual estacionada. Acima de
+ * {@code filaMaxima} na espera, ou após {@code esperaMaxima}, a resposta é 503 com Retry-After.
+ * <p>
+ * Respostas assíncronas ({@code StreamingResponseBody} de /produtos/todos/stream e da exportação)
+ * continuam usando a conexão depois que {@code doFilter} retorna: a permissão só é devolvida
+ * quando a requisição assíncrona termina, com sucesso, erro ou tempo esgotado.
+ * <p>
+ * Métricas: {@code admissao.fila}, {@code admissao.em.uso}, {@code admissao.espera} e
+ * {@code admissao.rejeitadas{motivo}}.
+ */
+public class ControleAdmissaoFilter extends OncePerRequestFilter {
+
+    private final Semaphore permissoes;
+    private final int filaMaxima;
+    private final long esperaMaximaNanos;
+    private final AtomicInteger fila = new AtomicInteger();
+    private final Timer espera;
+    private final Counter rejeitadasFilaCheia;
+    private final Counter rejeitadasTempoEsgotado;
+
+    public ControleAdmissaoFilter(int totalPermissoes, int filaMaxima, Duration esperaMaxima, MeterRegistry registry) {
+        this.permissoes = new Semaphore(totalPermissoes, true);
+        this.filaMaxima = filaMaxima;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+
+        Gauge.builder("admissao.fila", fila, AtomicInteger::get)
+                .description("Requisições aguardando admissão")
+                .register(registry);
+        Gauge.builder("admissao.em.uso", this.permissoes, s -> totalPermissoes - s.availablePermits())
+                .description("Requisições admitidas em execução")
+                .register(registry);
+        espera = Timer.builder("admissao.espera")
+                .description("Tempo até a admissão da requisição")
+                .register(registry);
+        rejeitadasFilaCheia = rejeitadas("fila-cheia", registry);
+        rejeitadasTempoEsgotado = rejeitadas("tempo-esgotado", registry);
+    }
+
+    private static Counter rejeitadas(String motivo, MeterRegistry registry) {
+        return Counter.builder("admissao.rejeitadas")
+                .description("Requisições recusadas com 503 pelo controle de admissão")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!admitir()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        boolean assincrona = false;
+        try {
+            chain.doFilter(request, response);
+            assincrona = request.isAsyncStarted();
+        } finally {
+            if (assincrona) {
+                request.getAsyncContext().addListener(new LiberarAoTerminar());
+            } else {
+                permissoes.release();
+            }
+        }
+    }
+
+    // O despacho assíncrono não passa de novo pelo filtro (shouldNotFilterAsyncDispatch)
+    private final class LiberarAoTerminar implements AsyncListener {
+
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar();
+        }
+
+        // Um novo startAsync na mesma requisição descarta os ouvintes registrados
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                permissoes.release();
+            }
+        }
+    }
+
+    private boolean admitir() {
+        if (permissoes.tryAcquire()) {
+            espera.record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        if (fila.incrementAndGet() > filaMaxima) {
+            fila.decrementAndGet();
+            rejeitadasFilaCheia.increment();
+            return false;
+        }
+        long inicio = System.nanoTime();
+        boolean admitida;
+        try {
+            admitida = permissoes.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        } finally {
+            fila.decrementAndGet();
+        }
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!admitida) {
+            rejeitadasTempoEsgotado.increment();
+        }
+        return admitida;
+    }
+
+    // Health checks e métricas não entram na fila: precisam responder justamente sob carga.
+    // O catálogo reativo (/reativo) não usa o Hikari; seu limite é o pool R2DBC.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith(request.getContextPath() + "/actuator")
+                || uri.startsWith(request.getContextPath() + "/reativo/");
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Execução das requisições em threads virtuais (spring.threads.virtual.enabled) com
+// admissão limitada pelo pool de conexões
+@Configuration
+public class ExecucaoConfig {
+
+    // Depois da cadeia do Spring Security: requisições sem token válido não ocupam a fila
+    @Bean
+    @ConditionalOnProperty(name = "app.admissao.habilitada", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ControleAdmissaoFilter> controleAdmissao(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.admissao.permissoes:0}") int permissoes,
+            @Value("${app.admissao.fila-maxima:10000}") int filaMaxima,
+            @Value("${app.admissao.espera-maxima-ms:10000}") long esperaMaximaMs) {
+        // 0 = uma permissão por conexão do pool
+        int total = permissoes > 0 ? permissoes
+                : dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        FilterRegistrationBean<ControleAdmissaoFilter> registro = new FilterRegistrationBean<>(
+                new ControleAdmissaoFilter(total, filaMaxima, Duration.ofMillis(esperaMaximaMs), meterRegistry));
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registro;
+    }
+
+    // Eventos JFR jdk.VirtualThreadPinned (acima de 20 ms) como o timer jvm.threads.virtual.pinned
+    @Bean(destroyMethod = "close")
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics();
+    }
+}
@@ -1,11 +1,18 @@
 package org.example.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.example.backend.security.ExecutorPasswordEncoder;
 import org.example.backend.security.JwtRequestFilter;
+import org.example.backend.security.OptionalRehashAuthenticationProvider;
+import org.example.backend.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -27,9 +34,26 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
+    // BCrypt no pool dedicado do ExecutorPasswordEncoder. Hashes com custo abaixo de
+    // app.auth.bcrypt.custo são refeitos no próximo login bem-sucedido (UserDetailsServiceImpl.updatePassword)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${app.auth.bcrypt.custo:10}") int custo,
+                                           @Value("${app.auth.bcrypt.threads:0}") int threads,
+                                           @Value("${app.auth.bcrypt.fila-maxima:64}") int filaMaxima) {
+        // 0 = metade dos processadores: o restante fica livre para as demais requisições
+        int total = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ExecutorPasswordEncoder(new BCryptPasswordEncoder(custo), total, filaMaxima, meterRegistry);
+    }
+
+    // Sem vaga no pool do BCrypt para refazer o hash, o login segue com o hash antigo
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsServiceImpl userDetailsService,
+                                                            PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new OptionalRehashAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return provider;
     }
 
     @Bean
@@ -45,7 +69,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/login", "/auth/register", "/error").permitAll() // Endpoints públicos
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Permitir requisições OPTIONS (pre-flight)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Respostas em fluxo: a requisição original já foi autorizada
                         .requestMatchers("/admin/**").hasRole("ADMIN") // Exemplo de restrição por papel
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated() // Todas as outras requisições exigem autenticação
                 )
                 .sessionManagement(session -> session
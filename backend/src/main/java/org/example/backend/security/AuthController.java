@@ -1,10 +1,15 @@
 package org.example.backend.security;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 
@@ -32,38 +38,67 @@ record RegisterRequest(String username, String password, Set<String> roles) {
 @RequestMapping("/auth")
 public class AuthController {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private UserDetailsServiceImpl userDetailsService; // Para carregar UserDetails após autenticação
-
-    @Autowired
-    private UserRepository userRepository; // Para registro
+    private final AuthenticationManager authenticationManager;
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository; // Para registro
+    private final PasswordEncoder passwordEncoder; // Para registro
+
+    // auth.login{resultado=sucesso|falha|recusado}: latência do login separada do restante da API
+    private final Timer loginSucesso;
+    private final Timer loginFalha;
+    private final Timer loginRecusado;
+
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                          UserRepository userRepository, PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry) {
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.loginSucesso = login("sucesso", meterRegistry);
+        this.loginFalha = login("falha", meterRegistry);
+        this.loginRecusado = login("recusado", meterRegistry);
+    }
 
-    @Autowired
-    private PasswordEncoder passwordEncoder; // Para registro
+    private static Timer login(String resultado, MeterRegistry registry) {
+        return Timer.builder("auth.login")
+                .description("Login: consulta do usuário, verificação da senha e geração do token")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
 
+    // Uma única consulta ao usuário: o principal autenticado já é o User carregado pelo
+    // DaoAuthenticationProvider. O BCrypt roda no pool do ExecutorPasswordEncoder; com a fila
+    // cheia a resposta é 503 com Retry-After.
     @PostMapping("/login")
     public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthRequest authRequest) throws Exception {
+        long inicio = System.nanoTime();
+        final Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(authRequest.username(), authRequest.password())
             );
-        } catch (BadCredentialsException e) {
-            throw new Exception("Incorrect username or password", e);
+        } catch (PasswordHashingRejectedException e) {
+            loginRecusado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", e.getMessage()));
+        } catch (AuthenticationException e) {
+            loginFalha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (e instanceof BadCredentialsException) {
+                throw new Exception("Incorrect username or password", e);
+            }
+            throw e;
         }
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.username());
+        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         final String token = jwtUtil.generateToken(userDetails);
 
         java.util.List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(java.util.stream.Collectors.toList());
 
+        loginSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
         return ResponseEntity.ok(new AuthResponse(token, userDetails.getUsername(), roles));
     }
 
@@ -84,9 +119,17 @@ public class AuthController {
         }
 
 
+        String hash;
+        try {
+            hash = passwordEncoder.encode(registerRequest.password());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", e.getMessage()));
+        }
         User user = new User(
                 registerRequest.username(),
-                passwordEncoder.encode(registerRequest.password()),
+                hash,
                 roles
         );
         userRepository.save(user);
@@ -0,0 +1,104 @@
+package org.example.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa o hash de senhas (BCrypt) num pool próprio de threads de plataforma.
+ * <p>
+ * O BCrypt consome dezenas de milissegundos de CPU por chamada; rodando nas threads das
+ * requisições, uma rajada de logins ocuparia os núcleos que atendem o catálogo. Aqui no máximo
+ * {@code threads} hashes rodam ao mesmo tempo e até {@code filaMaxima} aguardam numa fila;
+ * acima disso a chamada falha imediatamente com {@link PasswordHashingRejectedException}
+ * (503 no login). A thread da requisição, virtual, só estaciona enquanto espera o resultado.
+ * <p>
+ * Métricas: {@code auth.senha.fila}, {@code auth.senha.espera}, {@code auth.senha.hash} e
+ * {@code auth.senha.rejeitadas}.
+ */
+public class ExecutorPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer espera;
+    private final Timer hash;
+    private final Counter rejeitadas;
+
+    public ExecutorPasswordEncoder(PasswordEncoder delegate, int threads, int filaMaxima, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, filaMaxima)),
+                Thread.ofPlatform().name("senha-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.senha.fila", executor, e -> e.getQueue().size())
+                .description("Hashes de senha aguardando uma thread do pool")
+                .register(registry);
+        espera = Timer.builder("auth.senha.espera")
+                .description("Tempo na fila do pool de hash de senhas")
+                .register(registry);
+        hash = Timer.builder("auth.senha.hash")
+                .description("Cálculo ou verificação de um hash de senha")
+                .register(registry);
+        rejeitadas = Counter.builder("auth.senha.rejeitadas")
+                .description("Hashes de senha recusados com a fila cheia")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Só lê o custo do hash armazenado: não precisa do pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        long enfileirado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                espera.record(System.nanoTime() - enfileirado, TimeUnit.NANOSECONDS);
+                return hash.recordCallable(tarefa);
+            });
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw new PasswordHashingRejectedException();
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o hash da senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
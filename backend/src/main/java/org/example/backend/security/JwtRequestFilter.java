@@ -5,7 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -24,27 +26,39 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // "claims": principal montado a partir do token, sem consulta ao banco
+    // "database": carrega o usuário do banco a cada requisição
+    @Value("${app.jwt.auth-mode:claims}")
+    private String authMode;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
         String jwt = null;
+        VerifiedToken verified = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Um único parse: assinatura inválida ou token expirado lançam exceção
+                verified = jwtUtil.verify(jwt);
             } catch (Exception e) {
                 logger.warn("JWT Token extraction error: " + e.getMessage());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (verified != null && verified.username() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = "database".equalsIgnoreCase(authMode)
+                    ? loadFromDatabase(verified)
+                    : loadFromClaims(verified);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
@@ -54,4 +68,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails loadFromClaims(VerifiedToken verified) {
+        String username = verified.username();
+        if (!tokenRevocationRegistry.isAccepted(username, verified.tokenVersion())) {
+            logger.debug("JWT Token revoked for user: " + username);
+            return null;
+        }
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("")
+                .authorities(verified.roles().stream().map(SimpleGrantedAuthority::new).toList())
+                .build();
+    }
+
+    private UserDetails loadFromDatabase(VerifiedToken verified) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(verified.username());
+        return userDetails.isEnabled() ? userDetails : null;
+    }
+}
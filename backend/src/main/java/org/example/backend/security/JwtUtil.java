@@ -1,10 +1,14 @@
 package org.example.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,29 +18,94 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private final long expirationMs;
 
-    @Value("${app.jwt.expiration.ms}")
-    private long expirationMs;
+    // Chave e parser são imutáveis e thread-safe: construídos uma única vez
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache cache;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(this.secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // jwt.verificacao{resultado=cache|verificado|invalido} e jwt.geracao
+    private final Timer verificacaoCache;
+    private final Timer verificacaoCompleta;
+    private final Timer verificacaoInvalida;
+    private final Timer geracao;
+
+    @Autowired
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+                   @Value("${app.jwt.expiration.ms}") long expirationMs,
+                   @Value("${app.jwt.cache.max-size:10000}") int cacheMaxSize,
+                   MeterRegistry meterRegistry) {
+        this.expirationMs = expirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.cache = new VerifiedTokenCache(cacheMaxSize);
+        this.verificacaoCache = verificacao("cache", meterRegistry);
+        this.verificacaoCompleta = verificacao("verificado", meterRegistry);
+        this.verificacaoInvalida = verificacao("invalido", meterRegistry);
+        this.geracao = Timer.builder("jwt.geracao")
+                .description("Geração e assinatura de tokens")
+                .register(meterRegistry);
+    }
+
+    public JwtUtil(String secret, long expirationMs, int cacheMaxSize) {
+        this(secret, expirationMs, cacheMaxSize, Metrics.globalRegistry);
+    }
+
+    private static Timer verificacao(String resultado, MeterRegistry registry) {
+        return Timer.builder("jwt.verificacao")
+                .description("Verificação de tokens: acerto no cache, parse com assinatura ou rejeição")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Verifica assinatura e expiração com um único parse.
+     * Tokens já verificados e ainda válidos são servidos do cache sem nova verificação.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido ou estiver expirado
+     */
+    public VerifiedToken verify(String token) {
+        long inicio = System.nanoTime();
+        if (!cache.isEnabled()) {
+            return verificar(token, inicio);
+        }
+        long now = System.currentTimeMillis();
+        String key = VerifiedTokenCache.digest(token);
+        VerifiedToken verified = cache.get(key, now);
+        if (verified != null) {
+            verificacaoCache.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return verified;
+        }
+        verified = verificar(token, inicio);
+        cache.put(key, verified, now);
+        return verified;
+    }
+
+    private VerifiedToken verificar(String token, long inicio) {
+        try {
+            VerifiedToken verified = VerifiedToken.of(extractAllClaims(token));
+            verificacaoCompleta.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return verified;
+        } catch (RuntimeException e) {
+            verificacaoInvalida.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -45,15 +114,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -62,7 +123,10 @@ public class JwtUtil {
         claims.put("roles", userDetails.getAuthorities().stream()
                             .map(GrantedAuthority::getAuthority)
                             .collect(Collectors.toList()));
-        return createToken(claims, userDetails.getUsername());
+        if (userDetails instanceof User user) {
+            claims.put("ver", user.getTokenVersion());
+        }
+        return geracao.record(() -> createToken(claims, userDetails.getUsername()));
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -71,12 +135,13 @@ public class JwtUtil {
                 .claim("sub", subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // verify() já rejeita tokens expirados
+        final VerifiedToken verified = verify(token);
+        return verified.username().equals(userDetails.getUsername());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package org.example.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link DaoAuthenticationProvider} em que a atualização do hash após o login é opcional.
+ * <p>
+ * Com um hash de custo abaixo de app.auth.bcrypt.custo, o provider refaz o hash da senha
+ * já verificada. Se o pool do {@link ExecutorPasswordEncoder} recusar esse segundo BCrypt, o
+ * login segue válido com o hash antigo, que será refeito num próximo login, em vez de virar 503.
+ */
+public class OptionalRehashAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(OptionalRehashAuthenticationProvider.class);
+
+    public OptionalRehashAuthenticationProvider(PasswordEncoder passwordEncoder) {
+        super(passwordEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (PasswordHashingRejectedException e) {
+            log.info("Hash da senha de {} mantido no custo anterior: pool de hash de senhas cheio", user.getUsername());
+            // O mesmo token do provider sem a atualização (não há GrantedAuthoritiesMapper configurado)
+            UsernamePasswordAuthenticationToken resultado = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            resultado.setDetails(authentication.getDetails());
+            return resultado;
+        }
+    }
+}
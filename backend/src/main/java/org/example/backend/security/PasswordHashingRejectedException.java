@@ -0,0 +1,9 @@
+package org.example.backend.security;
+
+// Fila do pool de hash de senhas cheia (ver ExecutorPasswordEncoder); o login responde 503
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many concurrent logins, try again later");
+    }
+}
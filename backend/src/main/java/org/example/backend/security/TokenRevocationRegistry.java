@@ -0,0 +1,94 @@
+package org.example.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estado dos usuários em memória usado na autenticação baseada em claims.
+ * <p>
+ * Guarda, para cada usuário existente, se está habilitado e a versão mínima de
+ * token aceita. O estado é recarregado periodicamente do banco, de modo que a
+ * validação de uma requisição não executa nenhuma consulta. Um usuário ausente
+ * (criado depois da última atualização, ou removido) é consultado uma vez e o
+ * resultado fica até a próxima atualização; se não existe mais, seus tokens são
+ * recusados.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    public record RevocationEntry(String username, boolean enabled, int tokenVersion) {
+    }
+
+    private final UserRepository userRepository;
+
+    // Substituído por inteiro a cada atualização; entre elas só recebe os usuários ausentes consultados
+    private volatile Map<String, RevocationEntry> entries = new ConcurrentHashMap<>();
+
+    public TokenRevocationRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            Map<String, RevocationEntry> atualizadas = new ConcurrentHashMap<>();
+            for (RevocationEntry entry : userRepository.findRevocationEntries()) {
+                atualizadas.put(entry.username(), entry);
+            }
+            entries = atualizadas;
+        } catch (Exception e) {
+            // Mantém o último estado conhecido até a próxima tentativa
+            log.warn("Falha ao atualizar a lista de revogação de tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica se um token emitido para o usuário com a versão informada ainda é aceito.
+     */
+    public boolean isAccepted(String username, int tokenVersion) {
+        Map<String, RevocationEntry> atuais = entries;
+        RevocationEntry entry = atuais.get(username);
+        if (entry == null) {
+            // Consulta fora do mapa: computeIfAbsent seguraria o lock do bin durante a query.
+            // Requisições simultâneas do mesmo usuário ausente podem consultar mais de uma vez;
+            // fica a primeira resposta gravada.
+            try {
+                RevocationEntry carregada = carregar(username);
+                entry = atuais.putIfAbsent(username, carregada);
+                if (entry == null) {
+                    entry = carregada;
+                }
+            } catch (Exception e) {
+                // Sem como confirmar que o usuário existe, o token é recusado
+                log.warn("Falha ao consultar o usuário {} para validar o token: {}", username, e.getMessage());
+                return false;
+            }
+        }
+        return entry.enabled() && tokenVersion >= entry.tokenVersion();
+    }
+
+    // Usuário removido: nenhuma versão de token é aceita
+    private RevocationEntry carregar(String username) {
+        return userRepository.findRevocationEntry(username)
+                .orElseGet(() -> new RevocationEntry(username, false, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Revoga todos os tokens emitidos até agora para o usuário.
+     * A instância local passa a rejeitá-los imediatamente; as demais, após a próxima atualização.
+     */
+    public void revokeAll(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        refresh();
+    }
+}
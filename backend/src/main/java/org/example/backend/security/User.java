@@ -25,6 +25,10 @@ public class User implements UserDetails {
 
     private boolean enabled = true;
 
+    // Incrementado para revogar todos os tokens já emitidos para o usuário
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     @ElementCollection(fetch = FetchType.EAGER) // Para papéis simples como Strings
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
@@ -96,6 +100,14 @@ public class User implements UserDetails {
         this.enabled = enabled;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public Set<String> getRoles() {
         return roles;
     }
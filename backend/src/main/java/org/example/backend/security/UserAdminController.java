@@ -0,0 +1,32 @@
+package org.example.backend.security;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Rotas em /admin/** exigem ROLE_ADMIN (ver SecurityConfig)
+@RestController
+@RequestMapping("/admin/users")
+public class UserAdminController {
+
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    public UserAdminController(TokenRevocationRegistry tokenRevocationRegistry) {
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+    }
+
+    @PostMapping("/{username}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable String username) {
+        try {
+            tokenRevocationRegistry.revokeAll(username);
+            return ResponseEntity.ok(Map.of("message", "Tokens revoked for user " + username));
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
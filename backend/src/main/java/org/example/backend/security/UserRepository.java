@@ -1,10 +1,33 @@
 package org.example.backend.security;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    // Todos os usuários: quem não está na lista não tem tokens aceitos
+    @Query("SELECT new org.example.backend.security.TokenRevocationRegistry$RevocationEntry(u.username, u.enabled, u.tokenVersion) " +
+            "FROM User u")
+    List<TokenRevocationRegistry.RevocationEntry> findRevocationEntries();
+
+    @Query("SELECT new org.example.backend.security.TokenRevocationRegistry$RevocationEntry(u.username, u.enabled, u.tokenVersion) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<TokenRevocationRegistry.RevocationEntry> findRevocationEntry(String username);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.username = :username")
+    int incrementTokenVersion(String username);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(String username, String password);
+}
@@ -0,0 +1,28 @@
+package org.example.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Resultado imutável da verificação de um JWT: assinatura e expiração já conferidas.
+ */
+public record VerifiedToken(String username, List<String> roles, int tokenVersion, Date issuedAt, Date expiration) {
+
+    static VerifiedToken of(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        Integer version = claims.get("ver", Integer.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                version != null ? version : 0,
+                claims.getIssuedAt(),
+                claims.getExpiration()
+        );
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
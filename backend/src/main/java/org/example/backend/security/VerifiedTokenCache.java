@@ -0,0 +1,89 @@
+package org.example.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache limitado de tokens já verificados, indexado pelo SHA-256 do token.
+ * <p>
+ * Um acerto dispensa a decodificação e a verificação da assinatura. Caffeine limita o
+ * tamanho (despejo W-TinyLFU) e expira cada entrada no {@code exp} do próprio token,
+ * de modo que um token expirado nunca é devolvido.
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Cache<String, VerifiedToken> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfter(new ExpiraComOToken())
+                .build();
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    VerifiedToken get(String key, long nowMillis) {
+        VerifiedToken token = entries.getIfPresent(key);
+        // O relógio do Caffeine é o nanoTime; a expiração do token, o relógio de parede
+        if (token != null && token.isExpired(nowMillis)) {
+            entries.invalidate(key);
+            return null;
+        }
+        return token;
+    }
+
+    void put(String key, VerifiedToken token, long nowMillis) {
+        if (!token.isExpired(nowMillis)) {
+            entries.put(key, token);
+        }
+    }
+
+    long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    // Prazo fixado na inserção; leituras e regravações do mesmo token não o alteram
+    private static final class ExpiraComOToken implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            if (token.expiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long restanteMs = Math.max(0, token.expiration().getTime() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(restanteMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
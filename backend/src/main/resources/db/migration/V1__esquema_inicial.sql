@@ -0,0 +1,71 @@
+-- Esquema inicial, equivalente ao que o ddl-auto: update gerava a partir das entidades.
+-- Usa IF NOT EXISTS para que bancos já criados pelo Hibernate possam adotar as migrações
+-- (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS categorias (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS detalhes_produto (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    dimensoes VARCHAR(50),
+    peso      FLOAT(53),
+    material  VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS fornecedores (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome     VARCHAR(100) NOT NULL,
+    telefone VARCHAR(20)  NOT NULL,
+    email    VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS produtos (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome               VARCHAR(100) NOT NULL,
+    preco              FLOAT(53)    NOT NULL,
+    estoque            INTEGER      NOT NULL,
+    categoria_id       BIGINT       NOT NULL REFERENCES categorias (id),
+    detalhe_produto_id BIGINT UNIQUE REFERENCES detalhes_produto (id)
+);
+
+CREATE TABLE IF NOT EXISTS produto_fornecedor (
+    produto_id    BIGINT NOT NULL REFERENCES produtos (id),
+    fornecedor_id BIGINT NOT NULL REFERENCES fornecedores (id),
+    PRIMARY KEY (produto_id, fornecedor_id)
+);
+
+CREATE TABLE IF NOT EXISTS produto_listagem (
+    id                      BIGINT PRIMARY KEY,
+    nome                    VARCHAR(100) NOT NULL,
+    preco                   FLOAT(53)    NOT NULL,
+    estoque                 INTEGER      NOT NULL,
+    categoria_id            BIGINT       NOT NULL,
+    categoria_nome          VARCHAR(50)  NOT NULL,
+    quantidade_fornecedores INTEGER      NOT NULL,
+    nomes_fornecedores      TEXT,
+    dimensoes               VARCHAR(50),
+    peso                    FLOAT(53),
+    material                VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_produto_listagem_nome ON produto_listagem (nome, id);
+CREATE INDEX IF NOT EXISTS idx_produto_listagem_preco ON produto_listagem (preco, id);
+CREATE INDEX IF NOT EXISTS idx_produto_listagem_categoria_nome ON produto_listagem (categoria_id, nome, id);
+
+CREATE TABLE IF NOT EXISTS app_user (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL UNIQUE,
+    password      VARCHAR(255) NOT NULL,
+    enabled       BOOLEAN      NOT NULL,
+    token_version INTEGER      NOT NULL DEFAULT 0
+);
+
+-- Bancos criados antes da revogação de tokens não têm a coluna
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL REFERENCES app_user (id),
+    role    VARCHAR(255)
+);
@@ -0,0 +1,26 @@
+-- Índices para os caminhos de consulta de ProdutoRepository e da listagem.
+-- Cada um está associado à consulta que atende; IndicesConsultasPostgresTest
+-- verifica com EXPLAIN que nenhuma delas volta a fazer Seq Scan.
+
+-- Ordenação padrão da listagem (sort=nome) e paginação por cursor (nome, id)
+CREATE INDEX IF NOT EXISTS idx_produtos_nome_id ON produtos (nome, id);
+
+-- Filtro por faixa de preço e sort=preco
+CREATE INDEX IF NOT EXISTS idx_produtos_preco_id ON produtos (preco, id);
+
+-- findByCategoria e filtro categoriaId com as ordenações mais comuns
+CREATE INDEX IF NOT EXISTS idx_produtos_categoria_nome_id ON produtos (categoria_id, nome, id);
+CREATE INDEX IF NOT EXISTS idx_produtos_categoria_preco_id ON produtos (categoria_id, preco, id);
+
+-- Filtro lower(nome) LIKE '%x%' de ProdutoSpecifications (quando o índice em memória não atende)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_produtos_nome_trgm ON produtos USING gin (lower(nome) gin_trgm_ops);
+
+-- Estoque baixo (findByEstoqueLessThanEqual): índice parcial, pequeno, só com os produtos em falta
+CREATE INDEX IF NOT EXISTS idx_produtos_estoque_baixo ON produtos (estoque, id) WHERE estoque <= 10;
+
+-- Lado inverso de produto_fornecedor (findByFornecedoresContains); a PK cobre (produto_id, fornecedor_id)
+CREATE INDEX IF NOT EXISTS idx_produto_fornecedor_fornecedor ON produto_fornecedor (fornecedor_id, produto_id);
+
+-- Junção de user_roles ao carregar usuários
+CREATE INDEX IF NOT EXISTS idx_user_roles_user ON user_roles (user_id);
@@ -0,0 +1,20 @@
+-- Ids de produtos, detalhes, categorias e fornecedores passam a vir de sequências com
+-- incremento 50 (otimizador pooled do Hibernate): cada nextval reserva 50 ids, e os
+-- INSERTs podem ser agrupados em lotes JDBC, o que IDENTITY impede.
+-- As colunas deixam de ter valor padrão: todo INSERT precisa informar o id.
+
+ALTER TABLE produtos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE detalhes_produto ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categorias ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE fornecedores ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE produtos_seq INCREMENT BY 50;
+CREATE SEQUENCE detalhes_produto_seq INCREMENT BY 50;
+CREATE SEQUENCE categorias_seq INCREMENT BY 50;
+CREATE SEQUENCE fornecedores_seq INCREMENT BY 50;
+
+-- O pooled usa os ids (valor - 49) até valor: o primeiro bloco começa acima do maior id existente
+SELECT setval('produtos_seq', COALESCE((SELECT max(id) FROM produtos), 0) + 51, false);
+SELECT setval('detalhes_produto_seq', COALESCE((SELECT max(id) FROM detalhes_produto), 0) + 51, false);
+SELECT setval('categorias_seq', COALESCE((SELECT max(id) FROM categorias), 0) + 51, false);
+SELECT setval('fornecedores_seq', COALESCE((SELECT max(id) FROM fornecedores), 0) + 51, false);
@@ -0,0 +1,2 @@
+-- Blocos de ids do AlocadorIds (hi/lo): cada nextval reserva AlocadorIds.TAMANHO_BLOCO ids
+CREATE SEQUENCE IF NOT EXISTS alocador_ids_seq;
@@ -0,0 +1,5 @@
+-- Preço e estoque não negativos garantidos pelo banco, e não só pela validação das entidades:
+-- as atualizações em conjunto (reajuste, tabela de preços, estoques) não passam pelo Bean Validation.
+-- O modelo de leitura só recebe valores já aceitos em produtos, na mesma transação.
+ALTER TABLE produtos ADD CONSTRAINT ck_produtos_preco_nao_negativo CHECK (preco >= 0);
+ALTER TABLE produtos ADD CONSTRAINT ck_produtos_estoque_nao_negativo CHECK (estoque >= 0);
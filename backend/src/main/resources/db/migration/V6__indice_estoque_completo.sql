@@ -0,0 +1,6 @@
+-- findByEstoqueLessThanEqual recebe o limite como parâmetro, mas o índice parcial de V2
+-- (WHERE estoque <= 10) só atende quando o planejador prova o predicado: com um limite acima
+-- de 10, ou com o plano genérico que o PostgreSQL adota para um PreparedStatement repetido,
+-- a consulta voltava a ler a tabela inteira. O índice completo atende qualquer limite.
+DROP INDEX IF EXISTS idx_produtos_estoque_baixo;
+CREATE INDEX IF NOT EXISTS idx_produtos_estoque_id ON produtos (estoque, id);
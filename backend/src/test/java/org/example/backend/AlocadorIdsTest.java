@@ -0,0 +1,76 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlocadorIdsTest {
+
+    // Simula a sequência do banco, compartilhada entre instâncias e reinícios
+    private final AtomicLong sequencia = new AtomicLong();
+
+    @Test
+    void idsConcorrentesSaoExclusivosEReservamBlocosInteiros() throws Exception {
+        AlocadorIds alocador = new AlocadorIds(sequencia::incrementAndGet);
+        int threads = 16;
+        int porThread = 250_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> resultados = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                resultados.add(executor.submit(() -> {
+                    long[] ids = new long[porThread];
+                    for (int i = 0; i < porThread; i++) {
+                        ids[i] = alocador.proximoId(Produto.class);
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> todos = new HashSet<>();
+            for (Future<long[]> resultado : resultados) {
+                for (long id : resultado.get()) {
+                    assertThat(todos.add(id)).as("id repetido: %d", id).isTrue();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // Só os blocos necessários, mais o reservado antecipadamente na metade do último
+        long necessarios = (long) threads * porThread / AlocadorIds.TAMANHO_BLOCO;
+        assertThat(sequencia.get()).isBetween(necessarios, necessarios + 1);
+    }
+
+    @Test
+    void reinicioNaoRepeteIds() {
+        AlocadorIds antes = new AlocadorIds(sequencia::incrementAndGet);
+        long ultimoAntes = 0;
+        for (int i = 0; i < 10; i++) {
+            ultimoAntes = antes.proximoId(Produto.class);
+        }
+
+        AlocadorIds depois = new AlocadorIds(sequencia::incrementAndGet);
+
+        assertThat(depois.proximoId(Produto.class)).isGreaterThan(ultimoAntes);
+    }
+
+    @Test
+    void cadaClasseTemSeuContador() {
+        AlocadorIds alocador = new AlocadorIds(sequencia::incrementAndGet);
+
+        long produto = alocador.proximoId(Produto.class);
+        long categoria = alocador.proximoId(Categoria.class);
+
+        assertThat(alocador.proximoId(Produto.class)).isEqualTo(produto + 1);
+        assertThat(alocador.proximoId(Categoria.class)).isEqualTo(categoria + 1);
+    }
+}
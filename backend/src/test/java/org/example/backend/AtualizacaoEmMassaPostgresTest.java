@@ -0,0 +1,133 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Atualizações em conjunto no PostgreSQL embarcado: o UPDATE ... FROM unnest e as restrições
+// CHECK de V5 são específicos dele. Sem transação no teste, os ouvintes rodam após cada commit.
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "app.produtos.etag.habilitado=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProdutoService.class, ProdutoListagemService.class, ContagemEstimada.class, IndiceTrigramas.class,
+        ProdutoCache.class, VersaoCatalogo.class, PostgresEmbarcado.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AtualizacaoEmMassaPostgresTest extends PostgresEmbarcado {
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private VersaoCatalogo versaoCatalogo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Produtos 1..20: ímpares na categoria 1, pares na 2; preço = 10 * id, estoque = id
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, categorias CASCADE");
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (1, 'Ímpares'), (2, 'Pares')");
+        jdbcTemplate.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "SELECT g, 'Produto ' || g, 10.0 * g, g, 2 - g % 2 FROM generate_series(1, 20) g");
+        jdbcTemplate.execute("INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome, " +
+                "quantidade_fornecedores) SELECT p.id, p.nome, p.preco, p.estoque, p.categoria_id, c.nome, 0 " +
+                "FROM produtos p JOIN categorias c ON c.id = p.categoria_id");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void reajusteAplicaFiltrosEmUmUnicoUpdatePorTabela() {
+        int atualizados = produtoService.reajustarPrecos(null, 50.0, null, 1L, 12.345);
+
+        // Ímpares com preço >= 50: 5, 7, ..., 19
+        assertThat(atualizados).isEqualTo(8);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(preco("produtos", 5)).isEqualTo(56.17);
+        assertThat(preco("produtos", 3)).isEqualTo(30.0);
+        assertThat(preco("produtos", 6)).isEqualTo(60.0);
+        assertThat(divergenciasListagem()).isZero();
+    }
+
+    @Test
+    void tabelaDePrecosEEstoquesIgnoramIdsInexistentes() {
+        assertThat(produtoService.aplicarTabelaPrecos(Map.of(1L, 9.9, 2L, 19.9, 999L, 1.0))).isEqualTo(2);
+        assertThat(produtoService.definirEstoques(Map.of(3L, 0, 4L, 400, 998L, 1))).isEqualTo(2);
+
+        assertThat(preco("produtos", 2)).isEqualTo(19.9);
+        assertThat(jdbcTemplate.queryForObject("SELECT estoque FROM produtos WHERE id = 4", Integer.class))
+                .isEqualTo(400);
+        assertThat(divergenciasListagem()).isZero();
+    }
+
+    @Test
+    void valoresNegativosSaoRejeitadosPeloBancoSemAlterarNada() {
+        assertThatThrownBy(() -> produtoService.reajustarPrecos(null, null, null, null, -150))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> produtoService.definirEstoques(Map.of(1L, 5, 2L, -1)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(preco("produtos", 1)).isEqualTo(10.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT estoque FROM produtos WHERE id = 1", Integer.class))
+                .isEqualTo(1);
+    }
+
+    // No PostgreSQL 'NaN' >= 0 e 'Infinity' >= 0: a restrição CHECK não os barraria
+    @Test
+    void valoresNaoFinitosSaoRecusadosAntesDoBanco() {
+        assertThatThrownBy(() -> produtoService.reajustarPrecos(null, null, null, null, Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> produtoService.reajustarPrecos(null, null, null, null, Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> produtoService.aplicarTabelaPrecos(Map.of(1L, 5.0, 2L, Double.NaN)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(preco("produtos", 1)).isEqualTo(10.0);
+    }
+
+    @Test
+    void alteracaoEmMassaInvalidaCacheEEtags() {
+        assertThat(produtoService.buscarViewPorId(2L).preco()).isEqualTo(20.0);
+        String etagProduto = versaoCatalogo.etagProduto(2L);
+        String etagListagem = versaoCatalogo.etagListagem();
+
+        produtoService.reajustarPrecos(null, null, null, 2L, 10);
+
+        assertThat(produtoService.buscarViewPorId(2L).preco()).isEqualTo(22.0);
+        assertThat(versaoCatalogo.etagProduto(2L)).isNotEqualTo(etagProduto);
+        assertThat(versaoCatalogo.etagListagem()).isNotEqualTo(etagListagem);
+    }
+
+    private Double preco(String tabela, long id) {
+        return jdbcTemplate.queryForObject("SELECT preco FROM " + tabela + " WHERE id = ?", Double.class, id);
+    }
+
+    private int divergenciasListagem() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT p.id FROM produtos p JOIN produto_listagem l " +
+                "ON l.id = p.id WHERE l.preco <> p.preco OR l.estoque <> p.estoque", Long.class);
+        return ids.size();
+    }
+}
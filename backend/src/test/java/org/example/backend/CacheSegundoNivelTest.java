@@ -0,0 +1,76 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sem transação envolvendo o teste: o cache de segundo nível só é preenchido após o commit
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoriaId;
+
+    @BeforeEach
+    void popular() {
+        categoriaId = categoriaRepository.save(new Categoria("Eletrônicos")).getId();
+        fornecedorRepository.save(new Fornecedor("Fornecedor A", "1111-1111", "a@exemplo.com"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void limpar() {
+        fornecedorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void buscasRepetidasNaoVaoAoBanco() {
+        categoriaRepository.findById(categoriaId);
+        fornecedorRepository.findByEmail("a@exemplo.com");
+        statistics.clear();
+
+        assertThat(categoriaRepository.findById(categoriaId)).isPresent();
+        assertThat(fornecedorRepository.findByEmail("a@exemplo.com")).isNotNull();
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void escritaInvalidaEntidadeEConsultas() {
+        Fornecedor fornecedor = fornecedorRepository.findByEmail("a@exemplo.com");
+        fornecedor.setEmail("novo@exemplo.com");
+        fornecedorRepository.save(fornecedor);
+
+        assertThat(fornecedorRepository.findByEmail("a@exemplo.com")).isNull();
+        assertThat(fornecedorRepository.findByEmail("novo@exemplo.com")).isNotNull();
+        assertThat(fornecedorRepository.findById(fornecedor.getId()))
+                .hasValueSatisfying(f -> assertThat(f.getEmail()).isEqualTo("novo@exemplo.com"));
+    }
+}
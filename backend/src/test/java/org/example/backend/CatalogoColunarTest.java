@@ -0,0 +1,242 @@
+package org.example.backend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// O catálogo colunar deve responder como os filtros de ProdutoSpecifications.comFiltros, aqui
+// reproduzidos sobre uma lista, antes e depois de uma sequência de escritas
+class CatalogoColunarTest {
+
+    private static final String[] NOMES = {"Notebook", "notebook Air", "Mouse", "Teclado", "Monitor", "Caderno"};
+
+    private final Random random = new Random(42);
+    // O "banco": id -> estado
+    private final TreeMap<Long, Linha> produtos = new TreeMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger releituras = new AtomicInteger();
+
+    private record Linha(String nome, double preco, int estoque, Long categoriaId) {
+        Object[] colunas(long id) {
+            return new Object[]{id, nome, preco, estoque, categoriaId};
+        }
+    }
+
+    private CatalogoColunar catalogo(long memoriaMaxima) {
+        return catalogo(memoriaMaxima, Long.MAX_VALUE);
+    }
+
+    // Releituras na própria thread do evento, para que os testes vejam o resultado em seguida
+    private CatalogoColunar catalogo(long memoriaMaxima, long intervaloMs) {
+        return catalogo(memoriaMaxima, intervaloMs, Runnable::run);
+    }
+
+    private CatalogoColunar catalogo(long memoriaMaxima, long intervaloMs, Executor sincronizador) {
+        return new CatalogoColunar(consumidor -> produtos.forEach((id, linha) -> consumidor.accept(linha.colunas(id))),
+                id -> {
+                    releituras.incrementAndGet();
+                    return produtos.containsKey(id) ? produtos.get(id).colunas(id) : null;
+                },
+                registry, memoriaMaxima, intervaloMs, sincronizador);
+    }
+
+    // O evento só identifica o produto: o catálogo relê a linha
+    private static ProdutoAlteradoEvent alterado(long id) {
+        return new ProdutoAlteradoEvent(id, null, null);
+    }
+
+    private Linha aleatorio() {
+        // Preços e nomes repetidos exercitam o desempate pelo id
+        return new Linha(NOMES[random.nextInt(NOMES.length)] + " " + random.nextInt(50),
+                random.nextInt(200) * 5.0, random.nextInt(100), random.nextInt(10) == 0 ? null : 1L + random.nextInt(4));
+    }
+
+    @Test
+    void respondeComoOsFiltrosDoBancoAposEscritas() {
+        for (long id = 1; id <= 2_000; id++) {
+            produtos.put(id * 2, aleatorio());
+        }
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE);
+        catalogo.reconstruir();
+        conferir(catalogo);
+
+        for (int i = 0; i < 3_000; i++) {
+            int operacao = random.nextInt(3);
+            if (operacao == 0) {
+                // Ids novos no meio e no fim das colunas
+                long id = random.nextInt(2) == 0 ? 1 + 2L * random.nextInt(2_000) : 5_000 + i;
+                produtos.put(id, aleatorio());
+                catalogo.aoAlterarProduto(alterado(id));
+            } else if (operacao == 1 && !produtos.isEmpty()) {
+                Long id = produtos.ceilingKey((long) random.nextInt(6_000));
+                if (id != null) {
+                    produtos.put(id, aleatorio());
+                    catalogo.aoAlterarProduto(alterado(id));
+                }
+            } else {
+                Long id = produtos.ceilingKey((long) random.nextInt(6_000));
+                if (id != null) {
+                    produtos.remove(id);
+                    catalogo.aoAlterarProduto(alterado(id));
+                }
+            }
+        }
+        assertThat(catalogo.tamanho()).isEqualTo(produtos.size());
+        conferir(catalogo);
+    }
+
+    // Dois PUTs concorrentes no mesmo produto: o ouvinte do primeiro commit roda por último
+    @Test
+    void eventosForaDaOrdemDosCommitsValemOQueEstaNoBanco() {
+        produtos.put(1L, new Linha("Mouse", 10.0, 5, 1L));
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE);
+        catalogo.reconstruir();
+
+        produtos.put(1L, new Linha("Mouse", 20.0, 5, 1L));
+        produtos.put(1L, new Linha("Mouse", 30.0, 5, 1L));
+        catalogo.aoAlterarProduto(alterado(1L));
+        catalogo.aoAlterarProduto(alterado(1L));
+
+        assertThat(catalogo.buscar(null, 25.0, null, null, PageRequest.of(0, 10)).ids()).containsExactly(1L);
+    }
+
+    // O ouvinte roda no afterCommit, com a conexão da escrita ainda presa: só enfileira o id
+    @Test
+    void ouvinteNaoLeOBancoEAgrupaEscritasPendentes() {
+        produtos.put(1L, new Linha("Mouse", 10.0, 5, 1L));
+        List<Runnable> fila = new ArrayList<>();
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE, Long.MAX_VALUE, fila::add);
+        catalogo.reconstruir();
+
+        produtos.put(1L, new Linha("Mouse", 20.0, 5, 1L));
+        catalogo.aoAlterarProduto(alterado(1L));
+        produtos.put(1L, new Linha("Mouse", 30.0, 5, 1L));
+        catalogo.aoAlterarEstoque(new EstoqueAlteradoEvent(1L, null, null));
+        assertThat(releituras).hasValue(0);
+        assertThat(fila).hasSize(1);
+
+        fila.forEach(Runnable::run);
+        assertThat(releituras).hasValue(1);
+        assertThat(catalogo.buscar(null, 25.0, null, null, PageRequest.of(0, 10)).ids()).containsExactly(1L);
+
+        // Depois da releitura, uma nova escrita entra de novo na fila
+        catalogo.aoAlterarProduto(alterado(1L));
+        assertThat(fila).hasSize(2);
+    }
+
+    // Escritas por SQL direto (cargas, scripts) não publicam eventos
+    @Test
+    void reconstrucaoPeriodicaCorrigeEscritasForaDoProdutoService() throws Exception {
+        produtos.put(1L, new Linha("Mouse", 10.0, 5, 1L));
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE, 1);
+        catalogo.reconstruir();
+
+        produtos.put(2L, new Linha("Teclado", 10.0, 5, 1L));
+        produtos.remove(1L);
+        Thread.sleep(5);
+        catalogo.reconstruirSeNecessario();
+
+        assertThat(catalogo.buscar(null, null, null, null, PageRequest.of(0, 10)).ids()).containsExactly(2L);
+    }
+
+    @Test
+    void atualizacaoEmMassaDevolveAConsultaAoBancoAteReconstruir() {
+        produtos.put(1L, new Linha("Mouse", 10.0, 5, 1L));
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE);
+        catalogo.reconstruir();
+
+        catalogo.aoAlterarCatalogo(new CatalogoAlteradoEvent(1));
+        assertThat(catalogo.buscar(null, null, null, null, PageRequest.of(0, 10))).isNull();
+
+        produtos.put(1L, new Linha("Mouse", 11.0, 5, 1L));
+        catalogo.reconstruir();
+        assertThat(catalogo.buscar(null, 10.5, null, null, PageRequest.of(0, 10)).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void ordenacaoNaoSuportadaVaiAoBanco() {
+        produtos.put(1L, new Linha("Mouse", 10.0, 5, 1L));
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE);
+        catalogo.reconstruir();
+
+        assertThat(catalogo.buscar(null, null, null, null, PageRequest.of(0, 10, Sort.by("nome", "preco")))).isNull();
+        assertThat(catalogo.buscar(null, null, null, null, PageRequest.of(0, 10, Sort.by("categoria.nome")))).isNull();
+        assertThat(catalogo.buscar(null, null, null, 99L, PageRequest.of(0, 10)).total()).isZero();
+        // Curingas do LIKE: o filtro por substring literal responderia diferente do banco
+        assertThat(catalogo.buscar("mou_e", null, null, null, PageRequest.of(0, 10))).isNull();
+    }
+
+    @Test
+    void acimaDoLimiteDeMemoriaOCatalogoEhDescartado() {
+        for (long id = 1; id <= 1_000; id++) {
+            produtos.put(id, aleatorio());
+        }
+        CatalogoColunar catalogo = catalogo(Long.MAX_VALUE);
+        catalogo.reconstruir();
+        long memoria = catalogo.memoriaEstimada();
+        assertThat(registry.get("catalogo.colunar.memoria").gauge().value()).isEqualTo(memoria);
+
+        CatalogoColunar limitado = catalogo(memoria / 2);
+        limitado.reconstruir();
+
+        assertThat(limitado.memoriaEstimada()).isZero();
+        assertThat(limitado.buscar(null, null, null, null, PageRequest.of(0, 10))).isNull();
+    }
+
+    private void conferir(CatalogoColunar catalogo) {
+        for (String ordem : new String[]{"nome", "preco", "estoque", "id"}) {
+            for (Sort.Direction direcao : Sort.Direction.values()) {
+                Sort sort = Sort.by(direcao, ordem);
+                conferir(catalogo, null, null, null, null, PageRequest.of(0, 20, sort));
+                conferir(catalogo, "NOTEBOOK", null, null, null, PageRequest.of(1, 15, sort));
+                conferir(catalogo, null, 100.0, 500.0, 2L, PageRequest.of(2, 10, sort));
+                conferir(catalogo, "o 1", null, 250.0, null, PageRequest.of(0, 50, sort));
+                conferir(catalogo, "", 995.0, null, 1L, Pageable.unpaged(sort));
+            }
+        }
+        conferir(catalogo, null, 300.0, 300.0, null, PageRequest.of(0, 1000));
+    }
+
+    private void conferir(CatalogoColunar catalogo, String nome, Double precoMinimo, Double precoMaximo,
+                          Long categoriaId, Pageable pageable) {
+        List<Long> esperados = new ArrayList<>();
+        produtos.forEach((id, p) -> {
+            if ((nome == null || nome.isEmpty() || p.nome().toLowerCase(Locale.ROOT).contains(nome.toLowerCase(Locale.ROOT)))
+                    && (precoMinimo == null || p.preco() >= precoMinimo)
+                    && (precoMaximo == null || p.preco() <= precoMaximo)
+                    && (categoriaId == null || categoriaId.equals(p.categoriaId()))) {
+                esperados.add(id);
+            }
+        });
+        Sort.Order ordem = pageable.getSort().isSorted() ? pageable.getSort().toList().get(0) : null;
+        if (ordem != null) {
+            Comparator<Long> comparador = switch (ordem.getProperty()) {
+                case "nome" -> Comparator.comparing(id -> produtos.get(id).nome());
+                case "preco" -> Comparator.comparingDouble(id -> produtos.get(id).preco());
+                case "estoque" -> Comparator.comparingInt(id -> produtos.get(id).estoque());
+                default -> Comparator.comparingLong(id -> id);
+            };
+            comparador = comparador.thenComparing(Comparator.naturalOrder());
+            esperados.sort(ordem.isAscending() ? comparador : comparador.reversed());
+        }
+        List<Long> pagina = pageable.isUnpaged() ? esperados : esperados.stream()
+                .skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+
+        CatalogoColunar.Pagina resultado = catalogo.buscar(nome, precoMinimo, precoMaximo, categoriaId, pageable);
+        assertThat(resultado.total()).as("total de %s %s", nome, pageable).isEqualTo(esperados.size());
+        assertThat(resultado.ids()).as("ids de %s %s", nome, pageable).isEqualTo(pagina);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// As estatísticas mantidas pelos eventos após o commit devem coincidir com um GROUP BY do zero
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProdutoService.class, ProdutoListagemService.class, ContagemEstimada.class, IndiceTrigramas.class,
+        ProdutoCache.class, VersaoCatalogo.class, EstatisticasCatalogo.class, EstoqueService.class,
+        ReservaEstoqueEmMemoria.class, PostgresEmbarcado.Metricas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstatisticasCatalogoPostgresTest extends PostgresEmbarcado {
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private EstatisticasCatalogo estatisticasCatalogo;
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registry) {
+        // Só as reconciliações chamadas pelo teste
+        registry.add("app.produtos.estatisticas.intervalo-ms", () -> "3600000");
+        registry.add("app.produtos.estatisticas.atraso-pendente-ms", () -> "3600000");
+    }
+
+    // Produtos 1..20: ímpares na categoria 1, pares na 2; preço = 10 * id, estoque = id
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, categorias CASCADE");
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (1, 'Ímpares'), (2, 'Pares')");
+        jdbcTemplate.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "SELECT g, 'Produto ' || g, 10.0 * g, g, 2 - g % 2 FROM generate_series(1, 20) g");
+        // O primeiro bloco do pooled (ids 2..51 num banco novo) colidiria com os ids acima
+        jdbcTemplate.execute("SELECT setval('produtos_seq', 1000)");
+        jdbcTemplate.execute("INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome, " +
+                "quantidade_fornecedores) SELECT p.id, p.nome, p.preco, p.estoque, p.categoria_id, c.nome, 0 " +
+                "FROM produtos p JOIN categorias c ON c.id = p.categoria_id");
+        estatisticasCatalogo.reconciliar();
+    }
+
+    @Test
+    void reconciliacaoAgregaPorCategoriaEFaixa() {
+        EstatisticasCatalogo.Resumo resumo = estatisticasCatalogo.resumo();
+
+        assertThat(resumo.totalProdutos()).isEqualTo(20);
+        assertThat(resumo.totalEstoque()).isEqualTo(210);
+        // soma de 10 * g * g para g = 1..20
+        assertThat(resumo.valorEstoque()).isEqualTo(28700.0);
+        assertThat(resumo.precoMedio()).isEqualTo(105.0);
+        assertThat(resumo.estoqueBaixo()).isEqualTo(9);
+        assertThat(resumo.desatualizado()).isFalse();
+        assertThat(resumo.categorias()).containsExactly(
+                new EstatisticasCatalogo.PorCategoria(2L, "Pares", 10, 110, 15400.0),
+                new EstatisticasCatalogo.PorCategoria(1L, "Ímpares", 10, 100, 13300.0));
+        // Limites 50, 100, 250, ...: preços 10..40, 50..90 e 100..200
+        assertThat(resumo.histogramaPrecos()).extracting(EstatisticasCatalogo.FaixaPreco::produtos)
+                .containsExactly(4L, 5L, 11L, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void eventosMantemOsMesmosTotaisDeUmaReconciliacao() {
+        Categoria pares = new Categoria("Pares");
+        pares.setId(2L);
+        Categoria nova = new Categoria("Nova");
+        nova.setId(3L);
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (3, 'Nova')");
+
+        produtoService.salvar(new Produto("Monitor", 1200.0, 3, nova));
+        produtoService.atualizar(1L, new Produto("Produto 1", 60.0, 15, pares));
+        produtoService.atualizar(4L, new Produto("Produto 4", 40.0, 2, null));
+        produtoService.deletar(20L);
+
+        EstatisticasCatalogo.Resumo incremental = estatisticasCatalogo.resumo();
+        assertThat(incremental.totalProdutos()).isEqualTo(20);
+        assertThat(incremental.categorias()).extracting(EstatisticasCatalogo.PorCategoria::nome)
+                .contains("Nova");
+
+        estatisticasCatalogo.reconciliar();
+        assertThat(incremental).usingRecursiveComparison().ignoringFields("reconciliadoEm")
+                .isEqualTo(estatisticasCatalogo.resumo());
+    }
+
+    // O UPDATE condicional devolve preço, estoque e categoria: nada fica para a reconciliação
+    @Test
+    void reservasAplicamAVariacaoSemMarcarDesatualizado() {
+        assertThat(estoqueService.reservar(3L, 3)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(estoqueService.reservar(12L, 5)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(estoqueService.liberar(4L, 10)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(estoqueService.reservar(5L, 6)).isEqualTo(EstoqueService.Resultado.INSUFICIENTE);
+
+        EstatisticasCatalogo.Resumo incremental = estatisticasCatalogo.resumo();
+        assertThat(incremental.desatualizado()).isFalse();
+        assertThat(incremental.totalEstoque()).isEqualTo(210 - 3 - 5 + 10);
+        // produto 12 cai para 7 e entra no estoque baixo; produto 4 sobe para 14 e sai
+        assertThat(incremental.estoqueBaixo()).isEqualTo(9);
+
+        estatisticasCatalogo.reconciliar();
+        assertThat(incremental).usingRecursiveComparison().ignoringFields("reconciliadoEm")
+                .isEqualTo(estatisticasCatalogo.resumo());
+    }
+
+    @Test
+    void atualizacaoEmMassaMarcaComoDesatualizado() {
+        produtoService.reajustarPrecos(null, null, null, 1L, 100);
+
+        assertThat(estatisticasCatalogo.resumo().desatualizado()).isTrue();
+        assertThat(estatisticasCatalogo.resumo().valorEstoque()).isEqualTo(28700.0);
+
+        estatisticasCatalogo.reconciliar();
+        EstatisticasCatalogo.Resumo resumo = estatisticasCatalogo.resumo();
+        assertThat(resumo.desatualizado()).isFalse();
+        assertThat(resumo.valorEstoque()).isEqualTo(28700.0 + 13300.0);
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Centenas de reservas simultâneas contra o PostgreSQL embarcado. O produto 1 usa o UPDATE
+// condicional; o produto 2 está configurado para o modo de alta contenção (em memória).
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EstoqueService.class, ReservaEstoqueEmMemoria.class})
+@TestPropertySource(properties = "app.produtos.estoque.alta-contencao.ids=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstoquePostgresTest extends PostgresEmbarcado {
+
+    private static final int RESERVADORES = 300;
+    private static final int ESTOQUE = 120;
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private ReservaEstoqueEmMemoria reservaEmMemoria;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ProdutoListagemRepository listagemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, categorias CASCADE");
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (1, 'Ofertas')");
+        jdbcTemplate.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "VALUES (1, 'Console', 2999.9, " + ESTOQUE + ", 1), (2, 'Ingresso', 99.9, " + ESTOQUE + ", 1)");
+        jdbcTemplate.execute("INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome, " +
+                "quantidade_fornecedores) SELECT id, nome, preco, estoque, categoria_id, 'Ofertas', 0 FROM produtos");
+    }
+
+    @Test
+    void updateCondicionalNaoVendeAlemDoEstoque() throws Exception {
+        long efetuadas = reservarConcorrentemente(1L);
+
+        assertThat(efetuadas).isEqualTo(ESTOQUE);
+        assertThat(estoque("produtos", 1L)).isZero();
+        assertThat(estoque("produto_listagem", 1L)).isZero();
+    }
+
+    @Test
+    void modoEmMemoriaNaoVendeAlemDoEstoqueEGravaNoBanco() throws Exception {
+        long efetuadas = reservarConcorrentemente(2L);
+        reservaEmMemoria.devolverSobras();
+
+        assertThat(efetuadas).isEqualTo(ESTOQUE);
+        assertThat(estoque("produtos", 2L)).isZero();
+        assertThat(estoque("produto_listagem", 2L)).isZero();
+    }
+
+    // Duas instâncias com o mesmo produto em alta contenção: cada uma só vende o que arrendou do banco
+    @Test
+    void duasInstanciasEmMemoriaNaoVendemAlemDoEstoque() throws Exception {
+        ReservaEstoqueEmMemoria outra = new ReservaEstoqueEmMemoria(produtoRepository, listagemRepository,
+                transactionManager, evento -> {
+                }, Set.of(2L), 16, 50);
+        EstoqueService outraInstancia = new EstoqueService(produtoRepository, listagemRepository, outra,
+                evento -> {
+                }, transactionManager);
+
+        long efetuadas = reservarConcorrentemente(2L, estoqueService, outraInstancia);
+        reservaEmMemoria.devolverSobras();
+        outra.devolverSobras();
+
+        assertThat(efetuadas).isEqualTo(ESTOQUE);
+        assertThat(estoque("produtos", 2L)).isZero();
+    }
+
+    @Test
+    void sobrasArrendadasVoltamAoBanco() {
+        assertThat(estoqueService.reservar(2L, 1)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        // O lote inteiro saiu do banco
+        assertThat(estoque("produtos", 2L)).isEqualTo(ESTOQUE - 100);
+
+        reservaEmMemoria.devolverSobras();
+
+        assertThat(estoque("produtos", 2L)).isEqualTo(ESTOQUE - 1);
+        assertThat(estoque("produto_listagem", 2L)).isEqualTo(ESTOQUE - 1);
+    }
+
+    @Test
+    void liberarDevolveAoEstoque() {
+        assertThat(estoqueService.reservar(1L, ESTOQUE)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(estoqueService.reservar(1L, 1)).isEqualTo(EstoqueService.Resultado.INSUFICIENTE);
+        assertThat(estoqueService.liberar(1L, 5)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(estoqueService.reservar(99L, 1)).isEqualTo(EstoqueService.Resultado.NAO_ENCONTRADO);
+        assertThat(estoqueService.liberar(99L, 1)).isEqualTo(EstoqueService.Resultado.NAO_ENCONTRADO);
+
+        assertThat(estoque("produtos", 1L)).isEqualTo(5);
+        assertThat(estoque("produto_listagem", 1L)).isEqualTo(5);
+    }
+
+    private long reservarConcorrentemente(Long id) throws Exception {
+        return reservarConcorrentemente(id, estoqueService);
+    }
+
+    // Cada reservador tenta uma unidade ao mesmo tempo, alternando entre as instâncias; retorna quantas foram efetuadas
+    private long reservarConcorrentemente(Long id, EstoqueService... instancias) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(RESERVADORES);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<EstoqueService.Resultado>> resultados = new ArrayList<>();
+            for (int i = 0; i < RESERVADORES; i++) {
+                EstoqueService instancia = instancias[i % instancias.length];
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return instancia.reservar(id, 1);
+                }));
+            }
+            largada.countDown();
+            long efetuadas = 0;
+            for (Future<EstoqueService.Resultado> resultado : resultados) {
+                EstoqueService.Resultado r = resultado.get();
+                assertThat(r).isNotEqualTo(EstoqueService.Resultado.NAO_ENCONTRADO);
+                efetuadas += r == EstoqueService.Resultado.EFETUADO ? 1 : 0;
+            }
+            return efetuadas;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Integer estoque(String tabela, Long id) {
+        return jdbcTemplate.queryForObject("SELECT estoque FROM " + tabela + " WHERE id = ?", Integer.class, id);
+    }
+}
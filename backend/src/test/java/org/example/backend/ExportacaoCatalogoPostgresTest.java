@@ -0,0 +1,134 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A exportação por COPY deve trazer os mesmos produtos de ProdutoSpecifications.comFiltros,
+// e o NDJSON o mesmo conteúdo do JSON de GET /produtos/{id}
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportacaoCatalogoPostgresTest extends PostgresEmbarcado {
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExportacaoCatalogoService exportacaoCatalogoService;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, detalhes_produto, " +
+                "fornecedores, categorias CASCADE");
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (1, 'Informática'), (2, 'Escritório')");
+        jdbcTemplate.execute("INSERT INTO detalhes_produto (id, dimensoes, peso, material) " +
+                "VALUES (1, '30x20x2', 1.4, 'Alumínio')");
+        jdbcTemplate.execute("INSERT INTO fornecedores (id, nome, telefone, email) VALUES " +
+                "(1, 'Distribuidora \"A\"', '1111', 'a@exemplo.com'), (2, 'Distribuidora B', '2222', 'b@exemplo.com')");
+        jdbcTemplate.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id, detalhe_produto_id) VALUES " +
+                "(1, 'Notebook Pro', 7999.9, 5, 1, 1), (2, 'notebook Air', 5499.9, 8, 1, NULL), " +
+                "(3, 'Mouse, sem fio', 89.9, 100, 1, NULL), (4, 'Teclado', 149.9, 40, 1, NULL), " +
+                "(5, 'Caderno', 19.9, 300, 2, NULL), (6, 'Grampeador', 34.9, 60, 2, NULL), " +
+                "(7, 'Copo d''água', 12.5, 12, 2, NULL)");
+        jdbcTemplate.execute("INSERT INTO produto_fornecedor (produto_id, fornecedor_id) VALUES (1, 2), (1, 1), (3, 1)");
+
+        exportacaoCatalogoService = new ExportacaoCatalogoService(dataSource);
+    }
+
+    @Test
+    void csvCoincideComAEspecificacaoJpa() throws Exception {
+        assertMesmosProdutos(null, null, null, null);
+        assertMesmosProdutos("NOTEBOOK", null, null, null);
+        assertMesmosProdutos(null, 50.0, 2500.0, 1L);
+        assertMesmosProdutos("o", null, 150.0, null);
+        assertMesmosProdutos("d'água", null, null, null);
+        assertMesmosProdutos("inexistente", null, null, null);
+    }
+
+    @Test
+    void csvTemCabecalhoEFornecedoresAgregados() throws Exception {
+        List<String> linhas = csv(new ExportacaoCatalogoService.Filtro(null, null, null, null));
+
+        assertThat(linhas.get(0)).isEqualTo("id,nome,preco,estoque,categoria_id,categoria_nome,"
+                + "dimensoes,peso,material,fornecedores_ids,fornecedores_nomes");
+        assertThat(linhas.get(1)).isEqualTo(
+                "1,Notebook Pro,7999.9,5,1,Informática,30x20x2,1.4,Alumínio,1|2,\"Distribuidora \"\"A\"\"|Distribuidora B\"");
+        assertThat(linhas.get(3)).startsWith("3,\"Mouse, sem fio\",89.9,100,1,Informática,,,,1,");
+    }
+
+    @Test
+    void ndjsonCompactadoCoincideComOJsonDoProduto() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        long exportados = exportacaoCatalogoService.exportar(new ExportacaoCatalogoService.Filtro(null, null, null, null),
+                ExportacaoCatalogoService.Formato.NDJSON, true, saida);
+
+        String conteudo;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(saida.toByteArray()))) {
+            conteudo = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<ProdutoView> exportadas = new ArrayList<>();
+        for (String linha : conteudo.split("\n")) {
+            exportadas.add(objectMapper.readValue(linha, ProdutoView.class));
+        }
+        List<ProdutoView> esperadas = new TransactionTemplate(transactionManager).execute(status ->
+                produtoRepository.findAll(Sort.by("id")).stream()
+                        .map(p -> ProdutoView.of(produtoRepository.findByIdComAssociacoes(p.getId()).orElseThrow()))
+                        .toList());
+
+        assertThat(exportados).isEqualTo(7);
+        assertThat(exportadas).isEqualTo(esperadas);
+    }
+
+    @Test
+    void precoNaoFinitoEhRecusado() {
+        assertThatThrownBy(() -> new ExportacaoCatalogoService.Filtro(null, Double.NaN, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertMesmosProdutos(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId)
+            throws Exception {
+        List<Long> esperado = produtoRepository.findAll(
+                ProdutoSpecifications.comFiltros(nome, precoMinimo, precoMaximo, categoriaId), Sort.by("id"))
+                .stream().map(Produto::getId).toList();
+
+        List<String> linhas = csv(new ExportacaoCatalogoService.Filtro(nome, precoMinimo, precoMaximo, categoriaId));
+        List<Long> ids = linhas.stream().skip(1).map(l -> Long.valueOf(l.substring(0, l.indexOf(',')))).toList();
+        assertThat(ids).isEqualTo(esperado);
+    }
+
+    private List<String> csv(ExportacaoCatalogoService.Filtro filtro) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoCatalogoService.exportar(filtro, ExportacaoCatalogoService.Formato.CSV, false, saida);
+        return saida.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ImportacaoProdutosService.class, ProdutoListagemService.class})
+@TestPropertySource(properties = "app.produtos.lote.tamanho-transacao=100")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportacaoProdutosServiceTest {
+
+    @Autowired
+    private ImportacaoProdutosService importacao;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ProdutoListagemRepository listagemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long categoriaId;
+    private Long fornecedorId;
+
+    @BeforeEach
+    void popular() {
+        categoriaId = categoriaRepository.save(new Categoria("Eletrônicos")).getId();
+        fornecedorId = fornecedorRepository.save(new Fornecedor("Fornecedor A", "1111-1111", "a@exemplo.com")).getId();
+    }
+
+    @AfterEach
+    void limpar() {
+        listagemRepository.deleteAll();
+        produtoRepository.deleteAll();
+        fornecedorRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void ndjsonRelataCadaLinha() throws Exception {
+        String ndjson = String.join("\n",
+                produto("Produto válido", "10.0"),
+                produto("Preço negativo", "-1.0"),
+                "{\"nome\": \"Categoria inexistente\", \"preco\": 5.0, \"estoque\": 1, \"categoria\": {\"id\": 999999}}",
+                "{\"nome\": \"Preço com tipo errado\", \"preco\": \"caro\", \"estoque\": 1, \"categoria\": {\"id\": " + categoriaId + "}}",
+                produto("Outro válido", "20.0"));
+
+        ResultadoImportacao resultado = importacao.importar(entrada(ndjson));
+
+        assertThat(resultado.total()).isEqualTo(5);
+        assertThat(resultado.criados()).isEqualTo(2);
+        assertThat(resultado.linhas()).extracting(ResultadoImportacao.Linha::status).containsExactly(
+                ResultadoImportacao.Status.CRIADO,
+                ResultadoImportacao.Status.INVALIDO,
+                ResultadoImportacao.Status.INVALIDO,
+                ResultadoImportacao.Status.INVALIDO,
+                ResultadoImportacao.Status.CRIADO);
+        assertThat(resultado.linhas().get(1).erros()).anySatisfy(e -> assertThat(e).startsWith("preco:"));
+        assertThat(resultado.linhas().get(2).erros()).containsExactly("categoria: Categoria não encontrada");
+        assertThat(produtoRepository.count()).isEqualTo(2);
+        assertThat(listagemRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void arrayJsonEGravadoEmLotesJdbc() throws Exception {
+        int linhas = 250;
+        String array = IntStream.range(0, linhas)
+                .mapToObj(i -> produto("Produto " + i, String.valueOf(i)))
+                .collect(Collectors.joining(",", "[", "]"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResultadoImportacao resultado = importacao.importar(entrada(array));
+
+        assertThat(resultado.criados()).isEqualTo(linhas);
+        assertThat(produtoRepository.count()).isEqualTo(linhas);
+        assertThat(listagemRepository.findAll()).allSatisfy(l -> assertThat(l.getQuantidadeFornecedores()).isEqualTo(1));
+        // Por transação de 100 linhas: INSERTs em lotes de 50 nas quatro tabelas e um nextval por bloco de ids,
+        // bem abaixo de um comando por linha
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(linhas / 5);
+    }
+
+    private String produto(String nome, String preco) {
+        return "{\"nome\": \"" + nome + "\", \"preco\": " + preco + ", \"estoque\": 3, " +
+                "\"categoria\": {\"id\": " + categoriaId + "}, \"fornecedores\": [{\"id\": " + fornecedorId + "}], " +
+                "\"detalheProduto\": {\"dimensoes\": \"10x10x10\", \"peso\": 1.5, \"material\": \"Aço\"}}";
+    }
+
+    private static ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
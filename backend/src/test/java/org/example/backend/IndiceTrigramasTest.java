@@ -0,0 +1,82 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceTrigramasTest {
+
+    private static IndiceTrigramas indice(int maxCandidatos, Stream<Object[]> linhas) {
+        IndiceTrigramas indice = new IndiceTrigramas(null, maxCandidatos);
+        indice.construir(linhas);
+        return indice;
+    }
+
+    @Test
+    void buscaPorSubstringIgnoraCaixa() {
+        IndiceTrigramas indice = indice(100, Stream.of(
+                new Object[]{1L, "Notebook Gamer"}, new Object[]{2L, "notebook Air"}, new Object[]{3L, "Mouse"}));
+
+        assertThat(indice.buscarContendo("NOTEBOOK")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(indice.buscarContendo("teclado")).isEmpty();
+    }
+
+    // No LIKE, % e _ são curingas: o índice não os trata como literais e devolve a consulta ao banco
+    @Test
+    void termoComCuringaVaiAoLike() {
+        IndiceTrigramas indice = indice(100, Stream.<Object[]>of(new Object[]{1L, "Notebook 15_pol"}));
+
+        assertThat(indice.buscarContendo("15_pol")).isNull();
+        assertThat(indice.buscarContendo("note%gamer")).isNull();
+    }
+
+    // Com o teto de candidatos, os trigramas raros do termo são contados antes dos comuns a todos
+    @Test
+    void sugestoesComTetoDeCandidatosPriorizamTrigramasRaros() {
+        Stream<Object[]> produtos = LongStream.rangeClosed(1, 1_000)
+                .mapToObj(id -> new Object[]{id, "Produto " + id});
+        IndiceTrigramas indice = indice(5, Stream.concat(produtos,
+                Stream.<Object[]>of(new Object[]{5_000L, "Produto Notebook"})));
+
+        assertThat(indice.sugerir("produto notbook", 3))
+                .first()
+                .extracting(IndiceTrigramas.Sugestao::id)
+                .isEqualTo(5_000L);
+    }
+
+    // A consulta da reconstrução enxerga o snapshot anterior a escritas que fazem commit durante a leitura
+    @Test
+    void escritasDuranteAReconstrucaoSaoReaplicadas() {
+        IndiceTrigramas indice = indice(100, Stream.of(new Object[]{1L, "Mouse"}, new Object[]{2L, "Monitor"}));
+
+        Stream<Object[]> snapshot = Stream.of(new Object[]{1L, "Mouse"}, new Object[]{2L, "Monitor"},
+                new Object[]{3L, "Webcam"});
+        indice.construir(snapshot.peek(linha -> {
+            if (linha[0].equals(2L)) {
+                indice.indexar(1L, "Teclado");
+                indice.remover(2L);
+                indice.indexar(4L, "Headset");
+            }
+        }));
+
+        assertThat(indice.buscarContendo("teclado")).containsExactly(1L);
+        assertThat(indice.buscarContendo("mouse")).isEmpty();
+        assertThat(indice.buscarContendo("monitor")).isEmpty();
+        assertThat(indice.buscarContendo("webcam")).containsExactly(3L);
+        assertThat(indice.buscarContendo("headset")).containsExactly(4L);
+        assertThat(indice.tamanho()).isEqualTo(3);
+    }
+
+    @Test
+    void sugestoesOrdenadasPelaSimilaridade() {
+        IndiceTrigramas indice = indice(100, Stream.of(
+                new Object[]{1L, "Monitor"}, new Object[]{2L, "Monitor Gamer 27"}, new Object[]{3L, "Mouse"}));
+
+        assertThat(indice.sugerir("monitr", 2))
+                .extracting(IndiceTrigramas.Sugestao::id)
+                .containsExactly(1L, 2L);
+    }
+}
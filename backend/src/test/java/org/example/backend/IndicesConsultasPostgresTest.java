@@ -0,0 +1,249 @@
+package org.example.backend;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o plano de execução das consultas de produtos num PostgreSQL embarcado
+ * com as migrações aplicadas e um catálogo grande. Falha se alguma delas voltar a
+ * fazer Seq Scan em produtos ou produto_fornecedor (ex.: índice removido ou
+ * consulta alterada de forma que o índice deixe de ser usado).
+ * <p>
+ * As consultas são executadas pelos repositórios; o SQL gerado pelo Hibernate e os
+ * parâmetros de cada instrução são capturados no DataSource e repetidos sob EXPLAIN.
+ * <p>
+ * Também sobe o contexto JPA com ddl-auto: validate, conferindo as migrações contra as entidades.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IndicesConsultasPostgresTest.CapturaInstrucoes.class)
+class IndicesConsultasPostgresTest extends PostgresEmbarcado {
+
+    private static final int PRODUTOS = 200_000;
+
+    // Instruções executadas desde o último clear(), com os parâmetros de cada execução
+    private static final List<Instrucao> executadas = new CopyOnWriteArrayList<>();
+
+    // Cláusula where com algum predicado; a conjunção vazia de uma Specification pode virar "where 1=1"
+    private static final Pattern FILTRO = Pattern.compile(" where (?!1=1\\b)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ProdutoListagemRepository produtoListagemRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+
+    // Depois de PostgresEmbarcado.iniciarPostgres
+    @BeforeAll
+    static void popularBanco() {
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        // O banco é compartilhado com as outras classes: descarta o que elas deixaram
+        jdbc.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, detalhes_produto, fornecedores, " +
+                "categorias CASCADE");
+        jdbc.execute("INSERT INTO categorias (id, nome) SELECT g, 'Categoria ' || g FROM generate_series(1, 50) g");
+        jdbc.execute("INSERT INTO fornecedores (id, nome, telefone, email) " +
+                "SELECT g, 'Fornecedor ' || g, '0000-0000', 'f' || g || '@exemplo.com' FROM generate_series(1, 2000) g");
+        jdbc.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id) " +
+                "SELECT g, 'Produto ' || md5(g::text) || ' ' || g, (g % 10000) + 0.99, g % 500, (g % 50) + 1 " +
+                "FROM generate_series(1, " + PRODUTOS + ") g");
+        jdbc.execute("INSERT INTO produto_fornecedor (produto_id, fornecedor_id) " +
+                "SELECT id, (id % 2000) + 1 FROM produtos");
+        jdbc.execute("INSERT INTO produto_listagem (id, nome, preco, estoque, categoria_id, categoria_nome, " +
+                "quantidade_fornecedores) SELECT p.id, p.nome, p.preco, p.estoque, p.categoria_id, c.nome, 1 " +
+                "FROM produtos p JOIN categorias c ON c.id = p.categoria_id");
+        jdbc.execute("ANALYZE");
+    }
+
+    // Caminhos de consulta da aplicação; o SQL examinado é o que o Hibernate gera e envia ao banco
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+                Arguments.of("findByCategoria", (Consulta) teste -> teste.produtoRepository
+                        .findByCategoria(teste.categoriaRepository.getReferenceById(7L))),
+                Arguments.of("por categoria paginado (sort=nome)", (Consulta) teste -> teste.produtoRepository
+                        .findPageComAssociacoes(ProdutoSpecifications.comFiltros(null, null, null, 7L),
+                                PageRequest.of(2, 10, Sort.by("nome")))),
+                Arguments.of("listagem padrão (sort=nome)", (Consulta) teste -> teste.produtoRepository
+                        .findPageComAssociacoes(ProdutoSpecifications.comFiltros(null, null, null, null),
+                                PageRequest.of(0, 10, Sort.by("nome")))),
+                Arguments.of("filtro por faixa de preço", (Consulta) teste -> teste.produtoRepository
+                        .findPageComAssociacoes(ProdutoSpecifications.comFiltros(null, 100.0, 101.0, null),
+                                PageRequest.of(0, 10, Sort.by("preco")))),
+                Arguments.of("filtro por categoria e preço", (Consulta) teste -> teste.produtoRepository
+                        .findPageComAssociacoes(ProdutoSpecifications.comFiltros(null, 100.0, 500.0, 3L),
+                                PageRequest.of(0, 10, Sort.by("preco")))),
+                // Sem o índice de trigramas em memória: o LIKE e o count(*) com filtro por nome
+                Arguments.of("filtro por nome (LIKE)", (Consulta) teste -> teste.produtoRepository
+                        .findPageComAssociacoes(ProdutoSpecifications.comFiltros("1a2b3", null, null, null),
+                                PageRequest.of(0, 10, Sort.by("nome")))),
+                Arguments.of("filtro por nome sem contagem", (Consulta) teste -> teste.produtoRepository
+                        .findSlice(ProdutoSpecifications.comFiltros("1a2b3", null, null, null),
+                                PageRequest.of(1, 10, Sort.by("nome")))),
+                Arguments.of("paginação por cursor (nome, id)", (Consulta) teste -> {
+                    Map<String, Object> chaves = new LinkedHashMap<>();
+                    chaves.put("nome", "Produto 8");
+                    chaves.put("id", 500L);
+                    return teste.produtoRepository.findBy(ProdutoSpecifications.comFiltros(null, null, null, null),
+                            query -> query.sortBy(Sort.by("nome")).limit(10).scroll(ScrollPosition.forward(chaves)));
+                }),
+                Arguments.of("findByFornecedoresContains", (Consulta) teste -> teste.produtoRepository
+                        .findByFornecedoresContains(teste.fornecedorRepository.getReferenceById(42L))),
+                Arguments.of("findByEstoqueLessThanEqual", (Consulta) teste -> teste.produtoRepository
+                        .findByEstoqueLessThanEqual(2, PageRequest.of(0, 10, Sort.by("estoque")))),
+                // Limite acima do antigo índice parcial (estoque <= 10): o parâmetro vem da requisição
+                Arguments.of("findByEstoqueLessThanEqual (limite 50)", (Consulta) teste -> teste.produtoRepository
+                        .findByEstoqueLessThanEqual(50, PageRequest.of(0, 10, Sort.by("estoque")))),
+                Arguments.of("produto_listagem (sort=nome)", (Consulta) teste -> teste.produtoListagemRepository
+                        .findAll(ProdutoSpecifications.listagemComFiltros(null, null, null, 5L),
+                                PageRequest.of(0, 10, Sort.by("nome"))))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    void consultaNaoFazSeqScan(String descricao, Consulta consulta) {
+        executadas.clear();
+        consulta.executar(this);
+        List<Instrucao> instrucoes = List.copyOf(executadas);
+        assertThat(instrucoes).as(descricao).isNotEmpty();
+
+        for (Instrucao instrucao : instrucoes) {
+            // count(*) sem filtro lê a tabela inteira por definição
+            if (instrucao.sql().startsWith("select count(") && !FILTRO.matcher(instrucao.sql()).find()) {
+                continue;
+            }
+            String plano = explicar(instrucao);
+            for (String tabela : List.of("produtos", "produto_fornecedor", "produto_listagem")) {
+                assertThat(plano)
+                        .as("%s:%n%s%n%s", descricao, instrucao.sql(), plano)
+                        .doesNotContainPattern("Seq Scan on " + tabela + "\\b");
+            }
+        }
+    }
+
+    // EXPLAIN da instrução com os mesmos parâmetros, repetindo as chamadas set* feitas pelo Hibernate
+    private String explicar(Instrucao instrucao) {
+        return jdbcTemplate.query("EXPLAIN " + instrucao.sql(), statement -> {
+            for (Parametro parametro : instrucao.parametros()) {
+                try {
+                    parametro.metodo().invoke(statement, parametro.argumentos());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }, (linha, numero) -> linha.getString(1)).stream().collect(Collectors.joining("\n"));
+    }
+
+    interface Consulta {
+        Object executar(IndicesConsultasPostgresTest teste);
+    }
+
+    record Parametro(Method metodo, Object[] argumentos) {}
+
+    record Instrucao(String sql, List<Parametro> parametros) {}
+
+    // Envolve o DataSource para registrar o SQL e os parâmetros de cada PreparedStatement executado
+    @TestConfiguration
+    static class CapturaInstrucoes {
+        @Bean
+        static BeanPostProcessor capturarInstrucoes() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nome) {
+                    return bean instanceof DataSource dataSource ? capturar(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource capturar(DataSource dataSource) {
+            return proxy(DataSource.class, (metodo, argumentos) -> {
+                Object resultado = invocar(dataSource, metodo, argumentos);
+                return resultado instanceof Connection conexao ? capturar(conexao) : resultado;
+            });
+        }
+
+        private static Connection capturar(Connection conexao) {
+            return proxy(Connection.class, (metodo, argumentos) -> {
+                Object resultado = invocar(conexao, metodo, argumentos);
+                return metodo.getName().equals("prepareStatement") && resultado instanceof PreparedStatement statement
+                        ? capturar(statement, (String) argumentos[0])
+                        : resultado;
+            });
+        }
+
+        private static PreparedStatement capturar(PreparedStatement statement, String sql) {
+            List<Parametro> parametros = new ArrayList<>();
+            return proxy(PreparedStatement.class, (metodo, argumentos) -> {
+                String nome = metodo.getName();
+                if (nome.startsWith("set") && argumentos != null && argumentos.length >= 2
+                        && argumentos[0] instanceof Integer) {
+                    parametros.add(new Parametro(metodo, argumentos.clone()));
+                } else if (nome.equals("clearParameters")) {
+                    parametros.clear();
+                } else if (nome.startsWith("execute")) {
+                    executadas.add(new Instrucao(sql, List.copyOf(parametros)));
+                }
+                return invocar(statement, metodo, argumentos);
+            });
+        }
+
+        private interface Chamada {
+            Object invocar(Method metodo, Object[] argumentos) throws Throwable;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, Chamada chamada) {
+            return (T) Proxy.newProxyInstance(IndicesConsultasPostgresTest.class.getClassLoader(),
+                    new Class<?>[]{tipo}, (instancia, metodo, argumentos) -> chamada.invocar(metodo, argumentos));
+        }
+
+        private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(alvo, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModoExportacaoTest {
+
+    private static WebApplicationType tipoAposPreparar(MockEnvironment ambiente) {
+        SpringApplication aplicacao = new SpringApplication(BackendApplication.class);
+        aplicacao.setWebApplicationType(WebApplicationType.SERVLET);
+        new BackendApplication.ModoExportacao().onApplicationEvent(new ApplicationEnvironmentPreparedEvent(
+                new DefaultBootstrapContext(), aplicacao, new String[0], ambiente));
+        return aplicacao.getWebApplicationType();
+    }
+
+    @Test
+    void exportacaoSobeSemServidorWeb() {
+        assertThat(tipoAposPreparar(new MockEnvironment().withProperty("app.exportacao.saida", "/tmp/produtos.csv")))
+                .isEqualTo(WebApplicationType.NONE);
+    }
+
+    @Test
+    void semExportacaoMantemOServidor() {
+        assertThat(tipoAposPreparar(new MockEnvironment())).isEqualTo(WebApplicationType.SERVLET);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaginatedResponseTest {
+
+    @Test
+    void semContagemNaoMarcaTotalComoAproximado() {
+        PaginatedResponse<String> response = PaginatedResponse.of(new SliceImpl<>(List.of("a"), PageRequest.of(0, 10), true));
+
+        assertThat(response.getTotalElements()).isEqualTo(-1);
+        assertThat(response.getTotalPages()).isEqualTo(-1);
+        assertThat(response.isTotalAproximado()).isFalse();
+    }
+
+    @Test
+    void ultimaPaginaComConteudoTemTotalExato() {
+        PaginatedResponse<String> response = PaginatedResponse.of(
+                new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 10), false), 500);
+
+        assertThat(response.getTotalElements()).isEqualTo(32);
+        assertThat(response.getTotalPages()).isEqualTo(4);
+        assertThat(response.isTotalAproximado()).isFalse();
+    }
+
+    // Uma página além do fim vem vazia e com isLast(): número * tamanho não é o total
+    @Test
+    void paginaAlemDoFimUsaAEstimativa() {
+        PaginatedResponse<String> response = PaginatedResponse.of(
+                new SliceImpl<>(List.of(), PageRequest.of(50, 10), false), 320);
+
+        assertThat(response.getTotalElements()).isEqualTo(320);
+        assertThat(response.getTotalPages()).isEqualTo(32);
+        assertThat(response.isTotalAproximado()).isTrue();
+    }
+
+    @Test
+    void primeiraPaginaVaziaTemTotalZeroExato() {
+        PaginatedResponse<String> response = PaginatedResponse.of(
+                new SliceImpl<>(List.of(), PageRequest.of(0, 10), false), 320);
+
+        assertThat(response.getTotalElements()).isZero();
+        assertThat(response.isTotalAproximado()).isFalse();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+// Base dos testes contra um PostgreSQL embarcado. Um único banco para a JVM inteira, parado pelo
+// shutdown hook do próprio EmbeddedPostgres: classes com a mesma configuração reaproveitam o
+// contexto do cache do Spring, e o datasource dele continua apontando para um banco vivo. Cada
+// classe apaga e recria os próprios dados. Os métodos têm nomes próprios para não serem ocultados
+// pelos @BeforeAll e @DynamicPropertySource das subclasses, que rodam depois destes.
+abstract class PostgresEmbarcado {
+
+    protected static EmbeddedPostgres postgres;
+
+    // Para os testes que importam serviços com métricas (ProdutoService)
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeAll
+    static synchronized void iniciarPostgres() throws IOException {
+        // O PostgreSQL se recusa a rodar como root. Localmente os testes são ignorados; na CI
+        // (variável CI definida) falham, para que a suíte não passe sem nunca ter tocado no banco.
+        if ("root".equals(System.getProperty("user.name"))) {
+            if (System.getenv("CI") != null) {
+                fail("PostgreSQL embarcado não roda como root: execute os testes na CI com um usuário comum");
+            }
+            abort("PostgreSQL embarcado não roda como root");
+        }
+        if (postgres == null) {
+            postgres = EmbeddedPostgres.builder().start();
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasourcePostgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+}
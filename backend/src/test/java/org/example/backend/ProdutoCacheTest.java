@@ -0,0 +1,77 @@
+package org.example.backend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProdutoCacheTest {
+
+    private final AtomicInteger cargas = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ProdutoView carregar(Long id) {
+        cargas.incrementAndGet();
+        return id > 100 ? null : new ProdutoView(id, "Produto " + id, 10.0, 1, null, null, List.of());
+    }
+
+    @Test
+    void falhasConcorrentesParaOMesmoIdFazemUmaUnicaCarga() throws Exception {
+        CountDownLatch liberarCarga = new CountDownLatch(1);
+        ProdutoCache cache = new ProdutoCache(id -> {
+            try {
+                liberarCarga.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return carregar(id);
+        }, 100, 60_000, registry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<ProdutoView>> resultados = IntStream.range(0, 16)
+                    .mapToObj(i -> executor.submit(() -> cache.buscar(1L)))
+                    .toList();
+            Thread.sleep(100);
+            liberarCarga.countDown();
+            for (Future<ProdutoView> resultado : resultados) {
+                assertThat(resultado.get().nome()).isEqualTo("Produto 1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void alteracaoInvalidaAEntrada() {
+        ProdutoCache cache = new ProdutoCache(this::carregar, 100, 60_000, registry);
+
+        cache.buscar(1L);
+        cache.buscar(1L);
+        cache.aoAlterarProduto(new ProdutoAlteradoEvent(1L, null, null));
+        cache.buscar(1L);
+
+        assertThat(cargas).hasValue(2);
+        assertThat(registry.get("cache.gets").tag("cache", "produtos").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void produtoInexistenteNaoFicaEmCache() {
+        ProdutoCache cache = new ProdutoCache(this::carregar, 100, 60_000, registry);
+
+        assertThat(cache.buscar(999L)).isNull();
+        assertThat(cache.buscar(999L)).isNull();
+
+        assertThat(cargas).hasValue(2);
+    }
+}
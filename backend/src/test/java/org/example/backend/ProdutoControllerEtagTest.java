@@ -0,0 +1,97 @@
+package org.example.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProdutoControllerEtagTest {
+
+    private final ProdutoService produtoService = mock(ProdutoService.class);
+    private final VersaoCatalogo versaoCatalogo = new VersaoCatalogo(true);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        ProdutoController controller = new ProdutoController(
+                produtoService, mock(ProdutoListagemService.class), new ObjectMapper(), versaoCatalogo,
+                mock(ImportacaoProdutosService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(produtoService.buscarViewPorId(1L))
+                .thenReturn(new ProdutoView(1L, "Produto 1", 10.0, 5, null, null, List.of()));
+    }
+
+    @Test
+    void ifNoneMatchComVersaoAtualDevolve304SemConsultar() throws Exception {
+        String etag = versaoCatalogo.etagProduto(1L);
+
+        mockMvc.perform(get("/produtos/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verifyNoInteractions(produtoService);
+    }
+
+    @Test
+    void escritaNoProdutoTrocaAETag() throws Exception {
+        String antiga = versaoCatalogo.etagProduto(1L);
+        versaoCatalogo.aoAlterarProduto(new ProdutoAlteradoEvent(1L, null, null));
+
+        mockMvc.perform(get("/produtos/1").header(HttpHeaders.IF_NONE_MATCH, antiga))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versaoCatalogo.etagProduto(1L)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.nome").value("Produto 1"));
+
+        verify(produtoService).buscarViewPorId(1L);
+    }
+
+    @Test
+    void listagemPorFornecedorUsaVersaoDaTabela() throws Exception {
+        String etag = versaoCatalogo.etagListagem();
+
+        mockMvc.perform(get("/produtos/fornecedor/7").header(HttpHeaders.IF_NONE_MATCH, "\"outra\", " + etag))
+                .andExpect(status().isNotModified());
+
+        versaoCatalogo.aoAlterarProduto(new ProdutoAlteradoEvent(42L, null, null));
+        when(produtoService.buscarPorFornecedor(7L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/produtos/fornecedor/7").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    // A versão da faixa existe para qualquer id: "*" não pode afirmar que o produto existe
+    @Test
+    void ifNoneMatchCuringaConsultaOProduto() throws Exception {
+        when(produtoService.buscarViewPorId(2L)).thenThrow(new EntityNotFoundException("Produto não encontrado com id: 2"));
+
+        mockMvc.perform(get("/produtos/2").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+
+        verify(produtoService).buscarViewPorId(2L);
+    }
+
+    // Com mais de uma instância as versões locais não enxergam as escritas das outras
+    @Test
+    void etagsDesligadasSempreConsultam() throws Exception {
+        ProdutoController controller = new ProdutoController(
+                produtoService, mock(ProdutoListagemService.class), new ObjectMapper(), new VersaoCatalogo(false),
+                mock(ImportacaoProdutosService.class));
+        MockMvc semEtag = MockMvcBuilders.standaloneSetup(controller).build();
+
+        semEtag.perform(get("/produtos/1").header(HttpHeaders.IF_NONE_MATCH, versaoCatalogo.etagProduto(1L)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(produtoService).buscarViewPorId(1L);
+    }
+}
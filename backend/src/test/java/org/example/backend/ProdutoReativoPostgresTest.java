@@ -0,0 +1,134 @@
+package org.example.backend;
+
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// O catálogo reativo (R2DBC) deve responder exatamente o que ProdutoSpecifications.comFiltros
+// responde pelo JPA, sobre o mesmo PostgreSQL embarcado
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProdutoReativoPostgresTest extends PostgresEmbarcado {
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProdutoReativoRepository produtoReativoRepository;
+    private ProdutoReativoService produtoReativoService;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.execute("TRUNCATE produto_listagem, produto_fornecedor, produtos, detalhes_produto, " +
+                "fornecedores, categorias CASCADE");
+        jdbcTemplate.execute("INSERT INTO categorias (id, nome) VALUES (1, 'Informática'), (2, 'Escritório')");
+        jdbcTemplate.execute("INSERT INTO detalhes_produto (id, dimensoes, peso, material) " +
+                "VALUES (1, '30x20x2', 1.4, 'Alumínio')");
+        jdbcTemplate.execute("INSERT INTO fornecedores (id, nome, telefone, email) VALUES " +
+                "(1, 'Distribuidora A', '1111', 'a@exemplo.com'), (2, 'Distribuidora B', '2222', 'b@exemplo.com')");
+        jdbcTemplate.execute("INSERT INTO produtos (id, nome, preco, estoque, categoria_id, detalhe_produto_id) VALUES " +
+                "(1, 'Notebook Pro', 7999.9, 5, 1, 1), (2, 'notebook Air', 5499.9, 8, 1, NULL), " +
+                "(3, 'Mouse', 89.9, 100, 1, NULL), (4, 'Teclado', 149.9, 40, 1, NULL), " +
+                "(5, 'Caderno', 19.9, 300, 2, NULL), (6, 'Grampeador', 34.9, 60, 2, NULL), " +
+                "(7, 'Monitor 4K', 2499.9, 12, 1, NULL)");
+        jdbcTemplate.execute("INSERT INTO produto_fornecedor (produto_id, fornecedor_id) VALUES (1, 2), (1, 1), (3, 1)");
+
+        produtoReativoRepository = new ProdutoReativoRepository(ConnectionFactories.get(
+                "r2dbc:postgresql://postgres@localhost:" + postgres.getPort() + "/postgres"));
+        // Índice não construído: o filtro por nome usa o LIKE, como no JPA
+        produtoReativoService = new ProdutoReativoService(
+                produtoReativoRepository, new IndiceTrigramas(produtoRepository, 10_000));
+    }
+
+    @AfterEach
+    void fechar() {
+        produtoReativoRepository.fechar();
+    }
+
+    @Test
+    void listagemCoincideComAEspecificacaoJpa() {
+        assertMesmaListagem(null, null, null, null, PageRequest.of(0, 3, Sort.by("nome")));
+        assertMesmaListagem(null, null, null, null, PageRequest.of(2, 3, Sort.by("nome")));
+        assertMesmaListagem("NOTEBOOK", null, null, null, PageRequest.of(0, 10, Sort.by("nome")));
+        assertMesmaListagem(null, 50.0, 2500.0, 1L, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "preco")));
+        assertMesmaListagem("o", null, 150.0, null, PageRequest.of(0, 2, Sort.by("estoque")));
+        assertMesmaListagem(null, null, null, 2L, PageRequest.of(0, 10, Sort.by("categoria.nome", "nome")));
+        assertMesmaListagem("inexistente", null, null, null, PageRequest.of(0, 10, Sort.by("nome")));
+    }
+
+    @Test
+    void semContagemIndicaSeHaProximaPagina() {
+        PaginatedResponse<ProdutoView> primeira = produtoReativoService.listarComFiltrosSemContagem(
+                null, null, null, null, PageRequest.of(0, 5, Sort.by("nome"))).block();
+        PaginatedResponse<ProdutoView> ultima = produtoReativoService.listarComFiltrosSemContagem(
+                null, null, null, null, PageRequest.of(1, 5, Sort.by("nome"))).block();
+
+        assertThat(primeira.getContent()).hasSize(5);
+        assertThat(primeira.isLast()).isFalse();
+        assertThat(primeira.getTotalElements()).isEqualTo(-1);
+        assertThat(ultima.getContent()).hasSize(2);
+        assertThat(ultima.isLast()).isTrue();
+    }
+
+    @Test
+    void buscarPorIdCoincideComAEntidade() {
+        ProdutoView esperado = new TransactionTemplate(transactionManager).execute(status ->
+                ProdutoView.of(produtoRepository.findByIdComAssociacoes(1L).orElseThrow()));
+
+        assertThat(produtoReativoService.buscarPorId(1L).block()).isEqualTo(esperado);
+        assertThat(produtoReativoService.buscarPorId(99L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void ordenacaoPorPropriedadeDesconhecidaEhRecusada() {
+        assertThatThrownBy(() -> ProdutoReativoRepository.validarOrdenacao(Sort.by("fornecedores")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void urlJdbcViraUrlR2dbc() {
+        assertThat(ProdutoReativoRepository.urlR2dbc("jdbc:postgresql://localhost:5432/exemplo?reWriteBatchedInserts=true"))
+                .isEqualTo("r2dbc:postgresql://localhost:5432/exemplo");
+    }
+
+    private void assertMesmaListagem(String nome, Double precoMinimo, Double precoMaximo, Long categoriaId,
+                                     Pageable pageable) {
+        Page<Long> esperado = produtoRepository.findAll(
+                ProdutoSpecifications.comFiltros(nome, precoMinimo, precoMaximo, categoriaId), pageable)
+                .map(Produto::getId);
+
+        PaginatedResponse<ProdutoView> resposta = produtoReativoService.listarComFiltrosEPaginacao(
+                nome, precoMinimo, precoMaximo, categoriaId, pageable).block();
+
+        List<Long> ids = resposta.getContent().stream().map(ProdutoView::id).toList();
+        assertThat(ids).isEqualTo(esperado.getContent());
+        assertThat(resposta.getTotalElements()).isEqualTo(esperado.getTotalElements());
+        assertThat(resposta.getTotalPages()).isEqualTo(esperado.getTotalPages());
+        assertThat(resposta.isFirst()).isEqualTo(esperado.isFirst());
+        assertThat(resposta.isLast()).isEqualTo(esperado.isLast());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.backend;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 em memória: o esquema vem das entidades, pois as migrações são específicas do PostgreSQL
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ProdutoRepositoryConsultasTest {
+
+    private static final int TOTAL_PRODUTOS = 60;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void popularCatalogo() {
+        Categoria categoria = new Categoria("Eletrônicos");
+        entityManager.persist(categoria);
+        Fornecedor fornecedorA = new Fornecedor("Fornecedor A", "1111-1111", "a@exemplo.com");
+        Fornecedor fornecedorB = new Fornecedor("Fornecedor B", "2222-2222", "b@exemplo.com");
+        entityManager.persist(fornecedorA);
+        entityManager.persist(fornecedorB);
+
+        for (int i = 0; i < TOTAL_PRODUTOS; i++) {
+            Produto produto = new Produto("Produto " + i, 100.0 + i, i, categoria);
+            produto.setDetalheProduto(new DetalheProduto("10x10x10", 1.0, "Plástico"));
+            produto.adicionarFornecedor(fornecedorA);
+            produto.adicionarFornecedor(fornecedorB);
+            entityManager.persist(produto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // ids da página + count(*) + produtos com to-one + fornecedores; o count é dispensado
+    // quando a primeira página já contém todos os registros
+    @ParameterizedTest
+    @CsvSource({"5, 4", "20, 4", "50, 4", "100, 3"})
+    void paginaComAssociacoesExecutaNumeroFixoDeConsultas(int tamanhoPagina, long consultasEsperadas) {
+        Page<Produto> page = produtoRepository.findPageComAssociacoes(
+                ProdutoSpecifications.comFiltros(null, null, null, null),
+                PageRequest.of(0, tamanhoPagina, Sort.by("nome")));
+
+        assertThat(page.getContent()).hasSize(Math.min(tamanhoPagina, TOTAL_PRODUTOS));
+        assertThat(page.getTotalElements()).isEqualTo(TOTAL_PRODUTOS);
+
+        // Serializar a página não pode disparar novas consultas
+        for (Produto produto : page.getContent()) {
+            assertThat(Hibernate.isInitialized(produto.getCategoria())).isTrue();
+            assertThat(Hibernate.isInitialized(produto.getDetalheProduto())).isTrue();
+            assertThat(Hibernate.isInitialized(produto.getFornecedores())).isTrue();
+            assertThat(produto.getFornecedores()).hasSize(2);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(consultasEsperadas);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"5", "50"})
+    void paginaMantemOrdenacaoSolicitada(int tamanhoPagina) {
+        Page<Produto> page = produtoRepository.findPageComAssociacoes(
+                ProdutoSpecifications.comFiltros(null, null, null, null),
+                PageRequest.of(0, tamanhoPagina, Sort.by(Sort.Direction.DESC, "preco")));
+
+        assertThat(page.getContent())
+                .extracting(Produto::getPreco)
+                .isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+}
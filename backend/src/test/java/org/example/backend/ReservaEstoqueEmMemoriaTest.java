@@ -0,0 +1,236 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservaEstoqueEmMemoriaTest {
+
+    private static final long PRODUTO = 1L;
+    private static final int RESERVADORES = 400;
+
+    // Simula a coluna estoque do produto no banco, com a baixa condicional
+    private final AtomicInteger banco = new AtomicInteger();
+    private final AtomicBoolean falharArrendamento = new AtomicBoolean();
+    private final AtomicBoolean falharDevolucao = new AtomicBoolean();
+
+    private final ReservaEstoqueEmMemoria.Banco simulado = new ReservaEstoqueEmMemoria.Banco() {
+        @Override
+        public boolean arrendar(long id, int quantidade) {
+            if (falharArrendamento.get()) {
+                throw new IllegalStateException("banco indisponível");
+            }
+            if (id != PRODUTO) {
+                return false;
+            }
+            while (true) {
+                int atual = banco.get();
+                if (atual < quantidade) {
+                    return false;
+                }
+                if (banco.compareAndSet(atual, atual - quantidade)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public boolean devolver(long id, int quantidade) {
+            if (falharDevolucao.get()) {
+                throw new IllegalStateException("banco indisponível");
+            }
+            if (id != PRODUTO) {
+                return false;
+            }
+            banco.addAndGet(quantidade);
+            return true;
+        }
+
+        @Override
+        public boolean existe(long id) {
+            return id == PRODUTO;
+        }
+    };
+
+    private ReservaEstoqueEmMemoria reserva(int lote) {
+        return new ReservaEstoqueEmMemoria(Set.of(PRODUTO, 2L), 16, lote, simulado);
+    }
+
+    @Test
+    void reservasConcorrentesNuncaUltrapassamOEstoque() throws Exception {
+        banco.set(10_000);
+        ReservaEstoqueEmMemoria reserva = reserva(50);
+
+        int vendidas = somar(executar(RESERVADORES, () -> reservarAteAcabar(reserva)));
+        reserva.devolverSobras();
+
+        assertThat(vendidas).isEqualTo(10_000);
+        assertThat(reserva.disponivelEmMemoria(PRODUTO)).isZero();
+        assertThat(banco.get()).isZero();
+    }
+
+    // Duas instâncias com os mesmos ids de alta contenção disputam o mesmo estoque
+    @Test
+    void instanciasConcorrentesNaoVendemAlemDoEstoque() throws Exception {
+        banco.set(10_000);
+        ReservaEstoqueEmMemoria primeira = reserva(64);
+        ReservaEstoqueEmMemoria segunda = reserva(64);
+
+        int vendidas = somar(executar(RESERVADORES, () -> reservarAteAcabar(
+                ThreadLocalRandom.current().nextBoolean() ? primeira : segunda)));
+        primeira.devolverSobras();
+        segunda.devolverSobras();
+
+        assertThat(vendidas).isEqualTo(10_000);
+        assertThat(banco.get()).isZero();
+    }
+
+    // PUTs no produto fecham o contador no meio das reservas: nenhuma unidade pode se perder
+    @Test
+    void fechamentoConcorrenteNaoPerdeUnidades() throws Exception {
+        banco.set(5_000);
+        ReservaEstoqueEmMemoria reserva = reserva(20);
+        AtomicBoolean executando = new AtomicBoolean(true);
+        Thread alteracoes = Thread.ofPlatform().start(() -> {
+            while (executando.get()) {
+                reserva.aoAlterarProduto(new ProdutoAlteradoEvent(PRODUTO, null, null));
+                Thread.onSpinWait();
+            }
+        });
+
+        AtomicLong liquido = new AtomicLong();
+        try {
+            executar(RESERVADORES, () -> {
+                for (int i = 0; i < 200; i++) {
+                    int quantidade = ThreadLocalRandom.current().nextInt(1, 4);
+                    if (i % 3 == 2) {
+                        if (reserva.liberar(PRODUTO, quantidade) == EstoqueService.Resultado.EFETUADO) {
+                            liquido.addAndGet(-quantidade);
+                        }
+                    } else if (reserva.reservar(PRODUTO, quantidade) == EstoqueService.Resultado.EFETUADO) {
+                        liquido.addAndGet(quantidade);
+                    }
+                }
+                return 0;
+            });
+        } finally {
+            executando.set(false);
+            alteracoes.join();
+        }
+        reserva.devolverSobras();
+
+        assertThat(banco.get()).isEqualTo(5_000 - liquido.get());
+    }
+
+    @Test
+    void quantidadeMaiorQueUmaFaixaJuntaAsFaixas() {
+        banco.set(100);
+        ReservaEstoqueEmMemoria reserva = reserva(30);
+
+        assertThat(reserva.reservar(PRODUTO, 90)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(reserva.reservar(PRODUTO, 11)).isEqualTo(EstoqueService.Resultado.INSUFICIENTE);
+        assertThat(reserva.reservar(PRODUTO, 10)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(reserva.reservar(PRODUTO, 1)).isEqualTo(EstoqueService.Resultado.INSUFICIENTE);
+        assertThat(reserva.liberar(PRODUTO, 5)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(reserva.reservar(PRODUTO, 5)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(banco.get()).isZero();
+    }
+
+    // Com menos de um lote no banco, arrenda só o que falta para a reserva
+    @Test
+    @Timeout(5)
+    void fimDoEstoqueArrendaSoOQueFalta() {
+        banco.set(10_050);
+        ReservaEstoqueEmMemoria reserva = reserva(1_000);
+
+        assertThat(reserva.reservar(PRODUTO, 10_001)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(banco.get()).isEqualTo(49);
+        assertThat(reserva.reservar(PRODUTO, 50)).isEqualTo(EstoqueService.Resultado.INSUFICIENTE);
+        assertThat(reserva.reservar(PRODUTO, 49)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        assertThat(banco.get()).isZero();
+        assertThat(reserva.disponivelEmMemoria(PRODUTO)).isZero();
+    }
+
+    // A reserva recebe uma resposta final: nada fica pendente de gravação depois dela
+    @Test
+    void falhaAoArrendarRecusaAReserva() {
+        banco.set(10);
+        ReservaEstoqueEmMemoria reserva = reserva(100);
+        falharArrendamento.set(true);
+
+        assertThatThrownBy(() -> reserva.reservar(PRODUTO, 3)).isInstanceOf(IllegalStateException.class);
+
+        falharArrendamento.set(false);
+        assertThat(reserva.reservar(PRODUTO, 3)).isEqualTo(EstoqueService.Resultado.EFETUADO);
+        reserva.devolverSobras();
+        assertThat(banco.get()).isEqualTo(7);
+    }
+
+    @Test
+    void falhaAoDevolverMantemAsSobras() {
+        banco.set(200);
+        ReservaEstoqueEmMemoria reserva = reserva(100);
+        reserva.reservar(PRODUTO, 3);
+
+        falharDevolucao.set(true);
+        reserva.devolverSobras();
+        assertThat(reserva.disponivelEmMemoria(PRODUTO)).isEqualTo(97);
+        reserva.aoAlterarProduto(new ProdutoAlteradoEvent(PRODUTO, null, null));
+        assertThat(banco.get()).isEqualTo(100);
+
+        falharDevolucao.set(false);
+        reserva.devolverSobras();
+        assertThat(banco.get()).isEqualTo(197);
+    }
+
+    @Test
+    void produtoInexistente() {
+        ReservaEstoqueEmMemoria reserva = reserva(100);
+
+        assertThat(reserva.reservar(2L, 1)).isEqualTo(EstoqueService.Resultado.NAO_ENCONTRADO);
+        assertThat(reserva.liberar(2L, 1)).isEqualTo(EstoqueService.Resultado.NAO_ENCONTRADO);
+    }
+
+    private static int reservarAteAcabar(ReservaEstoqueEmMemoria reserva) {
+        int reservadas = 0;
+        while (reserva.reservar(PRODUTO, 1) == EstoqueService.Resultado.EFETUADO) {
+            reservadas++;
+        }
+        return reservadas;
+    }
+
+    private static int somar(List<Integer> valores) {
+        return valores.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static <T> List<T> executar(int threads, Callable<T> tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futuros.add(executor.submit(tarefa));
+            }
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
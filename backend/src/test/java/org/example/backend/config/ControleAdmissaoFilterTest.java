@@ -0,0 +1,137 @@
+package org.example.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ControleAdmissaoFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void milharesDeRequisicoesEmThreadsVirtuaisRespeitamAsPermissoes() throws Exception {
+        ControleAdmissaoFilter filtro = new ControleAdmissaoFilter(10, 10_000, Duration.ofSeconds(30), registry);
+        AtomicInteger emExecucao = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            maximo.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            emExecucao.decrementAndGet();
+        };
+
+        List<Future<Integer>> status = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 3000; i++) {
+                status.add(executor.submit(() -> executar(filtro, chain, "/api/produtos")));
+            }
+        }
+
+        for (Future<Integer> s : status) {
+            assertThat(s.get()).isEqualTo(200);
+        }
+        assertThat(maximo.get()).isLessThanOrEqualTo(10);
+        assertThat(registry.get("admissao.espera").timer().count()).isEqualTo(3000);
+        assertThat(registry.get("admissao.fila").gauge().value()).isZero();
+    }
+
+    @Test
+    void filaCheiaEEsperaEsgotadaRespondem503() throws Exception {
+        ControleAdmissaoFilter filtro = new ControleAdmissaoFilter(1, 1, Duration.ofMillis(200), registry);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupada = new CountDownLatch(1);
+        FilterChain bloqueante = (request, response) -> {
+            ocupada.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> primeira = executor.submit(() -> executar(filtro, bloqueante, "/api/produtos"));
+            ocupada.await();
+            Future<Integer> naFila = executor.submit(() -> executar(filtro, (req, res) -> { }, "/api/produtos"));
+            while (registry.get("admissao.fila").gauge().value() < 1) {
+                Thread.sleep(1);
+            }
+
+            assertThat(executar(filtro, (req, res) -> { }, "/api/produtos")).isEqualTo(503);
+            assertThat(naFila.get()).isEqualTo(503);
+            // Health check não passa pelo semáforo
+            assertThat(executar(filtro, (req, res) -> { }, "/api/actuator/health")).isEqualTo(200);
+
+            liberar.countDown();
+            assertThat(primeira.get()).isEqualTo(200);
+        }
+
+        assertThat(registry.get("admissao.rejeitadas").tag("motivo", "fila-cheia").counter().count()).isEqualTo(1);
+        assertThat(registry.get("admissao.rejeitadas").tag("motivo", "tempo-esgotado").counter().count()).isEqualTo(1);
+        assertThat(registry.get("admissao.em.uso").gauge().value()).isZero();
+    }
+
+    // StreamingResponseBody: doFilter retorna com a requisição assíncrona iniciada e o corpo
+    // ainda sendo escrito; a permissão só volta quando o fluxo termina
+    @Test
+    void respostaEmFluxoMantemAPermissaoAteTerminar() throws Exception {
+        ControleAdmissaoFilter filtro = new ControleAdmissaoFilter(1, 0, Duration.ofMillis(50), registry);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain streaming = (request, response) -> {
+            AsyncContext async = request.startAsync();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    liberar.await();
+                    response.getOutputStream().write("produtos".getBytes(StandardCharsets.UTF_8));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    async.complete();
+                }
+            });
+        };
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/produtos/todos/stream");
+        request.setContextPath("/api");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, streaming);
+
+        assertThat(request.isAsyncStarted()).isTrue();
+        assertThat(registry.get("admissao.em.uso").gauge().value()).isEqualTo(1);
+        assertThat(executar(filtro, (req, res) -> { }, "/api/produtos")).isEqualTo(503);
+
+        liberar.countDown();
+        while (registry.get("admissao.em.uso").gauge().value() > 0) {
+            Thread.sleep(1);
+        }
+        assertThat(response.getContentAsString()).isEqualTo("produtos");
+        assertThat(executar(filtro, (req, res) -> { }, "/api/produtos")).isEqualTo(200);
+    }
+
+    private static int executar(ControleAdmissaoFilter filtro, FilterChain chain, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath("/api");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, chain);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutorPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ExecutorPasswordEncoder encoder;
+
+    @AfterEach
+    void fechar() {
+        encoder.close();
+    }
+
+    @Test
+    void verificaNoPoolERegistraMetricas() {
+        encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, registry);
+
+        String hash = encoder.encode("admin123");
+
+        assertThat(encoder.matches("admin123", hash)).isTrue();
+        assertThat(encoder.matches("errada", hash)).isFalse();
+        assertThat(registry.get("auth.senha.hash").timer().count()).isEqualTo(3);
+        assertThat(registry.get("auth.senha.espera").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void filaCheiaRecusaImediatamente() throws Exception {
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                iniciado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new ExecutorPasswordEncoder(lento, 1, 1, registry);
+
+        // Um em execução e um na fila
+        Thread emExecucao = Thread.ofVirtual().start(() -> encoder.matches("a", "x"));
+        iniciado.await();
+        Thread naFila = Thread.ofVirtual().start(() -> encoder.matches("b", "x"));
+        while (registry.get("auth.senha.fila").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.matches("c", "x")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(registry.get("auth.senha.rejeitadas").counter().count()).isEqualTo(1);
+
+        liberar.countDown();
+        emExecucao.join();
+        naFila.join();
+    }
+
+    @Test
+    void loginComCustoMenorAtualizaOHash() {
+        encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, registry);
+        User usuario = new User("admin", new BCryptPasswordEncoder(4).encode("admin123"), Set.of("ROLE_ADMIN"));
+        AtomicReference<String> novoHash = new AtomicReference<>();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(username -> usuario);
+        provider.setUserDetailsPasswordService((UserDetails user, String newPassword) -> {
+            novoHash.set(newPassword);
+            return user;
+        });
+
+        Authentication autenticado = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin123"));
+
+        // O principal é o próprio User carregado: o login não consulta o usuário de novo
+        assertThat(autenticado.getPrincipal()).isSameAs(usuario);
+        assertThat(novoHash.get()).startsWith("$2a$05$");
+        assertThat(encoder.matches("admin123", novoHash.get())).isTrue();
+    }
+
+    // A senha já foi verificada: sem vaga para o novo hash, o login vale com o hash antigo
+    @Test
+    void hashRecusadoAposOLoginMantemOHashAntigo() {
+        // Só o novo hash da senha é recusado; o provider também codifica uma senha fictícia
+        // (proteção contra ataque de tempo) no primeiro login
+        encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(5) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("admin123".contentEquals(rawPassword)) {
+                    throw new PasswordHashingRejectedException();
+                }
+                return super.encode(rawPassword);
+            }
+        }, 1, 4, registry);
+        String hashAntigo = new BCryptPasswordEncoder(4).encode("admin123");
+        User usuario = new User("admin", hashAntigo, Set.of("ROLE_ADMIN"));
+        AtomicReference<String> novoHash = new AtomicReference<>();
+
+        DaoAuthenticationProvider provider = new OptionalRehashAuthenticationProvider(encoder);
+        provider.setUserDetailsService(username -> usuario);
+        provider.setUserDetailsPasswordService((UserDetails user, String newPassword) -> {
+            novoHash.set(newPassword);
+            return user;
+        });
+
+        Authentication autenticado = provider.authenticate(new UsernamePasswordAuthenticationToken("admin", "admin123"));
+
+        assertThat(autenticado.isAuthenticated()).isTrue();
+        assertThat(autenticado.getPrincipal()).isSameAs(usuario);
+        assertThat(autenticado.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        assertThat(novoHash.get()).isNull();
+        assertThat(usuario.getPassword()).isEqualTo(hashAntigo);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilMetricasTest {
+
+    private static final String SECRET = "03O2Kdx9PoM8/9fE9OvSxhMX11tkAVguyFtNeuL/y6A=";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000, 100, registry);
+
+    @Test
+    void verificacaoRegistraParseAcertoNoCacheERejeicao() {
+        String token = jwtUtil.generateToken(new User("admin", "x", Set.of("ROLE_ADMIN")));
+
+        jwtUtil.verify(token);
+        jwtUtil.verify(token);
+        jwtUtil.verify(token);
+        assertThatThrownBy(() -> jwtUtil.verify(token + "x")).isInstanceOf(JwtException.class);
+
+        assertThat(contagem("verificado")).isEqualTo(1);
+        assertThat(contagem("cache")).isEqualTo(2);
+        assertThat(contagem("invalido")).isEqualTo(1);
+        assertThat(registry.get("jwt.geracao").timer().count()).isEqualTo(1);
+    }
+
+    private long contagem(String resultado) {
+        return registry.get("jwt.verificacao").tag("resultado", resultado).timer().count();
+    }
+}
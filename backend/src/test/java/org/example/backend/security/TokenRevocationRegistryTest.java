@@ -0,0 +1,63 @@
+package org.example.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationRegistryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository);
+
+    private static TokenRevocationRegistry.RevocationEntry entrada(String username, boolean enabled, int tokenVersion) {
+        return new TokenRevocationRegistry.RevocationEntry(username, enabled, tokenVersion);
+    }
+
+    @Test
+    void versaoRevogadaEUsuarioDesabilitadoSaoRecusados() {
+        when(userRepository.findRevocationEntries()).thenReturn(List.of(
+                entrada("ana", true, 2), entrada("bruno", false, 0)));
+        registry.refresh();
+
+        assertThat(registry.isAccepted("ana", 1)).isFalse();
+        assertThat(registry.isAccepted("ana", 2)).isTrue();
+        assertThat(registry.isAccepted("bruno", 0)).isFalse();
+    }
+
+    // O token continua assinado e dentro da validade depois que o usuário é excluído
+    @Test
+    void usuarioRemovidoTemOsTokensRecusados() {
+        when(userRepository.findRevocationEntries()).thenReturn(List.of(entrada("ana", true, 0)));
+        registry.refresh();
+        assertThat(registry.isAccepted("ana", 0)).isTrue();
+
+        when(userRepository.findRevocationEntries()).thenReturn(List.of());
+        when(userRepository.findRevocationEntry("ana")).thenReturn(Optional.empty());
+        registry.refresh();
+
+        assertThat(registry.isAccepted("ana", 0)).isFalse();
+        assertThat(registry.isAccepted("ana", Integer.MAX_VALUE - 1)).isFalse();
+    }
+
+    @Test
+    void usuarioCriadoAposAAtualizacaoEhConsultadoUmaVez() {
+        when(userRepository.findRevocationEntries()).thenReturn(List.of());
+        registry.refresh();
+        when(userRepository.findRevocationEntry("carla")).thenReturn(Optional.of(entrada("carla", true, 0)));
+
+        assertThat(registry.isAccepted("carla", 0)).isTrue();
+        assertThat(registry.isAccepted("carla", 0)).isTrue();
+        verify(userRepository, times(1)).findRevocationEntry("carla");
+    }
+
+    @Test
+    void falhaNaConsultaRecusaOToken() {
+        when(userRepository.findRevocationEntry("ana")).thenThrow(new IllegalStateException("banco fora do ar"));
+
+        assertThat(registry.isAccepted("ana", 0)).isFalse();
+    }
+}
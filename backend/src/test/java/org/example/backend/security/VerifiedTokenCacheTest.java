@@ -0,0 +1,38 @@
+package org.example.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private static VerifiedToken token(String username, long expiraEmMs) {
+        long agora = System.currentTimeMillis();
+        return new VerifiedToken(username, List.of("ROLE_USER"), 0, new Date(agora), new Date(agora + expiraEmMs));
+    }
+
+    @Test
+    void entradaExpiraJuntoComOToken() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        cache.put("curto", token("ana", 50), System.currentTimeMillis());
+        cache.put("longo", token("bruno", 60_000), System.currentTimeMillis());
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("curto", System.currentTimeMillis())).isNull();
+        assertThat(cache.get("longo", System.currentTimeMillis())).extracting(VerifiedToken::username).isEqualTo("bruno");
+    }
+
+    @Test
+    void tamanhoLimitado() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, token("usuario" + i, 60_000), System.currentTimeMillis());
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+}